@@ -0,0 +1,90 @@
+package com.mariuszilinskas.streamix.users.account.benchmark;
+
+import com.mariuszilinskas.streamix.users.account.dto.AuthDetailsResponse;
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+import com.mariuszilinskas.streamix.users.account.mapper.UserMapper;
+import com.mariuszilinskas.streamix.users.account.model.User;
+import com.mariuszilinskas.streamix.users.account.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading auth details through the full User entity against the closed projection query.
+ * Run with the gc profiler (configured by default) to see the allocation difference per lookup.
+ *
+ * @author Marius Zilinskas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthDetailsQueryBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int SEED_BATCH_SIZE = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private final List<String> emails = new ArrayList<>(USERS);
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        userRepository = context.getBean(UserRepository.class);
+
+        List<User> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < USERS; i++) {
+            batch.add(createUser(i));
+            if (batch.size() == SEED_BATCH_SIZE) {
+                userRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        userRepository.saveAll(batch);
+    }
+
+    private User createUser(int i) {
+        User user = new User();
+        user.setFirstName("First" + i);
+        user.setLastName("Last" + i);
+        user.setEmail("user" + i + "@example.com");
+        user.setCountry("United Kingdom");
+        user.setStatus(UserStatus.ACTIVE);
+        user.setRoles(List.of(UserRole.USER));
+        emails.add(user.getEmail());
+        return user;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private String nextEmail() {
+        next = (next + 1) % USERS;
+        return emails.get(next);
+    }
+
+    @Benchmark
+    public AuthDetailsResponse entityPath() {
+        return userRepository.findByEmailIgnoreCase(nextEmail())
+                .map(UserMapper::mapToAuthDetailsResponse)
+                .orElseThrow();
+    }
+
+    @Benchmark
+    public AuthDetailsResponse projectionPath() {
+        return userRepository.findAuthDetailsByEmailIgnoreCase(nextEmail())
+                .map(UserMapper::mapToAuthDetailsResponse)
+                .orElseThrow();
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.mariuszilinskas.streamix.users.account.benchmark;
+
+import com.mariuszilinskas.streamix.users.account.AccountServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Boots the application against the in-memory H2 database of the CI profile for benchmarks
+ * that need the real persistence layer. No web server is started unless requested, and nothing
+ * is consumed from or relayed to RabbitMQ.
+ *
+ * @author Marius Zilinskas
+ */
+public abstract class BenchmarkApplication {
+
+    private static final List<String> BASE_PROPERTIES = List.of(
+            "spring.cloud.config.enabled=false",
+            "eureka.client.enabled=false",
+            "spring.rabbitmq.listener.simple.auto-startup=false",
+            "account.metrics.queue-backlog.enabled=false",
+            "account.outbox.relay.enabled=false",
+            "logging.level.root=WARN",
+            "logging.level.com.mariuszilinskas.streamix=WARN",
+            "logging.level.org.springframework.web=WARN"
+    );
+
+    private BenchmarkApplication() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Starts the application context. Properties are passed as command line arguments,
+     * so they take precedence over the profile's configuration files.
+     *
+     * @param properties additional {@code key=value} properties for the benchmark
+     * @return the running application context
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        return run(WebApplicationType.NONE, properties);
+    }
+
+    /**
+     * Starts the application context with its web server on a random port,
+     * for benchmarks that go through Tomcat and the controllers.
+     *
+     * @param properties additional {@code key=value} properties for the benchmark
+     * @return the running application context
+     */
+    public static ConfigurableApplicationContext startWithWebServer(String... properties) {
+        return run(WebApplicationType.SERVLET, Stream.concat(Stream.of("server.port=0"), Arrays.stream(properties))
+                .toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType webApplicationType, String... properties) {
+        String[] args = Stream.concat(BASE_PROPERTIES.stream(), Arrays.stream(properties))
+                .map(property -> "--" + property)
+                .toArray(String[]::new);
+
+        return new SpringApplicationBuilder(AccountServiceApplication.class)
+                .profiles("ci")
+                .web(webApplicationType)
+                .run(args);
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.mariuszilinskas.streamix.users.account.benchmark;
+
+import com.mariuszilinskas.streamix.users.account.dto.CreateUserRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Bean Validation of a registration request, whose password runs through four regex
+ * {@code @Pattern}s. Covers a valid request and one that fails every password rule, since
+ * building violation messages is part of the cost of a rejected request.
+ *
+ * @author Marius Zilinskas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateUserValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private CreateUserRequest validRequest;
+    private CreateUserRequest invalidRequest;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validRequest = new CreateUserRequest("John", "Doe", "john@example.com", "United Kingdom", "Password1!");
+        invalidRequest = new CreateUserRequest("John", "Doe", "john@example.com", "United Kingdom", "        ");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CreateUserRequest>> validRequest() {
+        return validator.validate(validRequest);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CreateUserRequest>> invalidPassword() {
+        return validator.validate(invalidRequest);
+    }
+
+}
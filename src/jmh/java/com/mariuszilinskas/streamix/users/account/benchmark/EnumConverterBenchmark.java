@@ -0,0 +1,64 @@
+package com.mariuszilinskas.streamix.users.account.benchmark;
+
+import com.mariuszilinskas.streamix.users.account.converter.EnumBitmaskConverter;
+import com.mariuszilinskas.streamix.users.account.converter.UserRoleBitmaskConverter;
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link EnumBitmaskConverter} that maps User roles with the comma-separated
+ * {@link StringEnumConverter} it replaced, in both directions, for a single value and for every
+ * value of the enum, so the per-value cost of encoding and decoding is visible.
+ *
+ * @author Marius Zilinskas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnumConverterBenchmark {
+
+    @Param({"1", "ALL"})
+    private String values;
+
+    private final EnumBitmaskConverter<UserRole> converter = new UserRoleBitmaskConverter();
+    private final StringEnumConverter<UserRole> stringConverter = new StringEnumConverter<>(UserRole.class);
+    private List<UserRole> attribute;
+    private Integer column;
+    private String stringColumn;
+
+    @Setup
+    public void setUp() {
+        List<UserRole> roles = Arrays.asList(UserRole.values());
+        attribute = "ALL".equals(values) ? roles : roles.subList(0, Integer.parseInt(values));
+        column = converter.convertToDatabaseColumn(attribute);
+        stringColumn = stringConverter.convertToDatabaseColumn(attribute);
+    }
+
+    @Benchmark
+    public Integer encode() {
+        return converter.convertToDatabaseColumn(attribute);
+    }
+
+    @Benchmark
+    public List<UserRole> decode() {
+        return converter.convertToEntityAttribute(column);
+    }
+
+    @Benchmark
+    public String stringEncode() {
+        return stringConverter.convertToDatabaseColumn(attribute);
+    }
+
+    @Benchmark
+    public List<UserRole> stringDecode() {
+        return stringConverter.convertToEntityAttribute(stringColumn);
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.mariuszilinskas.streamix.users.account.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.mariuszilinskas.streamix.users.account.dto.ErrorResponse;
+import com.mariuszilinskas.streamix.users.account.exception.ResourceNotFoundException;
+import com.mariuszilinskas.streamix.users.account.handler.AppExceptionHandler;
+import com.mariuszilinskas.streamix.users.account.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures turning a not-found error into a response through {@link AppExceptionHandler}, whose
+ * buildErrorResponse logs and wraps every handled exception. The handler's log level is a parameter,
+ * so the share of the cost spent logging is visible. Creating the exception, with its formatted
+ * message and stack trace, is measured separately.
+ *
+ * @author Marius Zilinskas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+
+    @Param({"OFF", "ERROR"})
+    private String logLevel;
+
+    private final AppExceptionHandler exceptionHandler = new AppExceptionHandler();
+    private final UUID userId = UUID.randomUUID();
+    private ResourceNotFoundException exception;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(AppExceptionHandler.class)).setLevel(Level.toLevel(logLevel));
+        exception = new ResourceNotFoundException(User.class, "id", userId);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> handle() {
+        return exceptionHandler.handleResourceNotFoundException(exception);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> createAndHandle() {
+        return exceptionHandler.handleResourceNotFoundException(new ResourceNotFoundException(User.class, "id", userId));
+    }
+
+}
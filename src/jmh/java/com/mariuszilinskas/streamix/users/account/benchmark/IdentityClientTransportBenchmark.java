@@ -0,0 +1,140 @@
+package com.mariuszilinskas.streamix.users.account.benchmark;
+
+import com.mariuszilinskas.streamix.users.account.client.FeignIdentityClient;
+import com.mariuszilinskas.streamix.users.account.client.GrpcIdentityClient;
+import com.mariuszilinskas.streamix.users.account.client.IdentityClient;
+import com.mariuszilinskas.streamix.users.account.client.IdentityFeignClient;
+import com.mariuszilinskas.streamix.users.account.client.IdentityGrpcStub;
+import com.mariuszilinskas.streamix.users.account.dto.CredentialsRequest;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Feign;
+import feign.Request;
+import feign.hc5.ApacheHttp5Client;
+import feign.jackson.JacksonDecoder;
+import feign.jackson.JacksonEncoder;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares identity client transports against local stubs that answer immediately, so the
+ * difference is connection handling and per-call overhead: Feign over the default
+ * {@code HttpURLConnection} client and over the pooled Apache HttpClient 5 client, and gRPC over
+ * loopback and in-process. The in-process case has no network stack at all, and bounds what
+ * the gRPC client itself costs.
+ *
+ * @author Marius Zilinskas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(16)
+@Fork(1)
+public class IdentityClientTransportBenchmark {
+
+    @Param({"default", "hc5", "grpc", "grpc-inprocess"})
+    private String transport;
+
+    private ExecutorService identityExecutor;
+    private HttpServer identityService;
+    private CloseableHttpClient httpClient;
+    private IdentityGrpcStub identityGrpcStub;
+    private ManagedChannel channel;
+    private IdentityClient identityClient;
+    private final CredentialsRequest request =
+            new CredentialsRequest(UUID.randomUUID(), "John", "john@example.com", "Password1!");
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        switch (transport) {
+            case "grpc" -> {
+                identityGrpcStub = IdentityGrpcStub.onLoopback();
+                channel = ManagedChannelBuilder.forAddress("localhost", identityGrpcStub.port()).usePlaintext().build();
+                identityClient = new GrpcIdentityClient(channel, Duration.ofSeconds(3), Duration.ofSeconds(3));
+            }
+            case "grpc-inprocess" -> {
+                identityGrpcStub = IdentityGrpcStub.inProcess("identity-benchmark");
+                channel = InProcessChannelBuilder.forName("identity-benchmark").build();
+                identityClient = new GrpcIdentityClient(channel, Duration.ofSeconds(3), Duration.ofSeconds(3));
+            }
+            default -> identityClient = new FeignIdentityClient(createFeignClient());
+        }
+    }
+
+    private IdentityFeignClient createFeignClient() throws IOException {
+        identityExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        identityService = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        identityService.setExecutor(identityExecutor);
+        identityService.createContext("/", this::respond);
+        identityService.start();
+
+        return Feign.builder()
+                .client(createClient())
+                .contract(new SpringMvcContract())
+                .encoder(new JacksonEncoder())
+                .decoder(new JacksonDecoder())
+                .options(new Request.Options(Duration.ofSeconds(1), Duration.ofSeconds(3), true))
+                .target(IdentityFeignClient.class, "http://localhost:" + identityService.getAddress().getPort());
+    }
+
+    private Client createClient() {
+        if (!"hc5".equals(transport))
+            return new Client.Default(null, null);
+
+        // Same limits as spring.cloud.openfeign.httpclient in application.yml
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(200)
+                .setMaxConnPerRoute(50)
+                .build();
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .build();
+        return new ApacheHttp5Client(httpClient);
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, -1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (channel != null)
+            channel.shutdownNow();
+        if (identityGrpcStub != null)
+            identityGrpcStub.close();
+        if (httpClient != null)
+            httpClient.close();
+        if (identityService != null) {
+            identityService.stop(0);
+            identityExecutor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public void createCredentials() {
+        identityClient.createCredentials(request);
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.mariuszilinskas.streamix.users.account.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mariuszilinskas.streamix.users.account.dto.AuthDetailsResponse;
+import com.mariuszilinskas.streamix.users.account.dto.UserAdminResponse;
+import com.mariuszilinskas.streamix.users.account.dto.UserLastActiveMessage;
+import com.mariuszilinskas.streamix.users.account.enums.UserAuthority;
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson serialization of the payloads written most often: auth details returned to the
+ * gateway, admin listing rows and last-active messages. The mapper is built the way Spring Boot builds
+ * the web layer's, so date and module handling match production.
+ *
+ * @author Marius Zilinskas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private AuthDetailsResponse authDetails;
+    private UserAdminResponse userAdmin;
+    private UserLastActiveMessage lastActive;
+
+    @Setup
+    public void setUp() {
+        UUID userId = UUID.randomUUID();
+        ZonedDateTime now = ZonedDateTime.now();
+        authDetails = new AuthDetailsResponse(userId, List.of(UserRole.USER, UserRole.ADMIN),
+                List.of(UserAuthority.MANAGE_SETTINGS), UserStatus.ACTIVE);
+        userAdmin = new UserAdminResponse(userId, "John", "Doe", "john@example.com", "United Kingdom", true,
+                UserStatus.ACTIVE.name(), List.of(UserRole.USER), List.of(), now.minusYears(1), now);
+        lastActive = new UserLastActiveMessage(userId, now);
+    }
+
+    @Benchmark
+    public byte[] authDetailsResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(authDetails);
+    }
+
+    @Benchmark
+    public byte[] userAdminResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userAdmin);
+    }
+
+    @Benchmark
+    public byte[] userLastActiveMessage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(lastActive);
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.mariuszilinskas.streamix.users.account.benchmark;
+
+import com.mariuszilinskas.streamix.users.account.dto.UserLastActiveMessage;
+import com.mariuszilinskas.streamix.users.account.producer.AsyncConfirmPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures publishing a flush of lastActive updates against a broker stand-in that acks each publish
+ * after a fixed confirm latency: waiting for every confirm in turn, publishing everything and then
+ * waiting for the confirms, and publishing batches of messages with one confirm each.
+ * Run with -PjmhIncludes=PublisherConfirmBenchmark.
+ *
+ * @author Marius Zilinskas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublisherConfirmBenchmark {
+
+    private static final int MESSAGES = 500;
+
+    @Param({"sync", "async", "async-batched"})
+    private String mode;
+
+    @Param({"1"})
+    private long confirmLatencyMs;
+
+    private ScheduledExecutorService broker;
+    private AsyncConfirmPublisher publisher;
+    private List<UserLastActiveMessage> flush;
+
+    /**
+     * Stand-in for the broker: acks every publish on another thread once the confirm latency has passed.
+     */
+    static class DelayedConfirmRabbitTemplate extends RabbitTemplate {
+
+        private final ScheduledExecutorService broker;
+        private final long confirmLatencyMs;
+
+        DelayedConfirmRabbitTemplate(ScheduledExecutorService broker, long confirmLatencyMs) {
+            this.broker = broker;
+            this.confirmLatencyMs = confirmLatencyMs;
+            setMessageConverter(new Jackson2JsonMessageConverter());
+        }
+
+        @Override
+        public void send(String exchange, String routingKey, Message message, CorrelationData correlationData) {
+            broker.schedule(() -> correlationData.getFuture().complete(new CorrelationData.Confirm(true, null)),
+                    confirmLatencyMs, TimeUnit.MILLISECONDS);
+        }
+
+    }
+
+    @Setup
+    public void setUp() {
+        broker = Executors.newSingleThreadScheduledExecutor();
+        publisher = new AsyncConfirmPublisher(new DelayedConfirmRabbitTemplate(broker, confirmLatencyMs),
+                new SimpleMeterRegistry(), 1000, Duration.ofSeconds(1), Duration.ofSeconds(5), 500, 65536);
+        ZonedDateTime now = ZonedDateTime.now();
+        flush = IntStream.range(0, MESSAGES)
+                .mapToObj(i -> new UserLastActiveMessage(UUID.randomUUID(), now))
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        broker.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public boolean publishFlush() {
+        return switch (mode) {
+            case "sync" -> flush.stream()
+                    .allMatch(message -> publisher.publish("exchange", "update-last-active", "key", message).join());
+            case "async" -> {
+                List<CompletableFuture<Boolean>> confirms = new ArrayList<>(flush.size());
+                for (UserLastActiveMessage message : flush)
+                    confirms.add(publisher.publish("exchange", "update-last-active", "key", message));
+                yield confirms.stream().allMatch(CompletableFuture::join);
+            }
+            case "async-batched" -> publisher.publishBatch("exchange", "update-last-active", "key", flush).join();
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        };
+    }
+
+}
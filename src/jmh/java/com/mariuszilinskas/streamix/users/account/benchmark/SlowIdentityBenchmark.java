@@ -0,0 +1,143 @@
+package com.mariuszilinskas.streamix.users.account.benchmark;
+
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+import com.mariuszilinskas.streamix.users.account.model.User;
+import com.mariuszilinskas.streamix.users.account.repository.UserRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures auth-details lookups through Tomcat while the identity service takes a second to answer.
+ * In the background, more email-update requests than Tomcat has platform threads are kept in flight,
+ * each parked on the password check. With platform threads the lookups queue behind them; with
+ * virtual threads they don't. The connection pool is sized above the requests in flight, so the
+ * benchmark isolates thread starvation from pool starvation.
+ *
+ * @author Marius Zilinskas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class SlowIdentityBenchmark {
+
+    private static final String PASSWORD = "Password1!";
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"1000"})
+    private long identityDelayMs;
+
+    @Param({"300"})
+    private int slowRequestsInFlight;
+
+    private ExecutorService identityExecutor;
+    private HttpServer identityService;
+    private ConfigurableApplicationContext context;
+    private ExecutorService slowRequestSenders;
+    private volatile boolean running;
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private HttpRequest authDetailsRequest;
+    private HttpRequest slowRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        identityExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        identityService = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        identityService.setExecutor(identityExecutor);
+        identityService.createContext("/", this::respondSlowly);
+        identityService.start();
+
+        context = BenchmarkApplication.startWithWebServer(
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "spring.cloud.openfeign.client.config.auth-identity.url=http://localhost:" + identityService.getAddress().getPort(),
+                "spring.datasource.hikari.maximum-pool-size=" + (slowRequestsInFlight + 10)
+        );
+        User user = context.getBean(UserRepository.class).save(createUser());
+        URI baseUri = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+
+        authDetailsRequest = HttpRequest.newBuilder(baseUri.resolve("/user/auth-details/by-userid?userId=" + user.getId()))
+                .GET()
+                .build();
+        // Same email as the user already has: the password is checked, then nothing is written
+        slowRequest = HttpRequest.newBuilder(baseUri.resolve("/user/" + user.getId() + "/email"))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .build();
+
+        running = true;
+        slowRequestSenders = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < slowRequestsInFlight; i++)
+            slowRequestSenders.submit(this::sendSlowRequests);
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmail("john@example.com");
+        user.setCountry("United Kingdom");
+        user.setStatus(UserStatus.ACTIVE);
+        user.setRoles(List.of(UserRole.USER));
+        return user;
+    }
+
+    private void respondSlowly(HttpExchange exchange) throws IOException {
+        try {
+            exchange.getRequestBody().readAllBytes();
+            Thread.sleep(identityDelayMs);
+            exchange.sendResponseHeaders(200, -1);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void sendSlowRequests() {
+        while (running) {
+            try {
+                httpClient.send(slowRequest, HttpResponse.BodyHandlers.discarding());
+            } catch (IOException ex) {
+                // Keep the request count in flight constant
+            } catch (InterruptedException ex) {
+                return;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        running = false;
+        slowRequestSenders.shutdownNow();
+        context.close();
+        identityService.stop(0);
+        identityExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int authDetailsByUserId() throws IOException, InterruptedException {
+        return httpClient.send(authDetailsRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+}
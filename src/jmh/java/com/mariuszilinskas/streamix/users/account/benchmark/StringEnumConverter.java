@@ -1,7 +1,4 @@
-package com.mariuszilinskas.streamix.users.account.converter;
-
-import jakarta.persistence.AttributeConverter;
-import jakarta.persistence.Converter;
+package com.mariuszilinskas.streamix.users.account.benchmark;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -9,32 +6,31 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 /**
- * Converts a list of Enum values to a comma-separated String for database storage and
- * converts back from the String to a List of Enum values for entity attribute.
+ * The comma-separated String converter roles and authorities were stored with before the bitmask
+ * columns, kept unchanged as the baseline for {@link EnumConverterBenchmark}.
  *
  * @param <E> the Enum type this converter handles
+ * @author Marius Zilinskas
  */
-@Converter
-public class EnumConverter<E extends Enum<E>> implements AttributeConverter<List<E>, String> {
+class StringEnumConverter<E extends Enum<E>> {
 
     private final Class<E> enumType;
 
-    public EnumConverter(Class<E> enumType) {
+    StringEnumConverter(Class<E> enumType) {
         this.enumType = enumType;
     }
 
-    @Override
-    public String convertToDatabaseColumn(List<E> attribute) {
+    String convertToDatabaseColumn(List<E> attribute) {
         return attribute != null ? attribute.stream()
                 .map(Enum::name)
                 .collect(Collectors.joining(",")) : "";
     }
 
-    @Override
-    public List<E> convertToEntityAttribute(String dbData) {
+    List<E> convertToEntityAttribute(String dbData) {
         return dbData != null && !dbData.isEmpty() ?
                 Arrays.stream(dbData.split(","))
                         .map(name -> Enum.valueOf(enumType, name))
                         .collect(Collectors.toList()) : new ArrayList<>();
     }
+
 }
@@ -0,0 +1,54 @@
+package com.mariuszilinskas.streamix.users.account.benchmark;
+
+import com.mariuszilinskas.streamix.users.account.dto.AuthDetailsResponse;
+import com.mariuszilinskas.streamix.users.account.dto.UserResponse;
+import com.mariuszilinskas.streamix.users.account.enums.UserAuthority;
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+import com.mariuszilinskas.streamix.users.account.mapper.UserMapper;
+import com.mariuszilinskas.streamix.users.account.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the entity-to-response mappings on the auth details and get-user paths.
+ *
+ * @author Marius Zilinskas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmail("john@example.com");
+        user.setCountry("United Kingdom");
+        user.setStatus(UserStatus.ACTIVE);
+        user.setRoles(List.of(UserRole.USER, UserRole.ADMIN));
+        user.setAuthorities(List.of(UserAuthority.MANAGE_SETTINGS));
+    }
+
+    @Benchmark
+    public AuthDetailsResponse mapToAuthDetailsResponse() {
+        return UserMapper.mapToAuthDetailsResponse(user);
+    }
+
+    @Benchmark
+    public UserResponse mapToUserResponse() {
+        return UserMapper.mapToUserResponse(user);
+    }
+
+}
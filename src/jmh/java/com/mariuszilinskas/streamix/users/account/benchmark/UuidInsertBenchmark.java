@@ -0,0 +1,104 @@
+package com.mariuszilinskas.streamix.users.account.benchmark;
+
+import com.mariuszilinskas.streamix.users.account.generator.TimeOrderedUuid;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares insert throughput into a UUID primary key for random version 4 ids against
+ * time-ordered version 7 ids. The table is pre-filled, so that v4 inserts land on random
+ * pages of an index that no longer fits in a few pages, while v7 inserts append to its right-hand edge.
+ * Runs against in-memory H2 by default; pass e.g.
+ * {@code -p jdbcUrl=jdbc:postgresql://localhost:5432/bench -p username=postgres -p password=postgres}
+ * to measure PostgreSQL, where the final primary key index size is printed as well.
+ *
+ * @author Marius Zilinskas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UuidInsertBenchmark {
+
+    private static final int PREFILL_ROWS = 200_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final String INSERT_SQL = "INSERT INTO uuid_bench (id, payload) VALUES (?, ?)";
+
+    @Param({"V4", "V7"})
+    public String strategy;
+
+    @Param("jdbc:h2:mem:uuid_bench;DB_CLOSE_DELAY=-1")
+    public String jdbcUrl;
+
+    @Param("sa")
+    public String username;
+
+    @Param("")
+    public String password;
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private Supplier<UUID> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        ids = "V7".equals(strategy) ? TimeOrderedUuid::next : UUID::randomUUID;
+        connection = DriverManager.getConnection(jdbcUrl, username, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS uuid_bench");
+            statement.execute("CREATE TABLE uuid_bench (id UUID NOT NULL, payload VARCHAR(64) NOT NULL, " +
+                    "CONSTRAINT pk_uuid_bench PRIMARY KEY (id))");
+        }
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement(INSERT_SQL);
+        for (int i = 0; i < PREFILL_ROWS / BATCH_SIZE; i++)
+            insertBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        if (jdbcUrl.startsWith("jdbc:postgresql"))
+            printIndexSize();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE uuid_bench");
+        }
+        connection.commit();
+        insert.close();
+        connection.close();
+    }
+
+    private void printIndexSize() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT pg_size_pretty(pg_relation_size('pk_uuid_bench')), count(*) FROM uuid_bench")) {
+            resultSet.next();
+            System.out.printf("%n%s primary key index: %s for %d rows%n",
+                    strategy, resultSet.getString(1), resultSet.getLong(2));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int insertBatch() throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            insert.setObject(1, ids.get());
+            insert.setString(2, "payload");
+            insert.addBatch();
+        }
+        int rows = insert.executeBatch().length;
+        connection.commit();
+        return rows;
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.mariuszilinskas.streamix.users.account.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process stand-in for the auth-identity service, the target of
+ * {@link com.mariuszilinskas.streamix.users.account.client.IdentityFeignClient}.
+ * Accepts every credentials and password-verification request after a fixed delay,
+ * which stands in for the network and the password hashing done by the real service.
+ *
+ * @author Marius Zilinskas
+ */
+public class IdentityServiceStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Duration latency;
+    private final LongAdder credentialsRequests = new LongAdder();
+    private final LongAdder passwordVerifications = new LongAdder();
+
+    public IdentityServiceStub(Duration latency) throws IOException {
+        this.latency = latency;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/credentials", exchange -> respond(exchange, credentialsRequests));
+        server.createContext("/password/verify", exchange -> respond(exchange, passwordVerifications));
+        server.start();
+    }
+
+    public String baseUrl() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    public long credentialsRequests() {
+        return credentialsRequests.sum();
+    }
+
+    public long passwordVerifications() {
+        return passwordVerifications.sum();
+    }
+
+    private void respond(HttpExchange exchange, LongAdder counter) throws IOException {
+        try {
+            exchange.getRequestBody().readAllBytes();
+            if (latency.isPositive())
+                Thread.sleep(latency);
+            counter.increment();
+            exchange.sendResponseHeaders(200, -1);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(503, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+}
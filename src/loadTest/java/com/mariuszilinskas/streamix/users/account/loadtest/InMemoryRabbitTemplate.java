@@ -0,0 +1,41 @@
+package com.mariuszilinskas.streamix.users.account.loadtest;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stand-in for the broker: messages are converted to JSON exactly as they would be for RabbitMQ,
+ * so serialization stays in the measured path, and then counted, confirmed and dropped.
+ *
+ * @author Marius Zilinskas
+ */
+public class InMemoryRabbitTemplate extends RabbitTemplate {
+
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    public InMemoryRabbitTemplate() {
+        setMessageConverter(new Jackson2JsonMessageConverter());
+    }
+
+    @Override
+    public void send(String exchange, String routingKey, Message message, CorrelationData correlationData) {
+        messages.increment();
+        bytes.add(message.getBody().length);
+        if (correlationData != null)
+            correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+    }
+
+    public long messages() {
+        return messages.sum();
+    }
+
+    public long bytes() {
+        return bytes.sum();
+    }
+
+}
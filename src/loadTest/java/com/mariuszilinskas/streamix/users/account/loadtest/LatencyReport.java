@@ -0,0 +1,63 @@
+package com.mariuszilinskas.streamix.users.account.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Formats the per-endpoint throughput and latency percentiles of the measured phase.
+ *
+ * @author Marius Zilinskas
+ */
+public abstract class LatencyReport {
+
+    private static final String ROW = "%-34s %10s %8s %12s %10s %10s %10s %10s%n";
+
+    private LatencyReport() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static String format(Map<Scenario, ScenarioStats> stats, Duration duration) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(ROW, "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Map.Entry<Scenario, ScenarioStats> entry : stats.entrySet()) {
+            ScenarioStats scenarioStats = entry.getValue();
+            total.add(scenarioStats.latencies());
+            totalErrors += scenarioStats.errors();
+            report.append(row(entry.getKey().endpoint(), scenarioStats.latencies(), scenarioStats.errors(), duration));
+        }
+        report.append(row("All", total, totalErrors, duration));
+        return report.toString();
+    }
+
+    public static void write(String report, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+        Files.writeString(file, report);
+    }
+
+    private static String row(String name, Histogram latencies, long errors, Duration duration) {
+        return String.format(ROW,
+                name,
+                latencies.getTotalCount(),
+                errors,
+                String.format("%.1f", latencies.getTotalCount() / (duration.toNanos() / 1e9)),
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()));
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2f", micros / 1000.0);
+    }
+
+}
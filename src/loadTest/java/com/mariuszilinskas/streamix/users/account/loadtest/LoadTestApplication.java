@@ -0,0 +1,82 @@
+package com.mariuszilinskas.streamix.users.account.loadtest;
+
+import com.mariuszilinskas.streamix.users.account.AccountServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boots the full application, web layer included, on a random port against an in-memory H2 database.
+ * The identity service is reached through the real Feign client, pointed at {@link IdentityServiceStub},
+ * and RabbitMQ is replaced by {@link InMemoryRabbitTemplate}, so no external service is needed.
+ *
+ * @author Marius Zilinskas
+ */
+public abstract class LoadTestApplication {
+
+    private static final List<String> BASE_PROPERTIES = List.of(
+            "server.port=0",
+            "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+            "spring.cloud.config.enabled=false",
+            "eureka.client.enabled=false",
+            "spring.rabbitmq.listener.simple.auto-startup=false",
+            "account.metrics.queue-backlog.enabled=false",
+            "management.health.rabbit.enabled=false",
+            // The email filter is built once the users are seeded, see LoadTestRunner
+            "account.email-filter.initial-delay=3650d",
+            "logging.level.root=WARN",
+            "logging.level.com.mariuszilinskas.streamix=WARN",
+            "logging.level.com.mariuszilinskas.streamix.users.account.loadtest=INFO",
+            "logging.level.org.springframework.web=WARN"
+    );
+
+    private LoadTestApplication() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Replaces the auto-configured RabbitTemplate, which the producer injects by name.
+     */
+    @Configuration
+    static class BrokerStubConfig {
+
+        @Bean
+        @Primary
+        public InMemoryRabbitTemplate rabbitTemplate() {
+            return new InMemoryRabbitTemplate();
+        }
+
+    }
+
+    /**
+     * Starts the application context. Properties are passed as command line arguments,
+     * so they take precedence over the profile's configuration files.
+     *
+     * @param identityUrl   base URL of the identity service stub
+     * @param appProperties additional properties, applied last
+     * @return the running application context
+     */
+    public static ConfigurableApplicationContext start(String identityUrl, Map<String, String> appProperties) {
+        List<String> properties = new ArrayList<>(BASE_PROPERTIES);
+        properties.add("spring.cloud.openfeign.client.config.auth-identity.url=" + identityUrl);
+        appProperties.forEach((name, value) -> properties.add(name + "=" + value));
+
+        return new SpringApplicationBuilder(AccountServiceApplication.class, BrokerStubConfig.class)
+                .profiles("ci")
+                .web(WebApplicationType.SERVLET)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    public static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.mariuszilinskas.streamix.users.account.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mariuszilinskas.streamix.users.account.cache.EmailBloomFilter;
+import com.mariuszilinskas.streamix.users.account.loadtest.SyntheticUserGenerator.SeededUsers;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point of the {@code loadTest} Gradle task: starts the identity service stub and the application,
+ * seeds the synthetic users, drives the scenario mix and reports throughput and latency per endpoint.
+ *
+ * @author Marius Zilinskas
+ */
+public class LoadTestRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+        try (IdentityServiceStub identityService = new IdentityServiceStub(settings.identityLatency());
+             ConfigurableApplicationContext context = LoadTestApplication.start(identityService.baseUrl(), settings.appProperties())) {
+            SeededUsers users = new SyntheticUserGenerator(context.getBean(JdbcTemplate.class))
+                    .seed(settings.users(), settings.seedBatchSize());
+            context.getBean(EmailBloomFilter.class).rebuild();
+
+            URI baseUri = URI.create("http://localhost:" + LoadTestApplication.port(context));
+            WorkloadDriver driver = new WorkloadDriver(settings, baseUri, users, context.getBean(ObjectMapper.class));
+            Map<Scenario, ScenarioStats> stats = driver.run();
+
+            InMemoryRabbitTemplate broker = context.getBean(InMemoryRabbitTemplate.class);
+            String report = LatencyReport.format(stats, settings.duration()) + String.format(
+                    "%nUsers: %d, virtual users: %d, target rate: %s, measured for %s%n" +
+                    "Including warmup, identity stub: %d credentials, %d password verifications; broker stub: %d messages, %d bytes%n" +
+                    "%s%n",
+                    settings.users(), settings.concurrency(),
+                    settings.rate() > 0 ? settings.rate() + " req/s" : "unbounded", settings.duration(),
+                    identityService.credentialsRequests(), identityService.passwordVerifications(),
+                    broker.messages(), broker.bytes(),
+                    connectionHoldTime(context.getBean(MeterRegistry.class)));
+
+            System.out.print(report);
+            LatencyReport.write(report, settings.report());
+            logger.info("Load test report written to {}", settings.report().toAbsolutePath());
+        }
+    }
+
+    // How long requests keep a pooled connection checked out, which bounds what the pool can serve
+    private static String connectionHoldTime(MeterRegistry registry) {
+        Timer usage = registry.find("hikaricp.connections.usage").timer();
+        if (usage == null || usage.count() == 0)
+            return "Connection hold time: not recorded";
+
+        return String.format("Connection hold time, including warmup: %d checkouts, mean %.2f ms, max %.2f ms",
+                usage.count(), usage.mean(TimeUnit.MILLISECONDS), usage.max(TimeUnit.MILLISECONDS));
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.mariuszilinskas.streamix.users.account.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Load test settings, read from {@code loadTest.*} system properties. Properties prefixed with
+ * {@code loadTest.app.} are passed to the application, e.g.
+ * {@code loadTest.app.spring.datasource.hikari.maximum-pool-size=20}.
+ *
+ * @param users           number of synthetic users seeded before the run
+ * @param seedBatchSize   rows per batched insert while seeding
+ * @param concurrency     number of concurrent virtual users
+ * @param rate            target requests per second across all virtual users, or 0 to send as fast as responses return
+ * @param warmup          time spent driving the mix before measuring
+ * @param duration        time spent measuring
+ * @param identityLatency delay the identity service stub adds to every response
+ * @param mix             relative weight of each scenario
+ * @param report          file the summary is written to, in addition to stdout
+ * @param appProperties   properties passed to the application
+ * @author Marius Zilinskas
+ */
+public record LoadTestSettings(
+        int users,
+        int seedBatchSize,
+        int concurrency,
+        double rate,
+        Duration warmup,
+        Duration duration,
+        Duration identityLatency,
+        Map<Scenario, Integer> mix,
+        Path report,
+        Map<String, String> appProperties
+) {
+
+    private static final String PREFIX = "loadTest.";
+    private static final String APP_PREFIX = PREFIX + "app.";
+    private static final String DEFAULT_MIX = "register=5,authByEmail=40,authById=35,updateProfile=15,adminList=5";
+
+    public static LoadTestSettings fromSystemProperties() {
+        Properties properties = System.getProperties();
+        Map<String, String> appProperties = new TreeMap<>();
+        properties.stringPropertyNames().stream()
+                .filter(name -> name.startsWith(APP_PREFIX))
+                .forEach(name -> appProperties.put(name.substring(APP_PREFIX.length()), properties.getProperty(name)));
+
+        return new LoadTestSettings(
+                Integer.parseInt(property("users", "1000000")),
+                Integer.parseInt(property("seedBatchSize", "5000")),
+                Integer.parseInt(property("concurrency", "64")),
+                Double.parseDouble(property("rate", "0")),
+                DurationStyle.detectAndParse(property("warmup", "15s")),
+                DurationStyle.detectAndParse(property("duration", "60s")),
+                DurationStyle.detectAndParse(property("identityLatency", "2ms")),
+                parseMix(property("mix", DEFAULT_MIX)),
+                Path.of(property("report", "build/reports/load-test/summary.txt")),
+                appProperties
+        );
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty(PREFIX + name, defaultValue).trim();
+    }
+
+    private static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        Arrays.stream(mix.split(","))
+                .map(entry -> entry.split("="))
+                .forEach(pair -> weights.put(Scenario.fromKey(pair[0].trim()), Integer.parseInt(pair[1].trim())));
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0)
+            throw new IllegalArgumentException("Load test mix has no positive weight: " + mix);
+        return weights;
+    }
+
+}
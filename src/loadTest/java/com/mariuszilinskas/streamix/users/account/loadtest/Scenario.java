@@ -0,0 +1,41 @@
+package com.mariuszilinskas.streamix.users.account.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * The endpoints driven by the load test, each identified in the workload mix by its key.
+ *
+ * @author Marius Zilinskas
+ */
+public enum Scenario {
+
+    REGISTER("register", "POST /user/register"),
+    AUTH_BY_EMAIL("authByEmail", "GET /user/auth-details/by-email"),
+    AUTH_BY_ID("authById", "GET /user/auth-details/by-userid"),
+    UPDATE_PROFILE("updateProfile", "PUT /user/{userId}"),
+    ADMIN_LIST("adminList", "GET /admin/users");
+
+    private final String key;
+    private final String endpoint;
+
+    Scenario(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public static Scenario fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(scenario -> scenario.key.equalsIgnoreCase(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown load test scenario: " + key));
+    }
+
+}
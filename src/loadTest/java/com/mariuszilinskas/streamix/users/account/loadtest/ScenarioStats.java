@@ -0,0 +1,39 @@
+package com.mariuszilinskas.streamix.users.account.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram, in microseconds, and error count of one scenario during the measured phase.
+ *
+ * @author Marius Zilinskas
+ */
+public class ScenarioStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    public void record(long latencyNanos, boolean failed) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        if (failed)
+            errors.increment();
+    }
+
+    public Histogram latencies() {
+        return latencies;
+    }
+
+    public long requests() {
+        return latencies.getTotalCount();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+}
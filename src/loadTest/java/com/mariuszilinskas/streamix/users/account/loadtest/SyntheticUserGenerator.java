@@ -0,0 +1,122 @@
+package com.mariuszilinskas.streamix.users.account.loadtest;
+
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+import com.mariuszilinskas.streamix.users.account.generator.TimeOrderedUuid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Seeds synthetic users with batched JDBC inserts, which is orders of magnitude faster than going
+ * through JPA for millions of rows. Values are drawn from a fixed seed, so runs are repeatable:
+ * most users are active and verified, a few are admins, and creation and activity times are
+ * spread over the past year. The email of user {@code i} is {@link #email(int)}.
+ *
+ * @author Marius Zilinskas
+ */
+public class SyntheticUserGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticUserGenerator.class);
+    private static final String INSERT_USER = "INSERT INTO users (id, first_name, last_name, email, country, " +
+            "is_email_verified, status, roles_mask, authorities_mask, created_at, last_active) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final long YEAR_IN_SECONDS = 365L * 24 * 60 * 60;
+
+    static final String[] FIRST_NAMES = {"Olivia", "Noah", "Amelia", "Oliver", "Isla", "George", "Ava", "Arthur", "Mia", "Leo"};
+    static final String[] LAST_NAMES = {"Smith", "Jones", "Taylor", "Brown", "Williams", "Wilson", "Johnson", "Davies", "Patel", "Evans"};
+    static final String[] COUNTRIES = {"United Kingdom", "Ireland", "Germany", "France", "Spain", "Lithuania", "Poland", "Italy"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SyntheticUserGenerator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Seeded users, addressed by index.
+     */
+    public record SeededUsers(UUID[] ids) {
+
+        public int size() {
+            return ids.length;
+        }
+
+        public UUID id(int index) {
+            return ids[index];
+        }
+
+        public String email(int index) {
+            return SyntheticUserGenerator.email(index);
+        }
+
+    }
+
+    public static String email(int index) {
+        return "user" + index + "@loadtest.example";
+    }
+
+    public SeededUsers seed(int users, int batchSize) {
+        logger.info("Seeding {} synthetic users", users);
+        long startNanos = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(42);
+        OffsetDateTime now = OffsetDateTime.now();
+        UUID[] ids = new UUID[users];
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        int progressStep = Math.max(users / 10, 1);
+
+        for (int i = 0; i < users; i++) {
+            ids[i] = TimeOrderedUuid.next();
+            batch.add(createRow(ids[i], i, users, now, random));
+            if (batch.size() == batchSize) {
+                jdbcTemplate.batchUpdate(INSERT_USER, batch);
+                batch.clear();
+            }
+            if ((i + 1) % progressStep == 0)
+                logger.info("Seeded {}/{} users", i + 1, users);
+        }
+        if (!batch.isEmpty())
+            jdbcTemplate.batchUpdate(INSERT_USER, batch);
+
+        logger.info("Seeded {} users in {} ms", users, (System.nanoTime() - startNanos) / 1_000_000);
+        return new SeededUsers(ids);
+    }
+
+    private Object[] createRow(UUID id, int index, int users, OffsetDateTime now, SplittableRandom random) {
+        // Users are created in index order over the past year, and were last active at some point since
+        OffsetDateTime createdAt = now.minusSeconds(YEAR_IN_SECONDS * (users - index) / users);
+        long activeSecondsAgo = random.nextLong(Math.max(now.toEpochSecond() - createdAt.toEpochSecond(), 1));
+        int rolesMask = random.nextInt(1000) == 0 ? UserRole.USER.mask() | UserRole.ADMIN.mask() : UserRole.USER.mask();
+        return new Object[]{
+                id,
+                FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                email(index),
+                COUNTRIES[random.nextInt(COUNTRIES.length)],
+                random.nextInt(100) < 85,
+                status(random).name(),
+                rolesMask,
+                0,
+                createdAt,
+                now.minusSeconds(activeSecondsAgo)
+        };
+    }
+
+    private UserStatus status(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (roll < 90)
+            return UserStatus.ACTIVE;
+        if (roll < 95)
+            return UserStatus.INACTIVE;
+        if (roll < 98)
+            return UserStatus.PENDING;
+        return UserStatus.SUSPENDED;
+    }
+
+}
@@ -0,0 +1,189 @@
+package com.mariuszilinskas.streamix.users.account.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mariuszilinskas.streamix.users.account.dto.CreateUserRequest;
+import com.mariuszilinskas.streamix.users.account.dto.UpdateUserRequest;
+import com.mariuszilinskas.streamix.users.account.loadtest.SyntheticUserGenerator.SeededUsers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.mariuszilinskas.streamix.users.account.loadtest.SyntheticUserGenerator.*;
+
+/**
+ * Drives the scenario mix against the running application from one virtual thread per virtual user.
+ * Without a target rate each virtual user sends its next request as soon as the previous one returns.
+ * With a target rate requests are scheduled at fixed intervals and latency is measured from the
+ * scheduled start, so time spent queued behind a slow response is counted instead of omitted.
+ *
+ * @author Marius Zilinskas
+ */
+public class WorkloadDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadDriver.class);
+    private static final String PASSWORD = "Password1!";
+
+    private final LoadTestSettings settings;
+    private final URI baseUri;
+    private final SeededUsers users;
+    private final ObjectMapper objectMapper;
+    private final Scenario[] scenarios;
+    private final int[] cumulativeWeights;
+    private final HttpClient httpClient;
+
+    public WorkloadDriver(LoadTestSettings settings, URI baseUri, SeededUsers users, ObjectMapper objectMapper) {
+        this.settings = settings;
+        this.baseUri = baseUri;
+        this.users = users;
+        this.objectMapper = objectMapper;
+        this.scenarios = settings.mix().keySet().toArray(Scenario[]::new);
+        this.cumulativeWeights = new int[scenarios.length];
+        int total = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            total += settings.mix().get(scenarios[i]);
+            cumulativeWeights[i] = total;
+        }
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Runs the warmup phase and then the measured phase.
+     *
+     * @return the statistics of the measured phase, per scenario
+     */
+    public Map<Scenario, ScenarioStats> run() throws InterruptedException {
+        Map<Scenario, ScenarioStats> stats = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : scenarios)
+            stats.put(scenario, new ScenarioStats());
+
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + settings.warmup().toNanos();
+        long endNanos = measureFromNanos + settings.duration().toNanos();
+        logger.info("Driving {} virtual users for {} warmup and {} measurement", settings.concurrency(),
+                settings.warmup(), settings.duration());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < settings.concurrency(); i++) {
+                long firstStartNanos = startNanos + intervalNanos() * i / settings.concurrency();
+                executor.submit(() -> runVirtualUser(stats, firstStartNanos, measureFromNanos, endNanos));
+            }
+        }
+        return stats;
+    }
+
+    private long intervalNanos() {
+        return settings.rate() > 0 ? (long) (settings.concurrency() * 1e9 / settings.rate()) : 0;
+    }
+
+    private void runVirtualUser(Map<Scenario, ScenarioStats> stats, long firstStartNanos, long measureFromNanos, long endNanos) {
+        long intervalNanos = intervalNanos();
+        long scheduledNanos = firstStartNanos;
+        while (scheduledNanos < endNanos) {
+            long startNanos = intervalNanos > 0 ? waitUntil(scheduledNanos) : System.nanoTime();
+            if (startNanos >= endNanos)
+                return;
+
+            Scenario scenario = nextScenario();
+            boolean failed = !send(scenario);
+            long completedNanos = System.nanoTime();
+            if (startNanos >= measureFromNanos)
+                stats.get(scenario).record(completedNanos - startNanos, failed);
+
+            scheduledNanos = intervalNanos > 0 ? scheduledNanos + intervalNanos : completedNanos;
+        }
+    }
+
+    // Returns the scheduled start rather than the actual one, so a late start is charged to the request
+    private long waitUntil(long scheduledNanos) {
+        long delayNanos = scheduledNanos - System.nanoTime();
+        if (delayNanos > 0) {
+            try {
+                Thread.sleep(Duration.ofNanos(delayNanos));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return Long.MAX_VALUE;
+            }
+        }
+        return scheduledNanos;
+    }
+
+    private Scenario nextScenario() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++)
+            if (roll < cumulativeWeights[i])
+                return scenarios[i];
+        return scenarios[scenarios.length - 1];
+    }
+
+    private boolean send(Scenario scenario) {
+        try {
+            HttpResponse<Void> response = httpClient.send(createRequest(scenario), HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() < 400;
+        } catch (IOException ex) {
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private HttpRequest createRequest(Scenario scenario) throws JsonProcessingException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = random.nextInt(users.size());
+        return switch (scenario) {
+            case REGISTER -> post("/user/register", new CreateUserRequest(
+                    pick(FIRST_NAMES), pick(LAST_NAMES), "new-" + UUID.randomUUID() + "@loadtest.example",
+                    pick(COUNTRIES), PASSWORD));
+            case AUTH_BY_EMAIL -> get("/user/auth-details/by-email?email=" + encode(users.email(index)));
+            case AUTH_BY_ID -> get("/user/auth-details/by-userid?userId=" + users.id(index));
+            case UPDATE_PROFILE -> put("/user/" + users.id(index),
+                    new UpdateUserRequest(pick(FIRST_NAMES), pick(LAST_NAMES), pick(COUNTRIES)));
+            case ADMIN_LIST -> get("/admin/users?limit=50&status=ACTIVE&country=" + encode(pick(COUNTRIES)));
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) throws JsonProcessingException {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private HttpRequest put(String path, Object body) throws JsonProcessingException {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private static String pick(String[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+}
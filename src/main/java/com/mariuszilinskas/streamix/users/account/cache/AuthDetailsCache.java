@@ -0,0 +1,143 @@
+package com.mariuszilinskas.streamix.users.account.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mariuszilinskas.streamix.users.account.datasource.ReadYourWritesWindow;
+import com.mariuszilinskas.streamix.users.account.dto.AuthDetailsResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In-process cache of the auth details requested by the gateway on every authentication.
+ * Entries are keyed by userId, with a secondary email index pointing at the userId, and are
+ * evicted by size and TTL, or explicitly whenever a user's roles, authorities, status or email change.
+ * Users still inside their read-your-writes window are not cached, as a lagging replica may have served them.
+ * Loads never run inside the cache's own compute, so concurrent misses for the same user may each load once.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class AuthDetailsCache implements MeterBinder {
+
+    private final Cache<UUID, AuthDetailsResponse> authDetailsByUserId;
+    private final Cache<String, UUID> userIdByEmail;
+    private final ReadYourWritesWindow readYourWritesWindow;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AuthDetailsCache(
+            @Value("${account.cache.auth-details.ttl:5m}") Duration ttl,
+            @Value("${account.cache.auth-details.max-size:100000}") long maxSize,
+            ReadYourWritesWindow readYourWritesWindow
+    ) {
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.authDetailsByUserId = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        this.userIdByEmail = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    public AuthDetailsResponse getByUserId(UUID userId, Function<UUID, AuthDetailsResponse> loader) {
+        AuthDetailsResponse cached = authDetailsByUserId.getIfPresent(userId);
+        if (cached != null)
+            return cached;
+
+        // Loaded outside the cache's compute, whose lock would pin a virtual thread for the whole query
+        long evictionsBeforeLoad = evictions.get();
+        AuthDetailsResponse authDetails = immutableCopy(loader.apply(userId));
+        if (evictions.get() == evictionsBeforeLoad && !readYourWritesWindow.isRecentlyWritten(userId))
+            authDetailsByUserId.put(userId, authDetails);
+        return authDetails;
+    }
+
+    public AuthDetailsResponse getByEmail(String email, Function<String, AuthDetailsResponse> loader) {
+        UUID userId = userIdByEmail.getIfPresent(email);
+        AuthDetailsResponse cached = userId != null ? authDetailsByUserId.getIfPresent(userId) : null;
+        if (cached != null)
+            return cached;
+
+        // An eviction racing with the load means the loaded value may already be stale, so skip caching it
+        long evictionsBeforeLoad = evictions.get();
+        AuthDetailsResponse authDetails = immutableCopy(loader.apply(email));
+        if (evictions.get() == evictionsBeforeLoad && !readYourWritesWindow.isRecentlyWritten(authDetails.userId())) {
+            authDetailsByUserId.put(authDetails.userId(), authDetails);
+            userIdByEmail.put(email, authDetails.userId());
+        }
+        return authDetails;
+    }
+
+    /**
+     * Evicts the user's auth details now and, when called inside a transaction, again once it completes,
+     * so that a concurrent lookup cannot re-cache the state that is being replaced.
+     *
+     * @param userId the ID of the user whose auth details changed
+     */
+    public void evict(UUID userId) {
+        evictUserId(userId);
+        afterTransaction(() -> evictUserId(userId));
+    }
+
+    /**
+     * Evicts the email index entry, used when an email stops belonging to a user.
+     *
+     * @param email the email that should no longer resolve from the cache
+     */
+    public void evictEmail(String email) {
+        evictEmailIndex(email);
+        afterTransaction(() -> evictEmailIndex(email));
+    }
+
+    private void evictUserId(UUID userId) {
+        evictions.incrementAndGet();
+        authDetailsByUserId.invalidate(userId);
+    }
+
+    private void evictEmailIndex(String email) {
+        evictions.incrementAndGet();
+        userIdByEmail.invalidate(email);
+    }
+
+    private void afterTransaction(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                eviction.run();
+            }
+        });
+    }
+
+    private AuthDetailsResponse immutableCopy(AuthDetailsResponse authDetails) {
+        return new AuthDetailsResponse(
+                authDetails.userId(),
+                List.copyOf(authDetails.roles()),
+                List.copyOf(authDetails.authorities()),
+                authDetails.status()
+        );
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, authDetailsByUserId, "authDetailsByUserId");
+        CaffeineCacheMetrics.monitor(registry, userIdByEmail, "authDetailsEmailIndex");
+    }
+
+}
@@ -0,0 +1,201 @@
+package com.mariuszilinskas.streamix.users.account.cache;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.mariuszilinskas.streamix.users.account.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory Bloom filter over the normalized emails of all users. Until the first build
+ * completes every email is reported as possibly present.
+ * The filter only sees the writes of this instance between rebuilds, so users registered on
+ * another instance are missing from it until the next rebuild. A miss is therefore only a hint,
+ * and lookups still query the database, unless the filter is configured as authoritative, which
+ * is only correct for a single instance. It is rebuilt from the users table on every tick.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class EmailBloomFilter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailBloomFilter.class);
+    private final UserRepository userRepository;
+    private final long minExpectedInsertions;
+    private final double fpp;
+    private final boolean authoritative;
+
+    private volatile BloomFilter<String> filter;
+    private volatile BloomFilter<String> rebuilding;
+    private volatile long filterBits;
+    private final AtomicLong staleEntries = new AtomicLong();
+    private final AtomicLong negatives = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private final AtomicLong missedEmails = new AtomicLong();
+
+    public EmailBloomFilter(
+            UserRepository userRepository,
+            @Value("${account.email-filter.expected-insertions:1000000}") long minExpectedInsertions,
+            @Value("${account.email-filter.fpp:0.01}") double fpp,
+            @Value("${account.email-filter.authoritative:false}") boolean authoritative
+    ) {
+        this.userRepository = userRepository;
+        this.minExpectedInsertions = minExpectedInsertions;
+        this.fpp = fpp;
+        this.authoritative = authoritative;
+    }
+
+    /**
+     * @return true if a miss may be trusted without querying the database
+     */
+    public boolean isAuthoritative() {
+        return authoritative;
+    }
+
+    /**
+     * Returns false only when the email was never added to the filter.
+     *
+     * @param email the email to check
+     * @return false if the email definitely doesn't belong to any user, true if it might
+     */
+    public boolean mightContain(String email) {
+        BloomFilter<String> current = filter;
+        if (current == null || current.mightContain(normalize(email)))
+            return true;
+
+        negatives.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Adds the email now and, when called inside a transaction, again once it commits,
+     * so that a rebuild which started before the commit cannot miss it.
+     *
+     * @param email the email of a created user, or the new email of an existing user
+     */
+    public void add(String email) {
+        String normalized = normalize(email);
+        put(normalized);
+        afterCommit(() -> put(normalized));
+    }
+
+    /**
+     * Records that an email no longer belongs to any user.
+     */
+    public void recordRemoval() {
+        staleEntries.incrementAndGet();
+    }
+
+    /**
+     * Records that the filter answered "might contain" for an email the database didn't have.
+     */
+    public void recordFalsePositive() {
+        falsePositives.incrementAndGet();
+    }
+
+    /**
+     * Records, and adds, an email the database had but the filter missed, typically one
+     * registered on another instance since the last rebuild.
+     */
+    public void recordMissedEmail(String email) {
+        missedEmails.incrementAndGet();
+        put(normalize(email));
+    }
+
+    @Scheduled(
+            initialDelayString = "${account.email-filter.initial-delay:0s}",
+            fixedDelayString = "${account.email-filter.rebuild-interval:1h}"
+    )
+    public void rebuild() {
+        // Always rebuilt: the filter can't tell which emails other instances wrote since the last rebuild
+        long expectedInsertions = Math.max(minExpectedInsertions, userRepository.count() * 5 / 4);
+        BloomFilter<String> next = BloomFilter.create(
+                Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, fpp);
+        long staleBeforeRebuild = staleEntries.get();
+
+        rebuilding = next;
+        try {
+            userRepository.forEachEmail(email -> next.put(normalize(email)));
+            filter = next;
+            filterBits = optimalNumOfBits(expectedInsertions, fpp);
+            staleEntries.addAndGet(-staleBeforeRebuild);
+            logger.info("Rebuilt email Bloom filter with ~{} emails", next.approximateElementCount());
+        } catch (RuntimeException ex) {
+            logger.error("Failed to rebuild email Bloom filter, keeping the previous one", ex);
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    private void put(String normalized) {
+        // Read the rebuild first: a rebuild that completes in between has already published its filter
+        BloomFilter<String> next = rebuilding;
+        BloomFilter<String> current = filter;
+        if (next != null)
+            next.put(normalized);
+        if (current != null)
+            current.put(normalized);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Same sizing formula Guava uses internally, which doesn't expose the bit array size
+    private static long optimalNumOfBits(long n, double p) {
+        return (long) (-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("account.email.filter.expected.fpp", this, f -> f.filter != null ? f.filter.expectedFpp() : 0)
+                .description("False positive probability of the email Bloom filter, given its current fill")
+                .register(registry);
+        Gauge.builder("account.email.filter.memory", this, f -> f.filterBits / 8.0)
+                .baseUnit("bytes")
+                .description("Estimated size of the email Bloom filter bit array")
+                .register(registry);
+        Gauge.builder("account.email.filter.stale.entries", staleEntries, AtomicLong::get)
+                .description("Removed emails still present in the email Bloom filter until the next rebuild")
+                .register(registry);
+        // Misses only skip the database when the filter is authoritative; otherwise they are hints
+        FunctionCounter.builder("account.email.filter.negatives", negatives, AtomicLong::get)
+                .description(authoritative
+                        ? "Lookups short-circuited as definitely not registered"
+                        : "Emails the filter reported as not registered; the database was still queried")
+                .tag("mode", authoritative ? "authoritative" : "hint")
+                .register(registry);
+        FunctionCounter.builder("account.email.filter.false.positives", falsePositives, AtomicLong::get)
+                .description("Lookups the filter let through for emails the database didn't have")
+                .register(registry);
+        FunctionCounter.builder("account.email.filter.missed", missedEmails, AtomicLong::get)
+                .description("Emails the database had but the filter missed, written elsewhere since the last rebuild")
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.mariuszilinskas.streamix.users.account.client;
+
+import com.mariuszilinskas.streamix.users.account.dto.CredentialsRequest;
+import com.mariuszilinskas.streamix.users.account.dto.VerifyPasswordRequest;
+import com.mariuszilinskas.streamix.users.account.exception.CreateCredentialsException;
+import com.mariuszilinskas.streamix.users.account.exception.PasswordValidationException;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Calls the identity service over REST with {@link IdentityFeignClient}.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+@ConditionalOnProperty(name = "account.identity.transport", havingValue = "feign", matchIfMissing = true)
+@RequiredArgsConstructor
+public class FeignIdentityClient implements IdentityClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeignIdentityClient.class);
+    private final IdentityFeignClient identityFeignClient;
+
+    @Override
+    public void createCredentials(CredentialsRequest request) {
+        try {
+            identityFeignClient.createCredentials(request);
+        } catch (FeignException ex) {
+            logger.error("Feign Exception when creating user credentials: Status {}, Body {}", ex.status(), ex.contentUTF8());
+            throw new CreateCredentialsException(request.userId());
+        }
+    }
+
+    @Override
+    public void verifyPassword(VerifyPasswordRequest request) {
+        try {
+            identityFeignClient.verifyPassword(request);
+        } catch (FeignException ex) {
+            logger.error("Feign Exception when verifying password: Status {}, Body {}", ex.status(), ex.contentUTF8());
+            throw new PasswordValidationException();
+        }
+    }
+
+}
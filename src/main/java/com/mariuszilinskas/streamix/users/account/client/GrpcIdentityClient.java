@@ -0,0 +1,84 @@
+package com.mariuszilinskas.streamix.users.account.client;
+
+import com.mariuszilinskas.streamix.users.account.dto.CredentialsRequest;
+import com.mariuszilinskas.streamix.users.account.dto.VerifyPasswordRequest;
+import com.mariuszilinskas.streamix.users.account.exception.CreateCredentialsException;
+import com.mariuszilinskas.streamix.users.account.exception.PasswordValidationException;
+import com.mariuszilinskas.streamix.users.account.grpc.IdentityProto;
+import com.mariuszilinskas.streamix.users.account.grpc.IdentityServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.StatusRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls the identity service over gRPC. All calls share the one channel, and with it its
+ * HTTP/2 connections; each call gets its own deadline, reusing the per-method read timeouts
+ * of the REST client.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+@ConditionalOnProperty(name = "account.identity.transport", havingValue = "grpc")
+public class GrpcIdentityClient implements IdentityClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcIdentityClient.class);
+    private final IdentityServiceGrpc.IdentityServiceBlockingStub stub;
+    private final Duration createCredentialsDeadline;
+    private final Duration verifyPasswordDeadline;
+
+    public GrpcIdentityClient(
+            ManagedChannel identityChannel,
+            @Value("${account.identity.create-credentials.read-timeout:5s}") Duration createCredentialsDeadline,
+            @Value("${account.identity.verify-password.read-timeout:3s}") Duration verifyPasswordDeadline
+    ) {
+        this.stub = IdentityServiceGrpc.newBlockingStub(identityChannel);
+        this.createCredentialsDeadline = createCredentialsDeadline;
+        this.verifyPasswordDeadline = verifyPasswordDeadline;
+    }
+
+    @Override
+    public void createCredentials(CredentialsRequest request) {
+        try {
+            stub.withDeadlineAfter(createCredentialsDeadline.toMillis(), TimeUnit.MILLISECONDS)
+                    .createCredentials(mapToCreateCredentialsRequest(request));
+        } catch (StatusRuntimeException ex) {
+            logger.error("gRPC Exception when creating user credentials: Status {}", ex.getStatus());
+            throw new CreateCredentialsException(request.userId());
+        }
+    }
+
+    @Override
+    public void verifyPassword(VerifyPasswordRequest request) {
+        try {
+            stub.withDeadlineAfter(verifyPasswordDeadline.toMillis(), TimeUnit.MILLISECONDS)
+                    .verifyPassword(mapToVerifyPasswordRequest(request));
+        } catch (StatusRuntimeException ex) {
+            logger.error("gRPC Exception when verifying password: Status {}", ex.getStatus());
+            throw new PasswordValidationException();
+        }
+    }
+
+    private static IdentityProto.CreateCredentialsRequest mapToCreateCredentialsRequest(CredentialsRequest request) {
+        return IdentityProto.CreateCredentialsRequest.newBuilder()
+                .setUserId(request.userId().toString())
+                .setFirstName(request.firstName())
+                .setEmail(request.email())
+                .setPassword(request.password())
+                .build();
+    }
+
+    private static IdentityProto.VerifyPasswordRequest mapToVerifyPasswordRequest(VerifyPasswordRequest request) {
+        return IdentityProto.VerifyPasswordRequest.newBuilder()
+                .setUserId(request.userId().toString())
+                .setPassword(request.password())
+                .build();
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.mariuszilinskas.streamix.users.account.client;
+
+import com.mariuszilinskas.streamix.users.account.dto.CredentialsRequest;
+import com.mariuszilinskas.streamix.users.account.dto.VerifyPasswordRequest;
+import com.mariuszilinskas.streamix.users.account.exception.CreateCredentialsException;
+import com.mariuszilinskas.streamix.users.account.exception.PasswordValidationException;
+
+/**
+ * Client for the identity service, independent of the transport. The implementation is
+ * selected with {@code account.identity.transport}: {@code feign} (default) or {@code grpc}.
+ *
+ * @author Marius Zilinskas
+ */
+public interface IdentityClient {
+
+    /**
+     * @throws CreateCredentialsException if the identity service fails or can't be reached
+     */
+    void createCredentials(CredentialsRequest request);
+
+    /**
+     * @throws PasswordValidationException if the password is wrong, or the identity service fails or can't be reached
+     */
+    void verifyPassword(VerifyPasswordRequest request);
+
+}
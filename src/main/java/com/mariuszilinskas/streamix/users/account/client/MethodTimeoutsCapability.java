@@ -0,0 +1,38 @@
+package com.mariuszilinskas.streamix.users.account.client;
+
+import feign.Capability;
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+
+import java.util.Map;
+
+/**
+ * Applies connect and read timeouts per Feign method, keyed by the method's Feign config key
+ * (e.g. {@code IdentityFeignClient#createCredentials(CredentialsRequest)}). Methods without an entry
+ * keep the timeouts configured for their client. The options are swapped on the enriched client,
+ * so they reach the pooled transport behind the load balancer unchanged.
+ *
+ * @author Marius Zilinskas
+ */
+public class MethodTimeoutsCapability implements Capability {
+
+    private final Map<String, Request.Options> optionsByConfigKey;
+
+    public MethodTimeoutsCapability(Map<String, Request.Options> optionsByConfigKey) {
+        this.optionsByConfigKey = Map.copyOf(optionsByConfigKey);
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> client.execute(request, optionsFor(request, options));
+    }
+
+    private Request.Options optionsFor(Request request, Request.Options clientOptions) {
+        MethodMetadata metadata = request.requestTemplate() != null ? request.requestTemplate().methodMetadata() : null;
+        if (metadata == null)
+            return clientOptions;
+        return optionsByConfigKey.getOrDefault(metadata.configKey(), clientOptions);
+    }
+
+}
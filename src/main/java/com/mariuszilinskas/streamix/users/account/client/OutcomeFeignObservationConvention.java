@@ -0,0 +1,32 @@
+package com.mariuszilinskas.streamix.users.account.client;
+
+import feign.Response;
+import feign.micrometer.DefaultFeignObservationConvention;
+import feign.micrometer.FeignContext;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+
+/**
+ * Adds an {@code outcome} tag to the Feign client timers, next to the status tag, in the same terms
+ * as the server-side {@code http.server.requests} metric. Calls that failed without a response,
+ * e.g. on a timeout or refused connection, are tagged {@code IO_ERROR}.
+ *
+ * @author Marius Zilinskas
+ */
+public class OutcomeFeignObservationConvention extends DefaultFeignObservationConvention {
+
+    private static final String OUTCOME = "outcome";
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(FeignContext context) {
+        return super.getLowCardinalityKeyValues(context).and(outcome(context.getResponse()));
+    }
+
+    private KeyValue outcome(Response response) {
+        if (response == null)
+            return KeyValue.of(OUTCOME, "IO_ERROR");
+        return KeyValue.of(OUTCOME, Outcome.forStatus(response.status()).name());
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.mariuszilinskas.streamix.users.account.config;
+
+import com.mariuszilinskas.streamix.users.account.datasource.ReplicaAwareJpaDialect;
+import com.mariuszilinskas.streamix.users.account.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured data source with one that sends read-only transactions to the
+ * configured replicas and all other work to the primary. Each database gets its own Hikari pool,
+ * configured from {@code spring.datasource.hikari.*} as Boot would, with the replica pools opened
+ * read-only and sized separately. Only active when replica URLs are configured.
+ * Flyway migrates the primary; replicas receive the schema through replication. Rows read from a
+ * replica are kept out of the shared Hibernate caches by {@link ReplicaAwareJpaDialect}.
+ *
+ * @author Marius Zilinskas
+ */
+@Configuration
+@ConditionalOnExpression("!'${account.datasource.replica-urls:}'.isBlank()")
+public class DataSourceRoutingConfig {
+
+    @Value("${account.datasource.replica-urls}")
+    private List<String> replicaUrls;
+
+    @Value("${account.datasource.replica.username:}")
+    private String replicaUsername;
+
+    @Value("${account.datasource.replica.password:}")
+    private String replicaPassword;
+
+    @Value("${account.datasource.replica.pool-size:10}")
+    private int replicaPoolSize;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            Environment environment,
+            MeterRegistry meterRegistry
+    ) {
+        MicrometerMetricsTrackerFactory metricsTrackerFactory = new MicrometerMetricsTrackerFactory(meterRegistry);
+        primaryDataSource.setMetricsTrackerFactory(metricsTrackerFactory);
+
+        Binder binder = Binder.get(environment);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            if (!replicaUsername.isBlank()) {
+                replica.setUsername(replicaUsername);
+                replica.setPassword(replicaPassword);
+            }
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(metricsTrackerFactory);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    // Defers fetching a connection until the first statement, by which point the transaction's read-only flag is set
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    // Configured as Boot's own adapter would be, with only the JPA dialect replaced
+    @Bean
+    public JpaVendorAdapter jpaVendorAdapter(JpaProperties jpaProperties) {
+        ReplicaAwareJpaDialect jpaDialect = new ReplicaAwareJpaDialect();
+        HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter() {
+            @Override
+            public HibernateJpaDialect getJpaDialect() {
+                return jpaDialect;
+            }
+        };
+        adapter.setShowSql(jpaProperties.isShowSql());
+        if (jpaProperties.getDatabase() != null)
+            adapter.setDatabase(jpaProperties.getDatabase());
+        if (jpaProperties.getDatabasePlatform() != null)
+            adapter.setDatabasePlatform(jpaProperties.getDatabasePlatform());
+        adapter.setGenerateDdl(jpaProperties.isGenerateDdl());
+        return adapter;
+    }
+
+}
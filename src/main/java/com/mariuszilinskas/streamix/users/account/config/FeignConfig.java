@@ -1,15 +1,52 @@
 package com.mariuszilinskas.streamix.users.account.config;
 
+import com.mariuszilinskas.streamix.users.account.client.IdentityFeignClient;
+import com.mariuszilinskas.streamix.users.account.client.MethodTimeoutsCapability;
+import com.mariuszilinskas.streamix.users.account.client.OutcomeFeignObservationConvention;
+import com.mariuszilinskas.streamix.users.account.dto.CredentialsRequest;
+import com.mariuszilinskas.streamix.users.account.dto.VerifyPasswordRequest;
+import feign.Feign;
+import feign.Request;
 import feign.codec.Decoder;
 import feign.codec.Encoder;
 import feign.jackson.JacksonDecoder;
 import feign.jackson.JacksonEncoder;
+import feign.micrometer.MicrometerObservationCapability;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Feign configuration shared by all clients. The transport is the pooled Apache HttpClient 5 client
+ * auto-configured by Spring Cloud OpenFeign (pool limits under {@code spring.cloud.openfeign.httpclient});
+ * this adds codecs, metrics and per-method timeouts for the identity service.
+ *
+ * @author Marius Zilinskas
+ */
 @Configuration
 public class FeignConfig {
 
+    @Value("${account.identity.create-credentials.connect-timeout:1s}")
+    private Duration createCredentialsConnectTimeout;
+
+    @Value("${account.identity.create-credentials.read-timeout:5s}")
+    private Duration createCredentialsReadTimeout;
+
+    @Value("${account.identity.verify-password.connect-timeout:1s}")
+    private Duration verifyPasswordConnectTimeout;
+
+    @Value("${account.identity.verify-password.read-timeout:3s}")
+    private Duration verifyPasswordReadTimeout;
+
     @Bean
     public Encoder encoder() {
         return new JacksonEncoder();
@@ -19,4 +56,46 @@ public class FeignConfig {
     public Decoder decoder() {
         return new JacksonDecoder();
     }
+
+    /**
+     * Times every Feign call as {@code http.client.requests}, tagged by client, method, URI, status and outcome.
+     */
+    @Bean
+    public MicrometerObservationCapability micrometerObservationCapability(ObservationRegistry observationRegistry) {
+        return new MicrometerObservationCapability(observationRegistry, new OutcomeFeignObservationConvention());
+    }
+
+    @Bean
+    public MethodTimeoutsCapability methodTimeoutsCapability() {
+        return new MethodTimeoutsCapability(Map.of(
+                identityConfigKey("createCredentials", CredentialsRequest.class),
+                options(createCredentialsConnectTimeout, createCredentialsReadTimeout),
+                identityConfigKey("verifyPassword", VerifyPasswordRequest.class),
+                options(verifyPasswordConnectTimeout, verifyPasswordReadTimeout)
+        ));
+    }
+
+    /**
+     * Exports the Feign connection pool as {@code httpcomponents.httpclient.pool.*}: leased, available and
+     * pending connections against the pool limits.
+     */
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(ObjectProvider<HttpClientConnectionManager> connectionManager) {
+        return registry -> connectionManager.ifAvailable(manager -> {
+            if (manager instanceof PoolingHttpClientConnectionManager pool)
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign").bindTo(registry);
+        });
+    }
+
+    private static String identityConfigKey(String methodName, Class<?>... parameterTypes) {
+        try {
+            return Feign.configKey(IdentityFeignClient.class, IdentityFeignClient.class.getMethod(methodName, parameterTypes));
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException("IdentityFeignClient has no method " + methodName, ex);
+        }
+    }
+
+    private static Request.Options options(Duration connectTimeout, Duration readTimeout) {
+        return new Request.Options(connectTimeout, readTimeout, true);
+    }
 }
@@ -0,0 +1,25 @@
+package com.mariuszilinskas.streamix.users.account.config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+/**
+ * Configures what {@code spring.flyway.*} can't for the pinned Flyway 9. On PostgreSQL, Flyway takes
+ * its migration lock as a session advisory lock instead of a transactional one, because the transaction
+ * holding a transactional lock stays open while migrations run and CREATE INDEX CONCURRENTLY (V4) waits
+ * for every open transaction to finish, so it would wait on that lock forever.
+ *
+ * @author Marius Zilinskas
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayConfigurationCustomizer postgresqlSessionLockCustomizer() {
+        return configuration -> configuration.configuration(Map.of("flyway.postgresql.transactional.lock", "false"));
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.mariuszilinskas.streamix.users.account.config;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gRPC channel to the identity service, created once and shared by every call. Used only
+ * when {@code account.identity.transport} is {@code grpc}.
+ *
+ * @author Marius Zilinskas
+ */
+@Configuration
+@ConditionalOnProperty(name = "account.identity.transport", havingValue = "grpc")
+public class GrpcConfig {
+
+    @Value("${account.identity.grpc.target:dns:///auth-identity:9090}")
+    private String target;
+
+    @Value("${account.identity.grpc.keep-alive-time:30s}")
+    private Duration keepAliveTime;
+
+    @Value("${account.identity.grpc.idle-timeout:5m}")
+    private Duration idleTimeout;
+
+    @Bean(destroyMethod = "shutdown")
+    public ManagedChannel identityChannel() {
+        return ManagedChannelBuilder.forTarget(target)
+                .usePlaintext()
+                .defaultLoadBalancingPolicy("round_robin")
+                .keepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+                .idleTimeout(idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+}
@@ -1,11 +1,15 @@
 package com.mariuszilinskas.streamix.users.account.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.RejectAndDontRequeueRecoverer;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -21,12 +25,27 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.queues.update-last-active}")
     private String updateLastActiveQueue;
 
+    @Value("${rabbitmq.dead-letter.exchange}")
+    private String deadLetterExchange;
+
+    @Value("${rabbitmq.dead-letter.update-last-active-queue}")
+    private String updateLastActiveDeadLetterQueue;
+
     @Value("${rabbitmq.routing-keys.verify-account}")
     private String verifyAccountRoutingKey;
 
     @Value("${rabbitmq.routing-keys.update-last-active}")
     private String updateLastActiveRoutingKey;
 
+    @Value("${rabbitmq.batch.update-last-active.size:500}")
+    private int updateLastActiveBatchSize;
+
+    @Value("${rabbitmq.batch.update-last-active.receive-timeout-ms:1000}")
+    private long updateLastActiveReceiveTimeout;
+
+    @Value("${rabbitmq.listener.update-last-active.max-attempts:3}")
+    private int updateLastActiveMaxAttempts;
+
     @Bean
     public DirectExchange exchange() {
         return new DirectExchange(exchange);
@@ -39,7 +58,19 @@ public class RabbitMQConfig {
 
     @Bean
     public Queue updateLastActiveQueue() {
-        return new Queue(updateLastActiveQueue, true);
+        return QueueBuilder.durable(updateLastActiveQueue)
+                .deadLetterExchange(deadLetterExchange)
+                .build();
+    }
+
+    @Bean
+    public DirectExchange deadLetterExchange() {
+        return new DirectExchange(deadLetterExchange);
+    }
+
+    @Bean
+    public Queue updateLastActiveDeadLetterQueue() {
+        return new Queue(updateLastActiveDeadLetterQueue, true);
     }
 
     @Bean
@@ -56,6 +87,13 @@ public class RabbitMQConfig {
                 .with(updateLastActiveRoutingKey);
     }
 
+    @Bean
+    public Binding updateLastActiveDeadLetterBinding() {
+        return BindingBuilder.bind(updateLastActiveDeadLetterQueue())
+                .to(deadLetterExchange())
+                .with(updateLastActiveRoutingKey);
+    }
+
     @Bean
     public AmqpTemplate amqpTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
@@ -63,6 +101,53 @@ public class RabbitMQConfig {
         return rabbitTemplate;
     }
 
+    /**
+     * Listener container factory for the single update-last-active consumer. Each AMQP message may carry
+     * a producer batch of updates, so a failing message is retried in place and then dead-lettered,
+     * rather than requeued without limit.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory lastActiveListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory
+    ) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        deadLetterAfterRetries(factory);
+        return factory;
+    }
+
+    /**
+     * Listener container factory for batch consumers. A batch is delivered once it reaches the batch size
+     * or no further message arrives within the receive timeout, and is acknowledged after the listener returns.
+     * A batch that keeps failing is dead-lettered rather than requeued.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory
+    ) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(updateLastActiveBatchSize);
+        factory.setPrefetchCount(updateLastActiveBatchSize);
+        factory.setReceiveTimeout(updateLastActiveReceiveTimeout);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        deadLetterAfterRetries(factory);
+        return factory;
+    }
+
+    private void deadLetterAfterRetries(SimpleRabbitListenerContainerFactory factory) {
+        factory.setDefaultRequeueRejected(false);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(updateLastActiveMaxAttempts)
+                .backOffOptions(100, 2.0, 1000)
+                .recoverer(new RejectAndDontRequeueRecoverer())
+                .build());
+    }
+
     @Bean
     public MessageConverter jacksonConverter() {
         return new Jackson2JsonMessageConverter();
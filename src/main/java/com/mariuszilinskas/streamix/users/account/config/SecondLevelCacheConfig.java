@@ -0,0 +1,97 @@
+package com.mariuszilinskas.streamix.users.account.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.mariuszilinskas.streamix.users.account.constant.CacheRegions;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ObjectUtils;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Configures Hibernate's second-level cache on a local Caffeine JCache manager, with a size and TTL
+ * per region. Every region is created here and Hibernate fails on any it doesn't find, so no region
+ * silently falls back to an unbounded default. Statistics are enabled, which Spring Boot exports
+ * as the hibernate.* cache metrics. Each application context gets its own manager, so contexts
+ * sharing a JVM, as cached test contexts do, neither collide on region names nor close each
+ * other's caches.
+ *
+ * @author Marius Zilinskas
+ */
+@Configuration
+@ConditionalOnProperty(name = "account.cache.second-level.enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+    @Value("${account.cache.second-level.users.ttl:10m}")
+    private Duration usersTtl;
+
+    @Value("${account.cache.second-level.users.max-size:100000}")
+    private long usersMaxSize;
+
+    @Value("${account.cache.second-level.addresses.ttl:10m}")
+    private Duration addressesTtl;
+
+    @Value("${account.cache.second-level.addresses.max-size:100000}")
+    private long addressesMaxSize;
+
+    @Value("${account.cache.second-level.addresses-by-user-id.ttl:10m}")
+    private Duration addressesByUserIdTtl;
+
+    @Value("${account.cache.second-level.addresses-by-user-id.max-size:50000}")
+    private long addressesByUserIdMaxSize;
+
+    @Value("${account.cache.second-level.query-results.ttl:5m}")
+    private Duration queryResultsTtl;
+
+    @Value("${account.cache.second-level.query-results.max-size:10000}")
+    private long queryResultsMaxSize;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(ApplicationContext applicationContext) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        URI uri = URI.create("streamix:second-level-cache/" + ObjectUtils.getIdentityHexString(applicationContext));
+        CacheManager cacheManager = provider.getCacheManager(uri, provider.getDefaultClassLoader());
+        createRegion(cacheManager, CacheRegions.USERS, usersMaxSize, usersTtl);
+        createRegion(cacheManager, CacheRegions.ADDRESSES, addressesMaxSize, addressesTtl);
+        createRegion(cacheManager, CacheRegions.ADDRESSES_BY_USER_ID, addressesByUserIdMaxSize, addressesByUserIdTtl);
+        createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                queryResultsMaxSize, queryResultsTtl);
+        // Update timestamps must outlive every cached query result they validate, so they are never evicted
+        createRegion(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, null, null);
+        return cacheManager;
+    }
+
+    private void createRegion(CacheManager cacheManager, String region, Long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(maxSize != null ? OptionalLong.of(maxSize) : OptionalLong.empty());
+        configuration.setExpireAfterWrite(ttl != null ? OptionalLong.of(ttl.toNanos()) : OptionalLong.empty());
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(region, configuration);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+}
@@ -0,0 +1,7 @@
+package com.mariuszilinskas.streamix.users.account.constant;
+
+public class CacheRegions {
+    public static final String USERS = "users";
+    public static final String ADDRESSES = "addresses";
+    public static final String ADDRESSES_BY_USER_ID = "addressesByUserId";
+}
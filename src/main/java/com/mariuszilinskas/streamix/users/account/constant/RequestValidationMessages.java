@@ -1,5 +1,7 @@
 package com.mariuszilinskas.streamix.users.account.constant;
 
+import static com.mariuszilinskas.streamix.users.account.util.AccountUtils.MAX_BATCH_LOOKUP_SIZE;
+
 public class RequestValidationMessages {
     public static final String CANNOT_BE_NULL = "cannot be null";
     public static final String CANNOT_BE_BLANK = "cannot be blank";
@@ -9,4 +11,5 @@ public class RequestValidationMessages {
     public static final String PASSWORD_MISSING_UPPERCASE = "password must contain at least one uppercase letter";
     public static final String PASSWORD_MISSING_DIGIT = "password must contain at least one digit";
     public static final String PASSWORD_MISSING_SPECIAL = "password must contain at least one special character";
+    public static final String BATCH_TOO_LARGE = "must contain at most " + MAX_BATCH_LOOKUP_SIZE + " entries";
 }
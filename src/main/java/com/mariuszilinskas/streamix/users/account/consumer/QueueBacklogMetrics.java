@@ -0,0 +1,88 @@
+package com.mariuszilinskas.streamix.users.account.consumer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exposes the backlog and consumer count of the queues this service consumes from.
+ * The broker is polled on a fixed delay rather than on every scrape, so a slow broker cannot
+ * slow down the metrics endpoint. A queue that could not be read reports NaN until the next poll succeeds.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+@ConditionalOnProperty(name = "account.metrics.queue-backlog.enabled", havingValue = "true", matchIfMissing = true)
+public class QueueBacklogMetrics implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueueBacklogMetrics.class);
+    private static final long UNKNOWN = -1;
+    private final AmqpAdmin amqpAdmin;
+    private final Map<String, AtomicLong> messages = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> consumers = new LinkedHashMap<>();
+
+    public QueueBacklogMetrics(
+            AmqpAdmin amqpAdmin,
+            @Value("${rabbitmq.queues.verify-account}") String verifyAccountQueue,
+            @Value("${rabbitmq.queues.update-last-active}") String updateLastActiveQueue
+    ) {
+        this.amqpAdmin = amqpAdmin;
+        for (String queue : List.of(verifyAccountQueue, updateLastActiveQueue)) {
+            messages.putIfAbsent(queue, new AtomicLong(UNKNOWN));
+            consumers.putIfAbsent(queue, new AtomicLong(UNKNOWN));
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${account.metrics.queue-backlog.interval:15s}",
+            fixedDelayString = "${account.metrics.queue-backlog.interval:15s}"
+    )
+    public void poll() {
+        messages.keySet().forEach(this::poll);
+    }
+
+    private void poll(String queue) {
+        try {
+            QueueInformation info = amqpAdmin.getQueueInfo(queue);
+            messages.get(queue).set(info != null ? info.getMessageCount() : UNKNOWN);
+            consumers.get(queue).set(info != null ? info.getConsumerCount() : UNKNOWN);
+        } catch (AmqpException ex) {
+            logger.warn("Failed to read backlog of queue '{}': {}", queue, ex.getMessage());
+            messages.get(queue).set(UNKNOWN);
+            consumers.get(queue).set(UNKNOWN);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        messages.forEach((queue, count) -> Gauge.builder("account.rabbitmq.queue.backlog", count, QueueBacklogMetrics::valueOrNaN)
+                .tags(Tags.of("queue", queue))
+                .description("Messages ready for delivery in the queue")
+                .register(registry));
+        consumers.forEach((queue, count) -> Gauge.builder("account.rabbitmq.queue.consumers", count, QueueBacklogMetrics::valueOrNaN)
+                .tags(Tags.of("queue", queue))
+                .description("Consumers attached to the queue, across all instances")
+                .register(registry));
+    }
+
+    private static double valueOrNaN(AtomicLong value) {
+        long current = value.get();
+        return current == UNKNOWN ? Double.NaN : current;
+    }
+
+}
@@ -8,6 +8,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -17,16 +18,36 @@ public class RabbitMQConsumer {
     private static final Logger logger = LoggerFactory.getLogger(RabbitMQConsumer.class);
     private final UserService userService;
 
-    @RabbitListener(queues = "${rabbitmq.queues.verify-account}")
+    @RabbitListener(id = "verifyAccount", queues = "${rabbitmq.queues.verify-account}")
     public void consumeVerifyAccountMessage(UUID userId) {
         logger.info("Received message to verify account for User [userId: {}]", userId);
         userService.verifyUser(userId);
     }
 
-    @RabbitListener(queues = "${rabbitmq.queues.update-last-active}")
+    @RabbitListener(
+            id = "updateLastActive",
+            queues = "${rabbitmq.queues.update-last-active}",
+            containerFactory = "lastActiveListenerContainerFactory",
+            autoStartup = "#{!${rabbitmq.batch.update-last-active.enabled:false}}"
+    )
     public void consumeUpdateLastActiveMessage(UserLastActiveMessage message) {
         logger.info("Received message to update lastActive for User [userId: '{}']", message.userId());
         userService.updateLastActiveInDb(message.userId(), message.lastActive());
     }
 
+    /**
+     * Batch mode of {@link #consumeUpdateLastActiveMessage}. The whole batch is applied in one transaction
+     * and is acknowledged only after this method returns, i.e. after the transaction commits.
+     */
+    @RabbitListener(
+            id = "updateLastActiveBatch",
+            queues = "${rabbitmq.queues.update-last-active}",
+            containerFactory = "batchListenerContainerFactory",
+            autoStartup = "${rabbitmq.batch.update-last-active.enabled:false}"
+    )
+    public void consumeUpdateLastActiveMessages(List<UserLastActiveMessage> messages) {
+        logger.info("Received batch of {} messages to update lastActive", messages.size());
+        userService.updateLastActiveInDb(messages);
+    }
+
 }
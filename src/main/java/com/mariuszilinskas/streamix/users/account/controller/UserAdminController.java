@@ -1,16 +1,23 @@
 package com.mariuszilinskas.streamix.users.account.controller;
 
-import com.mariuszilinskas.streamix.users.account.dto.UserAdminResponse;
+import com.mariuszilinskas.streamix.users.account.dto.UserAdminFilter;
+import com.mariuszilinskas.streamix.users.account.dto.UserAdminPageResponse;
+import com.mariuszilinskas.streamix.users.account.enums.ExportFormat;
 import com.mariuszilinskas.streamix.users.account.enums.UserAuthority;
 import com.mariuszilinskas.streamix.users.account.enums.UserRole;
 import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
 import com.mariuszilinskas.streamix.users.account.service.UserAdminService;
+import com.mariuszilinskas.streamix.users.account.service.UserExportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.ZonedDateTime;
 import java.util.UUID;
 
 /**
@@ -24,14 +31,41 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class UserAdminController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     private final UserAdminService userAdminService;
+    private final UserExportService userExportService;
 
     @GetMapping("/users")
-    public ResponseEntity<List<UserAdminResponse>> getUsers(){
-        List<UserAdminResponse> response = userAdminService.getUsers();
+    public ResponseEntity<UserAdminPageResponse> getUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) UserStatus status,
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) Boolean emailVerified,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime lastActiveFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime lastActiveTo,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ){
+        var filter = new UserAdminFilter(status, role, country, emailVerified, lastActiveFrom, lastActiveTo);
+        UserAdminPageResponse response = userAdminService.getUsers(filter, cursor, limit, includeTotal);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format
+    ){
+        StreamingResponseBody body = outputStream -> userExportService.exportUsers(format, outputStream);
+        String fileName = "users." + format.name().toLowerCase();
+        return ResponseEntity.ok()
+                .contentType(format == ExportFormat.CSV ? TEXT_CSV : APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
     @PostMapping("/{userId}/role/{userRole}")
     public ResponseEntity<Void> grantUserRole(
             @PathVariable UUID userId,
@@ -4,6 +4,7 @@ import com.mariuszilinskas.streamix.users.account.dto.*;
 import com.mariuszilinskas.streamix.users.account.service.UserService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,9 +26,10 @@ public class UserController {
 
     @PostMapping("/register")
     public ResponseEntity<UserResponse> createUser(
-            @Valid @RequestBody CreateUserRequest request
+            @Valid @RequestBody CreateUserRequest request,
+            @RequestHeader(name = "Idempotency-Key", required = false) @Size(max = 64) String idempotencyKey
     ) {
-        UserResponse response = userService.createUser(request);
+        UserResponse response = userService.createUser(request, idempotencyKey);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
@@ -37,6 +39,14 @@ public class UserController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchUserResponse> getUsers(
+            @Valid @RequestBody BatchUserRequest request
+    ) {
+        BatchUserResponse response = userService.getUsers(request);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     @PutMapping("/{userId}")
     public ResponseEntity<UserResponse> updateUser(
             @PathVariable UUID userId,
@@ -77,6 +87,14 @@ public class UserController {
         return new ResponseEntity<>(authDetails, HttpStatus.OK);
     }
 
+    @PostMapping("/auth-details/batch")
+    public ResponseEntity<BatchAuthDetailsResponse> getUsersAuthDetails(
+            @Valid @RequestBody BatchAuthDetailsRequest request
+    ){
+        BatchAuthDetailsResponse response = userService.getUsersAuthDetails(request);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     @DeleteMapping("/{userId}")
     public ResponseEntity<Void> deleteUser(
             @PathVariable UUID userId,
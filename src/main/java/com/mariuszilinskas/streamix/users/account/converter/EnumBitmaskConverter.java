@@ -0,0 +1,66 @@
+package com.mariuszilinskas.streamix.users.account.converter;
+
+import com.mariuszilinskas.streamix.users.account.enums.BitFlag;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Converts a list of Enum values to an integer bitmask for database storage, using each
+ * constant's {@link BitFlag#bit()}, and converts back from the bitmask to a List of Enum values
+ * for entity attribute. Values are collected in an EnumSet, so duplicates are dropped and
+ * the list is returned in declaration order.
+ *
+ * @param <E> the Enum type this converter handles
+ */
+@Converter
+public class EnumBitmaskConverter<E extends Enum<E> & BitFlag> implements AttributeConverter<List<E>, Integer> {
+
+    // Keeps masks non-negative, so they stay valid in signed integer columns and arithmetic
+    private static final int MAX_BITS = Integer.SIZE - 1;
+
+    private final Class<E> enumType;
+    private final E[] constantsByBit;
+
+    @SuppressWarnings("unchecked")
+    public EnumBitmaskConverter(Class<E> enumType) {
+        this.enumType = enumType;
+        this.constantsByBit = (E[]) Array.newInstance(enumType, MAX_BITS);
+        for (E constant : enumType.getEnumConstants()) {
+            int bit = constant.bit();
+            if (bit < 0 || bit >= MAX_BITS || constantsByBit[bit] != null)
+                throw new IllegalStateException(String.format(
+                        "%s.%s has an invalid or duplicate bit %d", enumType.getSimpleName(), constant, bit));
+            constantsByBit[bit] = constant;
+        }
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(List<E> attribute) {
+        int mask = 0;
+        if (attribute != null)
+            for (E value : attribute)
+                mask |= value.mask();
+        return mask;
+    }
+
+    @Override
+    public List<E> convertToEntityAttribute(Integer dbData) {
+        EnumSet<E> values = EnumSet.noneOf(enumType);
+        int remaining = dbData != null ? dbData : 0;
+        while (remaining != 0) {
+            int bit = Integer.numberOfTrailingZeros(remaining);
+            E value = bit < MAX_BITS ? constantsByBit[bit] : null;
+            if (value == null)
+                throw new IllegalArgumentException(String.format(
+                        "No %s is mapped to bit %d", enumType.getSimpleName(), bit));
+            values.add(value);
+            remaining &= remaining - 1;
+        }
+        return new ArrayList<>(values);
+    }
+}
@@ -3,10 +3,10 @@ package com.mariuszilinskas.streamix.users.account.converter;
 import com.mariuszilinskas.streamix.users.account.enums.UserAuthority;
 import jakarta.persistence.Converter;
 
-@Converter(autoApply = true)
-public class UserAuthorityConverter extends EnumConverter<UserAuthority> {
+@Converter
+public class UserAuthorityBitmaskConverter extends EnumBitmaskConverter<UserAuthority> {
 
-    public UserAuthorityConverter() {
+    public UserAuthorityBitmaskConverter() {
         super(UserAuthority.class);
     }
 
@@ -3,10 +3,10 @@ package com.mariuszilinskas.streamix.users.account.converter;
 import com.mariuszilinskas.streamix.users.account.enums.UserRole;
 import jakarta.persistence.Converter;
 
-@Converter(autoApply = true)
-public class UserRoleConverter extends EnumConverter<UserRole> {
+@Converter
+public class UserRoleBitmaskConverter extends EnumBitmaskConverter<UserRole> {
 
-    public UserRoleConverter() {
+    public UserRoleBitmaskConverter() {
         super(UserRole.class);
     }
 
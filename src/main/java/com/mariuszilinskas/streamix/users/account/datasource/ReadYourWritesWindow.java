@@ -0,0 +1,126 @@
+package com.mariuszilinskas.streamix.users.account.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Remembers, for a short window, which users were just written to, so that their own reads are routed
+ * to the primary rather than to a replica that may not have caught up yet. Users are tracked by id
+ * and, where a write changes what an email resolves to, by email as well.
+ * Only active when read replicas are configured.
+ * <p>
+ * The window is kept in memory, so it only covers reads served by the instance that made the write.
+ * A read that reaches another instance within the window may still be served by a lagging replica;
+ * reads that must see a write wherever they land need sticky routing or a read-only transaction
+ * avoided altogether.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class ReadYourWritesWindow {
+
+    private static final ThreadLocal<Boolean> pinnedToPrimary = new ThreadLocal<>();
+    private final boolean enabled;
+    private final Cache<Object, Boolean> recentWrites;
+
+    public ReadYourWritesWindow(
+            @Value("${account.datasource.replica-urls:}") String replicaUrls,
+            @Value("${account.datasource.read-your-writes.window:5s}") Duration window,
+            @Value("${account.datasource.read-your-writes.max-tracked-keys:100000}") long maxTrackedKeys
+    ) {
+        this.enabled = !replicaUrls.isBlank();
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxTrackedKeys)
+                .build();
+    }
+
+    /**
+     * Records a write now and, when called inside a transaction, again once it commits,
+     * so the window is measured from the moment the write becomes visible.
+     *
+     * @param userId the ID of the user that was written to
+     */
+    public void recordWrite(UUID userId) {
+        record(userId);
+    }
+
+    /**
+     * Records a write that also changes what the given email resolves to.
+     *
+     * @param userId the ID of the user that was written to
+     * @param email  an email gained or lost by the user
+     */
+    public void recordWrite(UUID userId, String email) {
+        record(userId);
+        record(normalize(email));
+    }
+
+    public boolean isRecentlyWritten(UUID userId) {
+        return enabled && recentWrites.getIfPresent(userId) != null;
+    }
+
+    /**
+     * Routes the rest of the current read-only transaction to the primary if the user was just written to.
+     * Must be called before the transaction's first statement.
+     *
+     * @param userId the ID of the user being read
+     */
+    public void routeReadsFor(UUID userId) {
+        pinIfRecentlyWritten(userId);
+    }
+
+    public void routeReadsForEmail(String email) {
+        pinIfRecentlyWritten(normalize(email));
+    }
+
+    /**
+     * @return true if the current transaction has been routed to the primary
+     */
+    public static boolean isPinnedToPrimary() {
+        return pinnedToPrimary.get() != null;
+    }
+
+    private void record(Object key) {
+        if (!enabled)
+            return;
+
+        recentWrites.put(key, Boolean.TRUE);
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWrites.put(key, Boolean.TRUE);
+            }
+        });
+    }
+
+    private void pinIfRecentlyWritten(Object key) {
+        if (!enabled || recentWrites.getIfPresent(key) == null || isPinnedToPrimary()
+                || !TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+
+        pinnedToPrimary.set(Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                pinnedToPrimary.remove();
+            }
+        });
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+}
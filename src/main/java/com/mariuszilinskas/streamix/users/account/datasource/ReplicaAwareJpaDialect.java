@@ -0,0 +1,70 @@
+package com.mariuszilinskas.streamix.users.account.datasource;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps rows read from a replica out of the second-level and query caches. Those caches are shared by
+ * every session, so a row put there from a lagging replica would be served to later reads, including
+ * those {@link ReadYourWritesWindow} pins to the primary. A read-only transaction's session is switched
+ * to {@link CacheMode#GET} once {@link ReplicaRoutingDataSource} routes it to a replica: it still reads
+ * the caches but no longer populates them, so they are only filled from the primary.
+ *
+ * @author Marius Zilinskas
+ */
+public class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    private static final ThreadLocal<Session> readOnlySession = new ThreadLocal<>();
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly())
+            return transactionData;
+
+        Session session = entityManager.unwrap(Session.class);
+        var readOnlyData = new ReadOnlyTransactionData(transactionData, session, session.getCacheMode(),
+                readOnlySession.get());
+        readOnlySession.set(session);
+        return readOnlyData;
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReadOnlyTransactionData readOnlyData) {
+            // The session outlives the transaction when it is bound to the request, as with open-in-view
+            readOnlyData.session().setCacheMode(readOnlyData.previousCacheMode());
+            if (readOnlyData.suspendedSession() != null)
+                readOnlySession.set(readOnlyData.suspendedSession());
+            else
+                readOnlySession.remove();
+            transactionData = readOnlyData.delegate();
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    /**
+     * Stops the current read-only transaction from populating the caches. Called when its connection
+     * is routed to a replica, which happens before its first statement.
+     */
+    public static void routedToReplica() {
+        Session session = readOnlySession.get();
+        if (session != null)
+            session.setCacheMode(CacheMode.GET);
+    }
+
+    private record ReadOnlyTransactionData(
+            Object delegate,
+            Session session,
+            CacheMode previousCacheMode,
+            Session suspendedSession
+    ) {}
+
+}
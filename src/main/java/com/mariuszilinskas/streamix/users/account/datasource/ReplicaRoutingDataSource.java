@@ -0,0 +1,67 @@
+package com.mariuszilinskas.streamix.users.account.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes read-only transactions to the replica pools, round-robin, and everything else to the primary.
+ * A read-only transaction pinned by {@link ReadYourWritesWindow} stays on the primary, and one routed to
+ * a replica stops populating the shared Hibernate caches, see {@link ReplicaAwareJpaDialect}.
+ * The routing key is resolved when a connection is requested, so this must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: transaction managers
+ * request the connection before the transaction is marked read-only.
+ *
+ * @author Marius Zilinskas
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA_PREFIX = "replica-";
+
+    private final DataSource primary;
+    private final List<? extends DataSource> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++)
+            targets.put(REPLICA_PREFIX + i, this.replicas.get(i));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || ReadYourWritesWindow.isPinnedToPrimary())
+            return PRIMARY;
+
+        ReplicaAwareJpaDialect.routedToReplica();
+        return REPLICA_PREFIX + Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(ReplicaRoutingDataSource::closePool);
+        closePool(primary);
+    }
+
+    private static void closePool(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource pool)
+            pool.close();
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.mariuszilinskas.streamix.users.account.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.mariuszilinskas.streamix.users.account.constant.RequestValidationMessages.*;
+import static com.mariuszilinskas.streamix.users.account.util.AccountUtils.MAX_BATCH_LOOKUP_SIZE;
+
+public record BatchAuthDetailsRequest(
+
+        @Size(max = MAX_BATCH_LOOKUP_SIZE, message = "userIds " + BATCH_TOO_LARGE)
+        List<UUID> userIds,
+
+        @Size(max = MAX_BATCH_LOOKUP_SIZE, message = "emails " + BATCH_TOO_LARGE)
+        List<@Email(message = INVALID_EMAIL) String> emails
+
+) {
+        public BatchAuthDetailsRequest {
+                if (userIds == null) userIds = List.of();
+                if (emails == null) emails = List.of();
+                else emails = emails.stream().map(BatchAuthDetailsRequest::normalize).toList();
+        }
+
+        private static String normalize(String email) {
+                return email != null ? email.trim().toLowerCase() : null;
+        }
+}
@@ -0,0 +1,9 @@
+package com.mariuszilinskas.streamix.users.account.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public record BatchAuthDetailsResponse(
+        Map<String, AuthDetailsResponse> authDetails,
+        List<String> missing
+) {}
@@ -0,0 +1,18 @@
+package com.mariuszilinskas.streamix.users.account.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.mariuszilinskas.streamix.users.account.constant.RequestValidationMessages.*;
+import static com.mariuszilinskas.streamix.users.account.util.AccountUtils.MAX_BATCH_LOOKUP_SIZE;
+
+public record BatchUserRequest(
+
+        @NotNull(message = "userIds " + CANNOT_BE_NULL)
+        @Size(max = MAX_BATCH_LOOKUP_SIZE, message = "userIds " + BATCH_TOO_LARGE)
+        List<UUID> userIds
+
+) {}
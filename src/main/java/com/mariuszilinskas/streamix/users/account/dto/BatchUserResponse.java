@@ -0,0 +1,10 @@
+package com.mariuszilinskas.streamix.users.account.dto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public record BatchUserResponse(
+        Map<UUID, UserResponse> users,
+        List<UUID> missing
+) {}
@@ -0,0 +1,15 @@
+package com.mariuszilinskas.streamix.users.account.dto;
+
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+
+import java.time.ZonedDateTime;
+
+public record UserAdminFilter(
+        UserStatus status,
+        UserRole role,
+        String country,
+        Boolean emailVerified,
+        ZonedDateTime lastActiveFrom,
+        ZonedDateTime lastActiveTo
+) {}
@@ -0,0 +1,9 @@
+package com.mariuszilinskas.streamix.users.account.dto;
+
+import java.util.List;
+
+public record UserAdminPageResponse(
+        List<UserAdminResponse> users,
+        String nextCursor,
+        Long total
+) {}
@@ -0,0 +1,39 @@
+package com.mariuszilinskas.streamix.users.account.dto;
+
+import com.mariuszilinskas.streamix.users.account.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in the admin user listing, which is ordered by (createdAt, id).
+ * Clients only see it as an opaque, URL-safe token.
+ *
+ * @author Marius Zilinskas
+ */
+public record UserCursor(ZonedDateTime createdAt, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = createdAt.toInstant() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static UserCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            Instant createdAt = Instant.parse(raw.substring(0, separator));
+            UUID id = UUID.fromString(raw.substring(separator + 1));
+            return new UserCursor(createdAt.atZone(ZoneOffset.UTC), id);
+        } catch (RuntimeException ex) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.mariuszilinskas.streamix.users.account.enums;
+
+/**
+ * An enum constant with a fixed bit position, used when a set of constants is persisted as a bitmask.
+ * Bit positions are part of the stored data, so they must never be reused or reassigned,
+ * which leaves constants free to be reordered or renamed.
+ *
+ * @author Marius Zilinskas
+ */
+public interface BitFlag {
+
+    int bit();
+
+    default int mask() {
+        return 1 << bit();
+    }
+
+}
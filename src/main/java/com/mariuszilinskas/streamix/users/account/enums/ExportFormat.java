@@ -0,0 +1,5 @@
+package com.mariuszilinskas.streamix.users.account.enums;
+
+public enum ExportFormat {
+    NDJSON, CSV
+}
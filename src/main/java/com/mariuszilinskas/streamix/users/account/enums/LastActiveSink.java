@@ -0,0 +1,11 @@
+package com.mariuszilinskas.streamix.users.account.enums;
+
+/**
+ * Where {@link com.mariuszilinskas.streamix.users.account.service.LastActiveTracker} flushes batched
+ * lastActive timestamps: straight to the database, or to RabbitMQ for the update-last-active consumer.
+ *
+ * @author Marius Zilinskas
+ */
+public enum LastActiveSink {
+    DATABASE, RABBITMQ
+}
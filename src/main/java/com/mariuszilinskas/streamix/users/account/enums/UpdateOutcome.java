@@ -0,0 +1,11 @@
+package com.mariuszilinskas.streamix.users.account.enums;
+
+/**
+ * What a single-column update did to a user: changed it, found it already in the requested
+ * state, or found no such user.
+ *
+ * @author Marius Zilinskas
+ */
+public enum UpdateOutcome {
+    UPDATED, UNCHANGED, NOT_FOUND
+}
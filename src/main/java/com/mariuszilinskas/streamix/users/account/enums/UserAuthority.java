@@ -1,5 +1,16 @@
 package com.mariuszilinskas.streamix.users.account.enums;
 
-public enum UserAuthority {
-    MANAGE_SETTINGS
+public enum UserAuthority implements BitFlag {
+    MANAGE_SETTINGS(0);
+
+    private final int bit;
+
+    UserAuthority(int bit) {
+        this.bit = bit;
+    }
+
+    @Override
+    public int bit() {
+        return bit;
+    }
 }
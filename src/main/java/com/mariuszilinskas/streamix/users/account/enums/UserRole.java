@@ -1,5 +1,16 @@
 package com.mariuszilinskas.streamix.users.account.enums;
 
-public enum UserRole {
-    USER, ADMIN
+public enum UserRole implements BitFlag {
+    USER(0), ADMIN(1);
+
+    private final int bit;
+
+    UserRole(int bit) {
+        this.bit = bit;
+    }
+
+    @Override
+    public int bit() {
+        return bit;
+    }
 }
@@ -0,0 +1,9 @@
+package com.mariuszilinskas.streamix.users.account.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String cursor) {
+        super(String.format("Invalid pagination cursor '%s'. Please use the nextCursor of a previous page.", cursor));
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.mariuszilinskas.streamix.users.account.generator;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates version 7 UUIDs (RFC 9562): a 48-bit Unix millisecond timestamp, followed by a 12-bit
+ * counter and 62 random bits. Consecutive ids sort in generation order, so inserts append to the
+ * right-hand edge of a primary key index instead of landing on random pages.
+ * The counter restarts from a random value below 2048 every millisecond; should it overflow, it
+ * carries into the timestamp, so ids stay strictly increasing within this JVM, even if the clock steps back.
+ * Random bits come from {@link ThreadLocalRandom}, which never blocks or locks, so generating an id
+ * doesn't pin a virtual thread's carrier. The ids are unique, not unguessable; nothing should rely on
+ * an id being secret.
+ *
+ * @author Marius Zilinskas
+ */
+public final class TimeOrderedUuid {
+
+    private static final int COUNTER_BITS = 12;
+    private static final int COUNTER_SEED_BOUND = 1 << (COUNTER_BITS - 1);
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_MASK = 0x3FFFFFFFFFFFFFFFL;
+    private static final long VARIANT_RFC_9562 = 0x8000000000000000L;
+
+    // Timestamp shifted left by COUNTER_BITS, plus the counter, of the last id generated
+    private static final AtomicLong lastTimestampAndCounter = new AtomicLong();
+
+    private TimeOrderedUuid() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static UUID next() {
+        long timestampAndCounter = nextTimestampAndCounter(System.currentTimeMillis());
+        long mostSigBits = (timestampAndCounter >>> COUNTER_BITS) << 16
+                | VERSION_7
+                | (timestampAndCounter & ((1 << COUNTER_BITS) - 1));
+        long leastSigBits = ThreadLocalRandom.current().nextLong() & VARIANT_MASK | VARIANT_RFC_9562;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static long nextTimestampAndCounter(long now) {
+        // Drawn once, outside the CAS loop, so a retry costs no more than the compare-and-set itself
+        long seeded = now << COUNTER_BITS | ThreadLocalRandom.current().nextInt(COUNTER_SEED_BOUND);
+        while (true) {
+            long last = lastTimestampAndCounter.get();
+            long next = now > last >>> COUNTER_BITS ? seeded : last + 1;
+            if (lastTimestampAndCounter.compareAndSet(last, next))
+                return next;
+        }
+    }
+
+}
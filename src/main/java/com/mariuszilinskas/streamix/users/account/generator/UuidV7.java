@@ -0,0 +1,22 @@
+package com.mariuszilinskas.streamix.users.account.generator;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks a UUID identifier to be generated as a time-ordered version 7 UUID by {@link UuidV7Generator}.
+ * Replaces {@code @GeneratedValue(strategy = GenerationType.UUID)}, which generates random version 4 UUIDs.
+ *
+ * @author Marius Zilinskas
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface UuidV7 {
+}
@@ -59,6 +59,11 @@ public class AppExceptionHandler {
         return buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(InvalidCursorException ex) {
+        return buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(EmailExistsException.class)
     public ResponseEntity<ErrorResponse> handleEmailExistsException(EmailExistsException ex) {
         return buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
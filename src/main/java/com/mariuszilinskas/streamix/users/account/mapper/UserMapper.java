@@ -4,12 +4,14 @@ import com.mariuszilinskas.streamix.users.account.dto.*;
 import com.mariuszilinskas.streamix.users.account.enums.UserRole;
 import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
 import com.mariuszilinskas.streamix.users.account.model.User;
+import com.mariuszilinskas.streamix.users.account.projection.AuthDetailsView;
 
 import java.util.List;
+import java.util.Objects;
 
 public class UserMapper {
 
-    public static User mapFromCreateRequest(CreateUserRequest request) {
+    public static User mapFromCreateRequest(CreateUserRequest request, String registrationKey) {
         User user = new User();
         user.setFirstName(request.firstName());
         user.setLastName(request.lastName());
@@ -17,13 +19,19 @@ public class UserMapper {
         user.setCountry(request.country());
         user.setRoles(List.of(UserRole.USER));
         user.setStatus(UserStatus.PENDING);
+        user.setCredentialsCreated(false);
+        user.setRegistrationKey(registrationKey);
         return user;
     }
 
-    public static void applyUpdates(User user, UpdateUserRequest request) {
+    public static boolean applyUpdates(User user, UpdateUserRequest request) {
+        boolean changed = !Objects.equals(user.getFirstName(), request.firstName())
+                || !Objects.equals(user.getLastName(), request.lastName())
+                || !Objects.equals(user.getCountry(), request.country());
         user.setFirstName(request.firstName());
         user.setLastName(request.lastName());
         user.setCountry(request.country());
+        return changed;
     }
 
     public static UserResponse mapToUserResponse(User user) {
@@ -54,6 +62,15 @@ public class UserMapper {
         );
     }
 
+    public static AuthDetailsResponse mapToAuthDetailsResponse(AuthDetailsView authDetails) {
+        return new AuthDetailsResponse(
+                authDetails.getId(),
+                authDetails.getRoles(),
+                authDetails.getAuthorities(),
+                authDetails.getStatus()
+        );
+    }
+
     public static CredentialsRequest mapToCredentialsRequest(User user, String password) {
         return new CredentialsRequest(
                 user.getId(),
@@ -1,8 +1,14 @@
 package com.mariuszilinskas.streamix.users.account.model;
 
+import com.mariuszilinskas.streamix.users.account.constant.CacheRegions;
 import com.mariuszilinskas.streamix.users.account.enums.AddressType;
+import com.mariuszilinskas.streamix.users.account.generator.UuidV7;
 import jakarta.persistence.*;
 import lombok.Getter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import lombok.Setter;
 
 import java.util.UUID;
@@ -14,13 +20,17 @@ import java.util.UUID;
  * @author Marius Zilinskas
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ADDRESSES)
 @Getter
 @Setter
-@Table(name = "addresses")
+@Table(name = "addresses", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_addresses_user_id_address_type", columnNames = {"user_id", "address_type"})
+})
 public class Address {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(updatable = false, nullable = false)
     private UUID id;
 
@@ -28,6 +38,7 @@ public class Address {
     private UUID userId;
 
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
     @Column(name = "address_type", nullable = false)
     private AddressType addressType;
 
@@ -0,0 +1,25 @@
+package com.mariuszilinskas.streamix.users.account.model;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * A RabbitMQ message waiting in the outbox to be published.
+ *
+ * @param id          time-ordered id, also used as the AMQP message id so consumers can drop duplicates
+ * @param routingKey  routing key on the service's exchange
+ * @param messageType short name of the message, used to tag metrics
+ * @param typeId      the {@code __TypeId__} header set by the JSON message converter
+ * @param payload     the JSON message body
+ * @param createdAt   when the message was written, together with the change it announces
+ *
+ * @author Marius Zilinskas
+ */
+public record OutboxMessage(
+        UUID id,
+        String routingKey,
+        String messageType,
+        String typeId,
+        String payload,
+        ZonedDateTime createdAt
+) {}
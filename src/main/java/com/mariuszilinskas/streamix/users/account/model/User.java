@@ -1,32 +1,53 @@
 package com.mariuszilinskas.streamix.users.account.model;
 
-import com.mariuszilinskas.streamix.users.account.converter.UserAuthorityConverter;
-import com.mariuszilinskas.streamix.users.account.converter.UserRoleConverter;
+import com.mariuszilinskas.streamix.users.account.constant.CacheRegions;
+import com.mariuszilinskas.streamix.users.account.converter.UserAuthorityBitmaskConverter;
+import com.mariuszilinskas.streamix.users.account.converter.UserRoleBitmaskConverter;
 import com.mariuszilinskas.streamix.users.account.enums.UserAuthority;
 import com.mariuszilinskas.streamix.users.account.enums.UserRole;
 import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+import com.mariuszilinskas.streamix.users.account.generator.UuidV7;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 /**
  * This entity describes a User within the platform. It stores personal and account-related information.
  * It also handles relationships with other entities, such as user profiles and addresses.
+ * Updates are dynamic, so a flush writes only the columns that actually changed.
+ * Emails are stored trimmed and lowercased, so the unique constraint on them is case-insensitive.
  *
  * @author Marius Zilinskas
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USERS)
+@DynamicUpdate
 @Getter
 @Setter
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_users_email", columnNames = "email")
+}, indexes = {
+        @Index(name = "idx_users_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_users_status_created_at_id", columnList = "status, created_at, id"),
+        @Index(name = "idx_users_country_created_at_id", columnList = "country, created_at, id"),
+        @Index(name = "idx_users_email_verified_created_at_id", columnList = "is_email_verified, created_at, id"),
+        @Index(name = "idx_users_last_active", columnList = "last_active")
+})
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(updatable = false, nullable = false)
     private UUID id;
 
@@ -36,7 +57,7 @@ public class User {
     @Column(name = "last_name", nullable = false)
     private String lastName;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
@@ -45,14 +66,25 @@ public class User {
     @Column(name = "is_email_verified", nullable = false)
     private boolean isEmailVerified = false;
 
+    // False only while a registration waits for its credentials on the identity service
+    @Column(name = "credentials_created", nullable = false)
+    private boolean credentialsCreated = true;
+
+    // The Idempotency-Key of the registration request, kept only until the registration completes
+    @Column(name = "registration_key", length = 64)
+    private String registrationKey;
+
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
     @Column(nullable = false)
     private UserStatus status;
 
-    @Convert(converter = UserRoleConverter.class)
-    private List<UserRole> roles;
+    @Convert(converter = UserRoleBitmaskConverter.class)
+    @Column(name = "roles_mask", nullable = false)
+    private List<UserRole> roles = List.of();
 
-    @Convert(converter = UserAuthorityConverter.class)
+    @Convert(converter = UserAuthorityBitmaskConverter.class)
+    @Column(name = "authorities_mask", nullable = false)
     private List<UserAuthority> authorities = List.of();
 
     @Column(name = "created_at", nullable = false)
@@ -61,4 +93,8 @@ public class User {
     @Column(name = "last_active", nullable = false)
     private ZonedDateTime lastActive = ZonedDateTime.now();
 
+    public void setEmail(String email) {
+        this.email = email != null ? email.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
 }
@@ -0,0 +1,145 @@
+package com.mariuszilinskas.streamix.users.account.producer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.batch.MessageBatch;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes with correlated publisher confirms without waiting for them: the caller gets a future
+ * completed by the broker's ack or nack, or false once the confirm timeout passes. Messages awaiting
+ * a confirm are bounded, so a stalled broker pushes back on publishers instead of buffering without
+ * limit. Small messages can be published in batches, in the format listener containers split again
+ * on delivery, so each batch costs one publish and one confirm.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class AsyncConfirmPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfirmPublisher.class);
+    private static final String CONFIRM_TIMER = "account.rabbitmq.confirm";
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Duration inFlightWait;
+    private final Duration confirmTimeout;
+    private final int batchSize;
+    private final int batchBufferLimit;
+
+    public AsyncConfirmPublisher(
+            RabbitTemplate rabbitTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${rabbitmq.publisher.max-in-flight:1000}") int maxInFlight,
+            @Value("${rabbitmq.publisher.in-flight-wait:1s}") Duration inFlightWait,
+            @Value("${rabbitmq.publisher.confirm-timeout:5s}") Duration confirmTimeout,
+            @Value("${rabbitmq.publisher.batch-size:500}") int batchSize,
+            @Value("${rabbitmq.publisher.batch-buffer-limit:65536}") int batchBufferLimit
+    ) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.inFlightWait = inFlightWait;
+        this.confirmTimeout = confirmTimeout;
+        this.batchSize = batchSize;
+        this.batchBufferLimit = batchBufferLimit;
+        Gauge.builder("account.rabbitmq.confirms.in.flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Published messages awaiting a publisher confirm")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return a future completed with true once the broker confirms the message, or false otherwise
+     * @throws AmqpTimeoutException if no more messages may await a confirm within the in-flight wait
+     */
+    public CompletableFuture<Boolean> publish(String exchange, String messageType, String routingKey, Object message) {
+        return publishMessage(exchange, messageType, routingKey, toMessage(message));
+    }
+
+    /**
+     * Publishes the messages in batches of up to the batch size, or buffer limit in bytes.
+     *
+     * @return a future completed with true once the broker confirms every batch, or false otherwise
+     */
+    public CompletableFuture<Boolean> publishBatch(String exchange, String messageType, String routingKey,
+                                                   Collection<?> messages) {
+        SimpleBatchingStrategy batchingStrategy = new SimpleBatchingStrategy(batchSize, batchBufferLimit, Long.MAX_VALUE);
+        List<CompletableFuture<Boolean>> confirms = new ArrayList<>();
+        for (Object message : messages) {
+            MessageBatch batch = batchingStrategy.addToBatch(exchange, routingKey, toMessage(message));
+            if (batch != null)
+                confirms.add(publishMessage(exchange, messageType, routingKey, batch.message()));
+        }
+        for (MessageBatch batch : batchingStrategy.releaseBatches())
+            confirms.add(publishMessage(exchange, messageType, routingKey, batch.message()));
+
+        return CompletableFuture.allOf(confirms.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> confirms.stream().allMatch(CompletableFuture::join));
+    }
+
+    private Message toMessage(Object message) {
+        return rabbitTemplate.getMessageConverter().toMessage(message, new MessageProperties());
+    }
+
+    private CompletableFuture<Boolean> publishMessage(String exchange, String messageType, String routingKey,
+                                                      Message message) {
+        acquirePermit();
+        CorrelationData correlationData = new CorrelationData();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            rabbitTemplate.send(exchange, routingKey, message, correlationData);
+        } catch (AmqpException ex) {
+            inFlight.release();
+            throw ex;
+        }
+
+        return correlationData.getFuture()
+                .orTimeout(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((confirm, ex) -> {
+                    inFlight.release();
+                    String outcome = ex != null ? "timeout" : confirm.isAck() ? "ack" : "nack";
+                    sample.stop(Timer.builder(CONFIRM_TIMER)
+                            .description("Time from publishing a message to the broker confirming it")
+                            .tag("message", messageType)
+                            .tag("outcome", outcome)
+                            .publishPercentileHistogram()
+                            .register(meterRegistry));
+                    if (ex != null || !confirm.isAck())
+                        logger.warn("Message '{}' was not confirmed by the broker: {}", messageType,
+                                ex != null ? "no confirm within " + confirmTimeout : confirm.getReason());
+                    return ex == null && confirm.isAck();
+                });
+    }
+
+    private void acquirePermit() {
+        try {
+            if (!inFlight.tryAcquire(inFlightWait.toMillis(), TimeUnit.MILLISECONDS))
+                throw new AmqpTimeoutException("More than " + maxInFlight + " messages are awaiting publisher confirms");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AmqpTimeoutException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.mariuszilinskas.streamix.users.account.producer;
+
+import com.mariuszilinskas.streamix.users.account.model.OutboxMessage;
+import com.mariuszilinskas.streamix.users.account.repository.OutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes outbox messages to RabbitMQ. Every linger period the oldest messages are leased in a
+ * short transaction, published with correlated publisher confirms outside of any transaction, and
+ * deleted in a second one. Only the messages confirmed before the first unconfirmed one are deleted;
+ * that one and everything after it are released and republished in order, so a consumer never sees
+ * a message for good before an earlier one. Delivery is at least once; consumers can drop duplicates
+ * by message id.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+@ConditionalOnProperty(name = "account.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    private final OutboxRepository outboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionOperations transactionOperations;
+    private final String exchange;
+    private final int batchSize;
+    private final Duration confirmTimeout;
+    private final Duration lease;
+
+    private final Timer publishLag;
+    private final Counter publishFailures;
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong oldestCreatedAtMillis = new AtomicLong();
+
+    public OutboxRelay(
+            OutboxRepository outboxRepository,
+            RabbitTemplate rabbitTemplate,
+            TransactionOperations transactionOperations,
+            MeterRegistry meterRegistry,
+            @Value("${rabbitmq.exchange}") String exchange,
+            @Value("${account.outbox.batch-size:100}") int batchSize,
+            @Value("${account.outbox.confirm-timeout:5s}") Duration confirmTimeout,
+            @Value("${account.outbox.lease:30s}") Duration lease
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionOperations = transactionOperations;
+        this.exchange = exchange;
+        this.batchSize = batchSize;
+        this.confirmTimeout = confirmTimeout;
+        this.lease = lease;
+        this.publishLag = Timer.builder("account.outbox.publish.lag")
+                .description("Time from writing an outbox message to the broker confirming it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.publishFailures = Counter.builder("account.outbox.publish.failures")
+                .description("Outbox messages the broker didn't confirm, left in the outbox for a retry")
+                .register(meterRegistry);
+        Gauge.builder("account.outbox.depth", depth, AtomicLong::get)
+                .description("Messages in the outbox waiting to be published")
+                .register(meterRegistry);
+        Gauge.builder("account.outbox.oldest.age", oldestCreatedAtMillis, OutboxRelay::ageSeconds)
+                .baseUnit("seconds")
+                .description("Age of the oldest message in the outbox")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${account.outbox.linger:200ms}",
+            fixedDelayString = "${account.outbox.linger:200ms}"
+    )
+    public void relay() {
+        try {
+            // A full batch that was confirmed completely suggests more are waiting
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+            refreshBacklog();
+        } catch (RuntimeException ex) {
+            logger.error("Failed to relay outbox messages, retrying after the linger period", ex);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxMessage> batch = transactionOperations.execute(status -> outboxRepository.claimBatch(batchSize, lease));
+        if (batch == null || batch.isEmpty())
+            return 0;
+
+        List<UUID> confirmedIds = publish(batch);
+        List<UUID> unconfirmedIds = batch.stream().skip(confirmedIds.size()).map(OutboxMessage::id).toList();
+        transactionOperations.executeWithoutResult(status -> {
+            outboxRepository.deleteAllById(confirmedIds);
+            outboxRepository.releaseAll(unconfirmedIds);
+        });
+        return unconfirmedIds.isEmpty() ? batch.size() : 0;
+    }
+
+    // Returns the confirmed prefix of the batch, which ends at the first message that wasn't confirmed
+    private List<UUID> publish(List<OutboxMessage> batch) {
+        Map<OutboxMessage, CorrelationData> sent = new LinkedHashMap<>();
+        for (OutboxMessage message : batch) {
+            CorrelationData correlationData = new CorrelationData(message.id().toString());
+            try {
+                rabbitTemplate.send(exchange, message.routingKey(), toMessage(message), correlationData);
+                sent.put(message, correlationData);
+            } catch (AmqpException ex) {
+                logger.error("Failed to publish outbox message [id: '{}']: {}", message.id(), ex.getMessage());
+                break;
+            }
+        }
+
+        // All confirms share one deadline, so a batch waits at most the confirm timeout
+        long deadline = System.nanoTime() + confirmTimeout.toNanos();
+        List<UUID> confirmedIds = new ArrayList<>(sent.size());
+        for (Map.Entry<OutboxMessage, CorrelationData> entry : sent.entrySet()) {
+            OutboxMessage message = entry.getKey();
+            if (!isConfirmed(entry.getValue(), deadline))
+                break;
+
+            confirmedIds.add(message.id());
+            publishLag.record(Duration.between(message.createdAt(), ZonedDateTime.now()));
+        }
+        publishFailures.increment(batch.size() - confirmedIds.size());
+        return confirmedIds;
+    }
+
+    private static Message toMessage(OutboxMessage outboxMessage) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setMessageId(outboxMessage.id().toString());
+        if (outboxMessage.typeId() != null)
+            properties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, outboxMessage.typeId());
+        return new Message(outboxMessage.payload().getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    private static boolean isConfirmed(CorrelationData correlationData, long deadline) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return correlationData.getFuture().get(remaining, TimeUnit.NANOSECONDS).isAck();
+        } catch (TimeoutException | ExecutionException ex) {
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void refreshBacklog() {
+        depth.set(outboxRepository.count());
+        oldestCreatedAtMillis.set(outboxRepository.findOldestCreatedAt()
+                .map(createdAt -> createdAt.toInstant().toEpochMilli())
+                .orElse(0L));
+    }
+
+    private static double ageSeconds(AtomicLong createdAtMillis) {
+        long millis = createdAtMillis.get();
+        return millis == 0 ? 0 : Math.max(0, System.currentTimeMillis() - millis) / 1000.0;
+    }
+
+}
@@ -2,21 +2,51 @@ package com.mariuszilinskas.streamix.users.account.producer;
 
 import com.mariuszilinskas.streamix.users.account.dto.CreateDefaultProfileMessage;
 import com.mariuszilinskas.streamix.users.account.dto.UserLastActiveMessage;
+import com.mariuszilinskas.streamix.users.account.generator.TimeOrderedUuid;
+import com.mariuszilinskas.streamix.users.account.model.OutboxMessage;
+import com.mariuszilinskas.streamix.users.account.repository.OutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
+/**
+ * Publishes the service's RabbitMQ messages. Messages announcing a change are written to the
+ * outbox in the transaction making that change, and published by {@link OutboxRelay} once it
+ * commits; a rolled back change therefore sends nothing, and a slow broker no longer delays the
+ * request. lastActive updates aren't tied to a transaction and are sent straight away, by default
+ * in batches whose publisher confirms are awaited asynchronously.
+ *
+ * @author Marius Zilinskas
+ */
 @Service
 @RequiredArgsConstructor
 public class RabbitMQProducer {
 
     private static final Logger logger = LoggerFactory.getLogger(RabbitMQProducer.class);
+    private static final String SEND_TIMER = "account.rabbitmq.send";
     private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+    private final OutboxRepository outboxRepository;
+    private final AsyncConfirmPublisher asyncConfirmPublisher;
+
+    @Value("${rabbitmq.publisher.async-confirms:true}")
+    private boolean asyncConfirms;
 
     @Value("${rabbitmq.exchange}")
     private String exchange;
@@ -35,22 +65,82 @@ public class RabbitMQProducer {
 
     public void sendCreateDefaultProfileMessage(CreateDefaultProfileMessage message) {
         logger.info("Sending message to create default user profile: {}", message);
-        rabbitTemplate.convertAndSend(exchange, profileSetupRoutingKey, message);
+        enqueue("profile-setup", profileSetupRoutingKey, message);
     }
 
     public void sendResetPasscodeMessage(UUID userId) {
         logger.info("Sending message to create user passcode: {}", userId);
-        rabbitTemplate.convertAndSend(exchange, resetPasscodeRoutingKey, userId);
+        enqueue("reset-passcode", resetPasscodeRoutingKey, userId);
     }
 
-    public void sendUpdateLastActiveMessage(UserLastActiveMessage message) {
+    /**
+     * @return a future completed with true once the update is confirmed, or false if it may have been lost
+     */
+    public CompletableFuture<Boolean> sendUpdateLastActiveMessage(UserLastActiveMessage message) {
         logger.info("Sending message to update lastActive for User [userId: '{}']", message.userId());
-        rabbitTemplate.convertAndSend(exchange, updateLastActiveRoutingKey, message);
+        return send("update-last-active", updateLastActiveRoutingKey, message);
+    }
+
+    /**
+     * Sends the lastActive updates as batched messages, which listeners receive one update at a time.
+     *
+     * @return a future completed with true once every update is confirmed, or false if any may have been lost
+     */
+    public CompletableFuture<Boolean> sendUpdateLastActiveMessages(List<UserLastActiveMessage> messages) {
+        logger.info("Sending {} messages to update lastActive", messages.size());
+        if (!asyncConfirms) {
+            messages.forEach(message -> send("update-last-active", updateLastActiveRoutingKey, message));
+            return CompletableFuture.completedFuture(true);
+        }
+        return timed("update-last-active", () ->
+                asyncConfirmPublisher.publishBatch(exchange, "update-last-active", updateLastActiveRoutingKey, messages));
     }
 
     public void sendDeleteUserDataMessage(UUID userId) {
         logger.info("Sending message to delete user data for User [id: {}]", userId);
-        rabbitTemplate.convertAndSend(exchange, deleteUserDataRoutingKey, userId);
+        enqueue("delete-user-data", deleteUserDataRoutingKey, userId);
+    }
+
+    // Converted now, exactly as it would be sent, so the relay publishes the stored body as is
+    private void enqueue(String messageType, String routingKey, Object message) {
+        Message converted = rabbitTemplate.getMessageConverter().toMessage(message, new MessageProperties());
+        outboxRepository.save(new OutboxMessage(
+                TimeOrderedUuid.next(),
+                routingKey,
+                messageType,
+                converted.getMessageProperties().getHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME),
+                new String(converted.getBody(), StandardCharsets.UTF_8),
+                ZonedDateTime.now()
+        ));
+    }
+
+    // Without publisher confirms a message counts as delivered once it has been handed to the broker
+    private CompletableFuture<Boolean> send(String messageType, String routingKey, Object message) {
+        return timed(messageType, () -> {
+            if (asyncConfirms)
+                return asyncConfirmPublisher.publish(exchange, messageType, routingKey, message);
+
+            rabbitTemplate.convertAndSend(exchange, routingKey, message);
+            return CompletableFuture.completedFuture(true);
+        });
+    }
+
+    private <T> T timed(String messageType, Supplier<T> publish) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return publish.get();
+        } catch (AmqpException ex) {
+            outcome = "failure";
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder(SEND_TIMER)
+                    .description("Time taken to publish a message to RabbitMQ")
+                    .tag("message", messageType)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
     }
 
 }
@@ -0,0 +1,26 @@
+package com.mariuszilinskas.streamix.users.account.projection;
+
+import com.mariuszilinskas.streamix.users.account.enums.UserAuthority;
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Closed projection of a User with only the columns needed for authentication.
+ * Queries returning it select these columns alone and never load the User entity.
+ *
+ * @author Marius Zilinskas
+ */
+public interface AuthDetailsView {
+
+    UUID getId();
+
+    List<UserRole> getRoles();
+
+    List<UserAuthority> getAuthorities();
+
+    UserStatus getStatus();
+
+}
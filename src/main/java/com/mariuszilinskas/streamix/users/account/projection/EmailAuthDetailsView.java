@@ -0,0 +1,13 @@
+package com.mariuszilinskas.streamix.users.account.projection;
+
+/**
+ * {@link AuthDetailsView} that also carries the email, so batch lookups by email
+ * can be matched back to the requested emails.
+ *
+ * @author Marius Zilinskas
+ */
+public interface EmailAuthDetailsView extends AuthDetailsView {
+
+    String getEmail();
+
+}
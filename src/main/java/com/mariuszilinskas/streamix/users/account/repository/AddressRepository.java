@@ -1,8 +1,11 @@
 package com.mariuszilinskas.streamix.users.account.repository;
 
-import com.mariuszilinskas.streamix.users.account.enums.AddressType;
+import com.mariuszilinskas.streamix.users.account.constant.CacheRegions;
 import com.mariuszilinskas.streamix.users.account.model.Address;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,18 +14,19 @@ import java.util.UUID;
 
 /**
  * Repository interface for managing Address entities. Supports standard CRUD operations.
+ * A user's address list is served from the query cache, which is invalidated by any write to addresses.
  *
  * @author Marius Zilinskas
  */
 @Repository
 public interface AddressRepository extends JpaRepository<Address, UUID> {
 
-    boolean existsByUserIdAndAddressType(UUID userId, AddressType addressType);
-
-    boolean existsByUserIdAndAddressTypeAndIdNot(UUID userId, AddressType addressType, UUID addressId);
-
     Optional<Address> findByIdAndUserId(UUID addressId, UUID userId);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.ADDRESSES_BY_USER_ID)
+    })
     List<Address> findAllByUserId(UUID userId);
 
     void deleteAllByUserId(UUID userId);
@@ -0,0 +1,135 @@
+package com.mariuszilinskas.streamix.users.account.repository;
+
+import com.mariuszilinskas.streamix.users.account.model.OutboxMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC repository for the transactional outbox. Messages are written in the caller's transaction,
+ * and claimed by the relay under a lease, so it can publish them after the claiming transaction
+ * commits. Only the head of the outbox is ever claimed, and not while another relay holds a lease
+ * on it, so one relay at a time publishes, in order, however many instances run one.
+ * <p>
+ * The order is that of seq, which the database draws when a message is inserted. Messages about one
+ * user are published in the order their transactions committed, as each is enqueued after its
+ * transaction has written that user, whose row lock makes a later transaction insert after an
+ * earlier one commits. Across users the order is best-effort: a transaction may commit its message
+ * after one with a higher seq has already been published.
+ *
+ * @author Marius Zilinskas
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO outbox_messages " +
+            "(id, routing_key, message_type, type_id, payload, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String CLAIM_SQL = "SELECT id, routing_key, message_type, type_id, payload, created_at, " +
+            "claimed_until FROM outbox_messages ORDER BY seq LIMIT ? FOR UPDATE";
+    private static final String LEASE_SQL = "UPDATE outbox_messages SET claimed_until = ? WHERE id = ?";
+    private static final String RELEASE_SQL = "UPDATE outbox_messages SET claimed_until = NULL WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM outbox_messages WHERE id = ?";
+    private static final String COUNT_SQL = "SELECT count(*) FROM outbox_messages";
+    private static final String OLDEST_SQL = "SELECT min(created_at) FROM outbox_messages";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Writes a message in the current transaction, so it is published only if that transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void save(OutboxMessage message) {
+        jdbcTemplate.update(INSERT_SQL,
+                message.id(),
+                message.routingKey(),
+                message.messageType(),
+                message.typeId(),
+                message.payload(),
+                message.createdAt().toOffsetDateTime());
+    }
+
+    /**
+     * Leases the oldest messages, up to the first one still leased by another relay. Returns nothing
+     * while the oldest message is leased. The row locks taken here only last until the transaction
+     * ends, so concurrent claims wait for each other briefly rather than for a publish.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<OutboxMessage> claimBatch(int limit, Duration lease) {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<OutboxMessage> claimed = jdbcTemplate.query(CLAIM_SQL, rs -> {
+            List<OutboxMessage> messages = new ArrayList<>();
+            while (rs.next()) {
+                OffsetDateTime claimedUntil = rs.getObject("claimed_until", OffsetDateTime.class);
+                if (claimedUntil != null && claimedUntil.isAfter(now))
+                    break;
+                messages.add(mapOutboxMessage(rs, messages.size()));
+            }
+            return messages;
+        }, limit);
+        if (claimed == null || claimed.isEmpty())
+            return List.of();
+
+        updateEach(LEASE_SQL, claimed.stream().map(message -> new Object[] { now.plus(lease), message.id() }).toList());
+        return claimed;
+    }
+
+    /**
+     * Ends the lease on messages that weren't published, so the next claim starts with them again.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int releaseAll(Collection<UUID> ids) {
+        return updateEach(RELEASE_SQL, ids.stream().map(id -> new Object[] { id }).toList());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int deleteAllById(Collection<UUID> ids) {
+        return updateEach(DELETE_SQL, ids.stream().map(id -> new Object[] { id }).toList());
+    }
+
+    private int updateEach(String sql, List<Object[]> batchArgs) {
+        if (batchArgs.isEmpty())
+            return 0;
+
+        return Arrays.stream(jdbcTemplate.batchUpdate(sql, batchArgs))
+                .map(count -> count == Statement.SUCCESS_NO_INFO ? 1 : count)
+                .sum();
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject(COUNT_SQL, Long.class);
+        return count != null ? count : 0;
+    }
+
+    public Optional<ZonedDateTime> findOldestCreatedAt() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(OLDEST_SQL, OffsetDateTime.class))
+                .map(OffsetDateTime::toZonedDateTime);
+    }
+
+    private static OutboxMessage mapOutboxMessage(ResultSet rs, int rowNum) throws SQLException {
+        return new OutboxMessage(
+                rs.getObject("id", UUID.class),
+                rs.getString("routing_key"),
+                rs.getString("message_type"),
+                rs.getString("type_id"),
+                rs.getString("payload"),
+                rs.getObject("created_at", OffsetDateTime.class).toZonedDateTime()
+        );
+    }
+
+}
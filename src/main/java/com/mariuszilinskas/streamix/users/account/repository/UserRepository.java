@@ -1,11 +1,25 @@
 package com.mariuszilinskas.streamix.users.account.repository;
 
 import com.mariuszilinskas.streamix.users.account.model.User;
+import com.mariuszilinskas.streamix.users.account.projection.AuthDetailsView;
+import com.mariuszilinskas.streamix.users.account.projection.EmailAuthDetailsView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing User entities. Supports standard CRUD operations.
@@ -13,10 +27,62 @@ import java.util.UUID;
  * @author Marius Zilinskas
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, UUID> {
+public interface UserRepository extends JpaRepository<User, UUID>, UserRepositoryCustom {
 
-    boolean existsByEmail(String email);
+    Optional<User> findByEmailIgnoreCase(String email);
 
-    Optional<User> findByEmail(String email);
+    /**
+     * Finds a registration still waiting for its credentials, started with the given Idempotency-Key.
+     * Always reads the primary, since a retried registration can follow the failed one faster than
+     * replicas catch up.
+     */
+    @Transactional
+    Optional<User> findByEmailIgnoreCaseAndRegistrationKeyAndCredentialsCreatedFalse(String email, String registrationKey);
+
+    @Transactional(readOnly = true)
+    List<User> findAllByCredentialsCreatedFalseAndCreatedAtBefore(ZonedDateTime createdBefore, Limit limit);
+
+    @Transactional(readOnly = true)
+    Optional<AuthDetailsView> findAuthDetailsById(UUID id);
+
+    @Transactional(readOnly = true)
+    Optional<AuthDetailsView> findAuthDetailsByEmailIgnoreCase(String email);
+
+    @Transactional(readOnly = true)
+    List<AuthDetailsView> findAllAuthDetailsByIdIn(Collection<UUID> ids);
+
+    /**
+     * Case-insensitive batch lookup by email. The emails must already be upper-cased, so the
+     * comparison matches the upper(email) index used by the single-email lookups.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT u.id AS id, u.roles AS roles, u.authorities AS authorities, u.status AS status, " +
+            "u.email AS email FROM User u WHERE upper(u.email) IN :upperEmails")
+    List<EmailAuthDetailsView> findAllAuthDetailsByUpperEmailIn(@Param("upperEmails") Collection<String> upperEmails);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.credentialsCreated = true, u.registrationKey = null " +
+            "WHERE u.id = :id AND u.credentialsCreated = false")
+    int markCredentialsCreated(@Param("id") UUID id);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM User u WHERE u.id = :id AND u.credentialsCreated = false")
+    int deleteIncompleteRegistration(@Param("id") UUID id);
+
+    /**
+     * Streams every user through a forward-only cursor. Must be consumed, and closed,
+     * inside the caller's transaction. Bypasses the second-level cache, so an export
+     * doesn't evict the users that are actually hot.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT u FROM User u")
+    Stream<User> streamAll();
 
 }
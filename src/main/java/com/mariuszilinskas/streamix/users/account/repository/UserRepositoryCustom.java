@@ -0,0 +1,42 @@
+package com.mariuszilinskas.streamix.users.account.repository;
+
+import com.mariuszilinskas.streamix.users.account.dto.UserAdminFilter;
+import com.mariuszilinskas.streamix.users.account.dto.UserCursor;
+import com.mariuszilinskas.streamix.users.account.enums.UpdateOutcome;
+import com.mariuszilinskas.streamix.users.account.enums.UserAuthority;
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+import com.mariuszilinskas.streamix.users.account.model.User;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Custom repository fragment for User bulk operations that are issued as plain SQL.
+ *
+ * @author Marius Zilinskas
+ */
+public interface UserRepositoryCustom {
+
+    int updateLastActive(Map<UUID, ZonedDateTime> lastActiveByUserId);
+
+    void forEachEmail(Consumer<String> emailConsumer);
+
+    List<User> findUsersAfter(UserAdminFilter filter, UserCursor after, int limit);
+
+    long countUsers(UserAdminFilter filter);
+
+    UpdateOutcome addRole(UUID userId, UserRole role);
+
+    UpdateOutcome removeRole(UUID userId, UserRole role);
+
+    UpdateOutcome addAuthority(UUID userId, UserAuthority authority);
+
+    UpdateOutcome removeAuthority(UUID userId, UserAuthority authority);
+
+    UpdateOutcome updateStatus(UUID userId, UserStatus status);
+
+}
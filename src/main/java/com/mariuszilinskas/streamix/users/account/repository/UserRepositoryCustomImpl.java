@@ -0,0 +1,246 @@
+package com.mariuszilinskas.streamix.users.account.repository;
+
+import com.mariuszilinskas.streamix.users.account.converter.UserAuthorityBitmaskConverter;
+import com.mariuszilinskas.streamix.users.account.converter.UserRoleBitmaskConverter;
+import com.mariuszilinskas.streamix.users.account.dto.UserAdminFilter;
+import com.mariuszilinskas.streamix.users.account.dto.UserCursor;
+import com.mariuszilinskas.streamix.users.account.enums.UpdateOutcome;
+import com.mariuszilinskas.streamix.users.account.enums.UserAuthority;
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+import com.mariuszilinskas.streamix.users.account.model.User;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * JDBC implementation of {@link UserRepositoryCustom}. Bulk updates bypass the persistence
+ * context, so each batch is sent to the database as a single JDBC batch.
+ * lastActive updates only move forward, so late or redelivered timestamps are ignored.
+ * Full-table reads are streamed with a fetch size rather than materialised as entities.
+ * The admin listing is keyset-paginated over (created_at, id), so every page is an index range scan.
+ * Roles, authorities and status are changed under a row lock: one locking read tells a missing user
+ * and a no-op apart, and only a real change is followed by an UPDATE.
+ * These statements bypass Hibernate, so the affected users are evicted from the second-level cache,
+ * once immediately and again when the transaction completes.
+ *
+ * @author Marius Zilinskas
+ */
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String UPDATE_LAST_ACTIVE_SQL =
+            "UPDATE users SET last_active = ? WHERE id = ? AND last_active < ?";
+    private static final String SELECT_EMAILS_SQL = "SELECT email FROM users";
+    private static final String SELECT_USERS_SQL = "SELECT id, first_name, last_name, email, country, " +
+            "is_email_verified, status, roles_mask, authorities_mask, created_at, last_active FROM users";
+    private static final String COUNT_USERS_SQL = "SELECT count(*) FROM users";
+    private static final String LOCK_COLUMN_SQL = "SELECT %s FROM users WHERE id = ? FOR UPDATE";
+    private static final String UPDATE_COLUMN_SQL = "UPDATE users SET %s = ? WHERE id = ?";
+    private static final int EMAIL_FETCH_SIZE = 5000;
+
+    private static final UserRoleBitmaskConverter roleConverter = new UserRoleBitmaskConverter();
+    private static final UserAuthorityBitmaskConverter authorityConverter = new UserAuthorityBitmaskConverter();
+    private static final RowMapper<User> userRowMapper = UserRepositoryCustomImpl::mapUser;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    @Transactional
+    public int updateLastActive(Map<UUID, ZonedDateTime> lastActiveByUserId) {
+        if (lastActiveByUserId.isEmpty())
+            return 0;
+
+        List<Object[]> batchArgs = lastActiveByUserId.entrySet().stream()
+                .map(entry -> {
+                    OffsetDateTime lastActive = entry.getValue().toOffsetDateTime();
+                    return new Object[] { lastActive, entry.getKey(), lastActive };
+                })
+                .toList();
+
+        // Cached Users are left in place: evicting them here would evict every active User on every flush.
+        // Their lastActive goes stale for up to the region TTL, which is safe as nothing reads it from a
+        // loaded User (admin listings select it from the table, and this update is the only write to it)
+        int[] updateCounts = jdbcTemplate.batchUpdate(UPDATE_LAST_ACTIVE_SQL, batchArgs);
+        return Arrays.stream(updateCounts)
+                .map(count -> count == Statement.SUCCESS_NO_INFO ? 1 : count)
+                .sum();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachEmail(Consumer<String> emailConsumer) {
+        // A fetch size makes the driver stream rows in pages instead of loading the whole table
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(SELECT_EMAILS_SQL);
+                    statement.setFetchSize(EMAIL_FETCH_SIZE);
+                    return statement;
+                },
+                (RowCallbackHandler) resultSet -> emailConsumer.accept(resultSet.getString(1))
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findUsersAfter(UserAdminFilter filter, UserCursor after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder(SELECT_USERS_SQL);
+        appendFilterClause(sql, params, filter);
+
+        if (after != null) {
+            sql.append(params.getValues().isEmpty() ? " WHERE" : " AND")
+                    .append(" (created_at, id) > (:afterCreatedAt, :afterId)");
+            params.addValue("afterCreatedAt", after.createdAt().toOffsetDateTime());
+            params.addValue("afterId", after.id());
+        }
+
+        sql.append(" ORDER BY created_at, id LIMIT :limit");
+        params.addValue("limit", limit);
+        return namedParameterJdbcTemplate.query(sql.toString(), params, userRowMapper);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countUsers(UserAdminFilter filter) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder(COUNT_USERS_SQL);
+        appendFilterClause(sql, params, filter);
+        Long count = namedParameterJdbcTemplate.queryForObject(sql.toString(), params, Long.class);
+        return count != null ? count : 0;
+    }
+
+    @Override
+    @Transactional
+    public UpdateOutcome addRole(UUID userId, UserRole role) {
+        return updateColumn(userId, "roles_mask", Integer.class, mask -> mask | role.mask());
+    }
+
+    @Override
+    @Transactional
+    public UpdateOutcome removeRole(UUID userId, UserRole role) {
+        return updateColumn(userId, "roles_mask", Integer.class, mask -> mask & ~role.mask());
+    }
+
+    @Override
+    @Transactional
+    public UpdateOutcome addAuthority(UUID userId, UserAuthority authority) {
+        return updateColumn(userId, "authorities_mask", Integer.class, mask -> mask | authority.mask());
+    }
+
+    @Override
+    @Transactional
+    public UpdateOutcome removeAuthority(UUID userId, UserAuthority authority) {
+        return updateColumn(userId, "authorities_mask", Integer.class, mask -> mask & ~authority.mask());
+    }
+
+    @Override
+    @Transactional
+    public UpdateOutcome updateStatus(UUID userId, UserStatus status) {
+        return updateColumn(userId, "status", String.class, current -> status.name());
+    }
+
+    // The row stays locked until the transaction ends, so concurrent changes to it apply one after another
+    private <T> UpdateOutcome updateColumn(UUID userId, String column, Class<T> type, UnaryOperator<T> change) {
+        List<T> current = jdbcTemplate.queryForList(LOCK_COLUMN_SQL.formatted(column), type, userId);
+        if (current.isEmpty())
+            return UpdateOutcome.NOT_FOUND;
+
+        T updated = change.apply(current.getFirst());
+        if (updated.equals(current.getFirst()))
+            return UpdateOutcome.UNCHANGED;
+
+        jdbcTemplate.update(UPDATE_COLUMN_SQL.formatted(column), updated, userId);
+        evictFromSecondLevelCache(List.of(userId));
+        return UpdateOutcome.UPDATED;
+    }
+
+    private void evictFromSecondLevelCache(Collection<UUID> userIds) {
+        Cache cache = entityManagerFactory.getCache();
+        userIds.forEach(userId -> cache.evict(User.class, userId));
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+
+        // A concurrent load before the commit could otherwise re-cache the replaced row
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                userIds.forEach(userId -> cache.evict(User.class, userId));
+            }
+        });
+    }
+
+    private void appendFilterClause(StringBuilder sql, MapSqlParameterSource params, UserAdminFilter filter) {
+        StringBuilder where = new StringBuilder();
+        if (filter.status() != null) {
+            where.append(" AND status = :status");
+            params.addValue("status", filter.status().name());
+        }
+        if (filter.role() != null) {
+            // BITAND is built into H2 and added to PostgreSQL by the V12 migration. The mask is a constant of
+            // the enum and is inlined rather than bound, so even a generic plan of the prepared statement
+            // can match the per-role partial index (V15)
+            where.append(" AND bitand(roles_mask, ").append(filter.role().mask()).append(") <> 0");
+        }
+        if (filter.country() != null) {
+            where.append(" AND country = :country");
+            params.addValue("country", filter.country());
+        }
+        if (filter.emailVerified() != null) {
+            where.append(" AND is_email_verified = :emailVerified");
+            params.addValue("emailVerified", filter.emailVerified());
+        }
+        if (filter.lastActiveFrom() != null) {
+            where.append(" AND last_active >= :lastActiveFrom");
+            params.addValue("lastActiveFrom", filter.lastActiveFrom().toOffsetDateTime());
+        }
+        if (filter.lastActiveTo() != null) {
+            where.append(" AND last_active < :lastActiveTo");
+            params.addValue("lastActiveTo", filter.lastActiveTo().toOffsetDateTime());
+        }
+
+        if (!where.isEmpty())
+            sql.append(" WHERE").append(where.substring(" AND".length()));
+    }
+
+    private static User mapUser(ResultSet resultSet, int rowNum) throws SQLException {
+        User user = new User();
+        user.setId(resultSet.getObject("id", UUID.class));
+        user.setFirstName(resultSet.getString("first_name"));
+        user.setLastName(resultSet.getString("last_name"));
+        user.setEmail(resultSet.getString("email"));
+        user.setCountry(resultSet.getString("country"));
+        user.setEmailVerified(resultSet.getBoolean("is_email_verified"));
+        user.setStatus(UserStatus.valueOf(resultSet.getString("status")));
+        user.setRoles(roleConverter.convertToEntityAttribute(resultSet.getInt("roles_mask")));
+        user.setAuthorities(authorityConverter.convertToEntityAttribute(resultSet.getInt("authorities_mask")));
+        user.setCreatedAt(resultSet.getObject("created_at", OffsetDateTime.class).toZonedDateTime());
+        user.setLastActive(resultSet.getObject("last_active", OffsetDateTime.class).toZonedDateTime());
+        return user;
+    }
+
+}
@@ -1,17 +1,18 @@
 package com.mariuszilinskas.streamix.users.account.service;
 
+import com.mariuszilinskas.streamix.users.account.datasource.ReadYourWritesWindow;
 import com.mariuszilinskas.streamix.users.account.dto.UpdateAddressRequest;
-import com.mariuszilinskas.streamix.users.account.enums.AddressType;
-import com.mariuszilinskas.streamix.users.account.exception.AddressTypeExistsException;
 import com.mariuszilinskas.streamix.users.account.exception.ResourceNotFoundException;
 import com.mariuszilinskas.streamix.users.account.mapper.AddressMapper;
 import com.mariuszilinskas.streamix.users.account.model.Address;
 import com.mariuszilinskas.streamix.users.account.repository.AddressRepository;
-import jakarta.transaction.Transactional;
+import com.mariuszilinskas.streamix.users.account.util.ConstraintViolations;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -22,34 +23,43 @@ public class AddressServiceImpl implements AddressService {
 
     private static final Logger logger = LoggerFactory.getLogger(AddressServiceImpl.class);
     private final AddressRepository addressRepository;
+    private final ReadYourWritesWindow readYourWritesWindow;
 
     @Override
     @Transactional
     public Address createAddress(UUID userId, UpdateAddressRequest request) {
         logger.info("Creating new Address for User [userId: '{}']", userId);
-        checkTheAddressTypeExists(userId, request.addressType());
         return createAndSaveAddress(userId, request);
     }
 
-    private void checkTheAddressTypeExists(UUID userId, AddressType addressType) {
-        if (addressRepository.existsByUserIdAndAddressType(userId, addressType))
-            throw new AddressTypeExistsException(addressType);
-    }
-
     private Address createAndSaveAddress(UUID userId, UpdateAddressRequest request) {
         Address address = AddressMapper.mapFromUpdateAddressRequest(userId, request);
-        return addressRepository.save(address);
+        Address savedAddress = saveAndFlushAddress(address);
+        readYourWritesWindow.recordWrite(userId);
+        return savedAddress;
+    }
+
+    private Address saveAndFlushAddress(Address address) {
+        try {
+            return addressRepository.saveAndFlush(address);
+        } catch (DataIntegrityViolationException ex) {
+            throw ConstraintViolations.translateAddressViolation(ex, address.getAddressType());
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Address> getAllAddresses(UUID userId) {
         logger.info("Getting all Addresses for User [userId: '{}']", userId);
+        readYourWritesWindow.routeReadsFor(userId);
         return addressRepository.findAllByUserId(userId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Address getAddress(UUID userId, UUID addressId) {
         logger.info("Getting Address [id: '{}'] for User [userId: '{}']", addressId, userId);
+        readYourWritesWindow.routeReadsFor(userId);
         return findAddressByIdAndUserId(addressId, userId);
     }
 
@@ -58,18 +68,14 @@ public class AddressServiceImpl implements AddressService {
     public Address updateAddress(UUID userId, UUID addressId, UpdateAddressRequest request) {
         logger.info("Updating Address [id: '{addressId}] for User [userId: '{}']", userId);
         Address address = findAddressByIdAndUserId(addressId, userId);
-        checkTheAddressTypeExists(userId, request.addressType(), addressId);
         return updateAndSaveAddress(address, request);
     }
 
-    private void checkTheAddressTypeExists(UUID userId, AddressType addressType, UUID addressId) {
-        if (addressRepository.existsByUserIdAndAddressTypeAndIdNot(userId, addressType, addressId))
-            throw new AddressTypeExistsException(addressType);
-    }
-
     private Address updateAndSaveAddress(Address address, UpdateAddressRequest request) {
         AddressMapper.mapFromUpdateAddressRequest(address, request);
-        return addressRepository.save(address);
+        Address savedAddress = saveAndFlushAddress(address);
+        readYourWritesWindow.recordWrite(address.getUserId());
+        return savedAddress;
     }
 
     @Override
@@ -78,6 +84,7 @@ public class AddressServiceImpl implements AddressService {
         logger.info("Deleting Address [id: '{addressId}] for User [userId: '{}']", userId);
         Address address = findAddressByIdAndUserId(addressId, userId);
         addressRepository.delete(address);
+        readYourWritesWindow.recordWrite(userId);
     }
 
     private Address findAddressByIdAndUserId(UUID addressId, UUID userId) {
@@ -90,6 +97,7 @@ public class AddressServiceImpl implements AddressService {
     public void deleteUserAddresses(UUID userId) {
         logger.info("Deleting all Addresses for User [userId: '{}']", userId);
         addressRepository.deleteAllByUserId(userId);
+        readYourWritesWindow.recordWrite(userId);
     }
 
 }
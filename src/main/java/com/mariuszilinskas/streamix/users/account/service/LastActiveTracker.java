@@ -0,0 +1,143 @@
+package com.mariuszilinskas.streamix.users.account.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mariuszilinskas.streamix.users.account.dto.UserLastActiveMessage;
+import com.mariuszilinskas.streamix.users.account.enums.LastActiveSink;
+import com.mariuszilinskas.streamix.users.account.producer.RabbitMQProducer;
+import com.mariuszilinskas.streamix.users.account.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind tracker of users' lastActive timestamps. Lookups record activity in memory, keeping only
+ * the latest timestamp per user and skipping activity within the configured granularity of the last
+ * recorded one. Pending timestamps are flushed on a schedule as one batch, and drained on shutdown.
+ * A batch that fails, or that the broker doesn't confirm, is merged back into the pending timestamps
+ * and retried on the next flush.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class LastActiveTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastActiveTracker.class);
+    private final UserRepository userRepository;
+    private final RabbitMQProducer rabbitMQProducer;
+    private final LastActiveSink sink;
+    private final Duration granularity;
+    private final Map<UUID, ZonedDateTime> pending = new ConcurrentHashMap<>();
+    private final Cache<UUID, ZonedDateTime> lastRecorded;
+
+    public LastActiveTracker(
+            UserRepository userRepository,
+            RabbitMQProducer rabbitMQProducer,
+            @Value("${account.last-active.sink:database}") LastActiveSink sink,
+            @Value("${account.last-active.granularity:1m}") Duration granularity,
+            @Value("${account.last-active.max-tracked-users:1000000}") long maxTrackedUsers
+    ) {
+        this.userRepository = userRepository;
+        this.rabbitMQProducer = rabbitMQProducer;
+        this.sink = sink;
+        this.granularity = granularity;
+        this.lastRecorded = Caffeine.newBuilder()
+                .expireAfterWrite(granularity)
+                .maximumSize(maxTrackedUsers)
+                .build();
+    }
+
+    public void record(UUID userId, ZonedDateTime lastActive) {
+        // Atomic per user, so concurrent lookups can't both pass the check or move the recorded timestamp back
+        lastRecorded.asMap().compute(userId, (id, previous) -> {
+            if (previous != null && lastActive.isBefore(previous.plus(granularity)))
+                return previous;
+
+            pending.merge(userId, lastActive, LastActiveTracker::latest);
+            return lastActive;
+        });
+    }
+
+    @Scheduled(
+            initialDelayString = "${account.last-active.flush-interval:10s}",
+            fixedDelayString = "${account.last-active.flush-interval:10s}"
+    )
+    public void flush() {
+        flushPending();
+    }
+
+    private CompletableFuture<Boolean> flushPending() {
+        Map<UUID, ZonedDateTime> batch = drainPending();
+        if (batch.isEmpty())
+            return CompletableFuture.completedFuture(true);
+
+        logger.debug("Flushing lastActive for {} Users to {}", batch.size(), sink);
+        try {
+            return writeToSink(batch).handle((confirmed, ex) -> {
+                if (ex == null && Boolean.TRUE.equals(confirmed))
+                    return true;
+
+                requeue(batch, ex != null ? ex.getMessage() : "not confirmed by the broker");
+                return false;
+            });
+        } catch (RuntimeException ex) {
+            requeue(batch, ex.getMessage());
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    private void requeue(Map<UUID, ZonedDateTime> batch, String reason) {
+        logger.error("Failed to flush lastActive for {} Users, will retry: {}", batch.size(), reason);
+        batch.forEach((userId, lastActive) -> pending.merge(userId, lastActive, LastActiveTracker::latest));
+    }
+
+    private Map<UUID, ZonedDateTime> drainPending() {
+        Map<UUID, ZonedDateTime> batch = new HashMap<>();
+        for (UUID userId : pending.keySet()) {
+            ZonedDateTime lastActive = pending.remove(userId);
+            if (lastActive != null)
+                batch.put(userId, lastActive);
+        }
+        return batch;
+    }
+
+    private CompletableFuture<Boolean> writeToSink(Map<UUID, ZonedDateTime> batch) {
+        return switch (sink) {
+            case DATABASE -> {
+                userRepository.updateLastActive(batch);
+                yield CompletableFuture.completedFuture(true);
+            }
+            case RABBITMQ -> rabbitMQProducer.sendUpdateLastActiveMessages(batch.entrySet().stream()
+                    .map(entry -> new UserLastActiveMessage(entry.getKey(), entry.getValue()))
+                    .toList());
+        };
+    }
+
+    /**
+     * Flushes once more and waits for the broker's confirms, retrying a failed batch once.
+     */
+    @PreDestroy
+    public void drain() {
+        logger.info("Draining {} pending lastActive updates", pending.size());
+        if (!flushPending().join())
+            flushPending().join();
+        if (!pending.isEmpty())
+            logger.warn("Dropped {} lastActive updates that could not be flushed on shutdown", pending.size());
+    }
+
+    private static ZonedDateTime latest(ZonedDateTime first, ZonedDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.mariuszilinskas.streamix.users.account.service;
+
+import com.mariuszilinskas.streamix.users.account.model.User;
+import com.mariuszilinskas.streamix.users.account.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Abandons registrations left waiting for their credentials, e.g. by an instance that stopped
+ * between committing the user and completing the registration. Only registrations older than
+ * the timeout are swept, which must exceed the longest a registration can legitimately take.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class RegistrationSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationSweeper.class);
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final Duration timeout;
+    private final int batchSize;
+
+    public RegistrationSweeper(
+            UserRepository userRepository,
+            UserService userService,
+            @Value("${account.registration.timeout:10m}") Duration timeout,
+            @Value("${account.registration.sweep-batch-size:500}") int batchSize
+    ) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.timeout = timeout;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(
+            initialDelayString = "${account.registration.sweep-interval:1m}",
+            fixedDelayString = "${account.registration.sweep-interval:1m}"
+    )
+    public void sweep() {
+        List<User> abandoned = userRepository.findAllByCredentialsCreatedFalseAndCreatedAtBefore(
+                ZonedDateTime.now().minus(timeout), Limit.of(batchSize));
+
+        long swept = abandoned.stream()
+                .filter(user -> userService.abandonRegistration(user.getId(), user.getEmail()))
+                .count();
+        if (swept > 0)
+            logger.info("Swept {} registrations pending for over {}", swept, timeout);
+    }
+
+}
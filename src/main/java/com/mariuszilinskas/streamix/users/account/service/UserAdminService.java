@@ -1,25 +1,25 @@
 package com.mariuszilinskas.streamix.users.account.service;
 
-import com.mariuszilinskas.streamix.users.account.dto.UserAdminResponse;
+import com.mariuszilinskas.streamix.users.account.dto.UserAdminFilter;
+import com.mariuszilinskas.streamix.users.account.dto.UserAdminPageResponse;
 import com.mariuszilinskas.streamix.users.account.enums.UserAuthority;
 import com.mariuszilinskas.streamix.users.account.enums.UserRole;
 import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
 
-import java.util.List;
 import java.util.UUID;
 
 public interface UserAdminService {
 
-    List<UserAdminResponse> getUsers();
+    UserAdminPageResponse getUsers(UserAdminFilter filter, String cursor, int limit, boolean includeTotal);
 
-    void grantUserRole(UUID userId, UserRole userRole);
+    boolean grantUserRole(UUID userId, UserRole userRole);
 
-    void removeUserRole(UUID userId, UserRole userRole);
+    boolean removeUserRole(UUID userId, UserRole userRole);
 
-    void grantUserAuthority(UUID userId, UserAuthority authority);
+    boolean grantUserAuthority(UUID userId, UserAuthority authority);
 
-    void removeUserAuthority(UUID userId, UserAuthority authority);
+    boolean removeUserAuthority(UUID userId, UserAuthority authority);
 
-    void updateUserStatus(UUID userId, UserStatus status);
+    boolean updateUserStatus(UUID userId, UserStatus status);
 
 }
@@ -1,6 +1,12 @@
 package com.mariuszilinskas.streamix.users.account.service;
 
+import com.mariuszilinskas.streamix.users.account.cache.AuthDetailsCache;
+import com.mariuszilinskas.streamix.users.account.datasource.ReadYourWritesWindow;
+import com.mariuszilinskas.streamix.users.account.dto.UserAdminFilter;
+import com.mariuszilinskas.streamix.users.account.dto.UserAdminPageResponse;
 import com.mariuszilinskas.streamix.users.account.dto.UserAdminResponse;
+import com.mariuszilinskas.streamix.users.account.dto.UserCursor;
+import com.mariuszilinskas.streamix.users.account.enums.UpdateOutcome;
 import com.mariuszilinskas.streamix.users.account.enums.UserAuthority;
 import com.mariuszilinskas.streamix.users.account.enums.UserRole;
 import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
@@ -8,19 +14,19 @@ import com.mariuszilinskas.streamix.users.account.exception.ResourceNotFoundExce
 import com.mariuszilinskas.streamix.users.account.mapper.UserAdminMapper;
 import com.mariuszilinskas.streamix.users.account.model.User;
 import com.mariuszilinskas.streamix.users.account.repository.UserRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 /**
  * Service implementation for managing user accounts, accessible only by system admins.
- * This service handles user roles, authorities, and suspension.
+ * This service handles user roles, authorities, and suspension, each applied under a row lock
+ * so concurrent changes never overwrite one another and a no-op writes nothing.
  *
  * @author Marius Zilinskas
  */
@@ -29,89 +35,81 @@ import java.util.UUID;
 public class UserAdminServiceImp implements UserAdminService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserAdminServiceImp.class);
+    private static final int MAX_PAGE_SIZE = 500;
     private final UserRepository userRepository;
+    private final AuthDetailsCache authDetailsCache;
+    private final ReadYourWritesWindow readYourWritesWindow;
 
     @Override
-    public List<UserAdminResponse> getUsers() {
-        logger.info("Getting all platform Users");
-        List<User> users = userRepository.findAll();
-        return users.stream()
+    @Transactional(readOnly = true)
+    public UserAdminPageResponse getUsers(UserAdminFilter filter, String cursor, int limit, boolean includeTotal) {
+        logger.info("Getting platform Users page [filter: '{}', cursor: '{}', limit: {}]", filter, cursor, limit);
+        UserCursor after = cursor != null ? UserCursor.decode(cursor) : null;
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+
+        // One extra row tells whether another page follows, without a count(*)
+        List<User> users = userRepository.findUsersAfter(filter, after, pageSize + 1);
+        boolean hasNext = users.size() > pageSize;
+        List<User> page = hasNext ? users.subList(0, pageSize) : users;
+
+        String nextCursor = null;
+        if (hasNext) {
+            User last = page.getLast();
+            nextCursor = new UserCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        Long total = includeTotal ? userRepository.countUsers(filter) : null;
+
+        List<UserAdminResponse> response = page.stream()
                 .map(UserAdminMapper::mapToUserAdminResponse)
                 .toList();
+        return new UserAdminPageResponse(response, nextCursor, total);
     }
 
     @Override
     @Transactional
-    public void grantUserRole(UUID userId, UserRole userRole) {
+    public boolean grantUserRole(UUID userId, UserRole userRole) {
         logger.info("Granting '{}' Role for User [id: '{}']", userRole, userId);
-
-        User user = findUserById(userId);
-        List<UserRole> roles = new ArrayList<>(user.getRoles());
-
-        if (!roles.contains(userRole)) {
-            roles.add(userRole);
-            user.setRoles(roles);
-            userRepository.save(user);
-        }
+        return applyChange(userId, userRepository.addRole(userId, userRole));
     }
 
     @Override
     @Transactional
-    public void removeUserRole(UUID userId, UserRole userRole) {
+    public boolean removeUserRole(UUID userId, UserRole userRole) {
         logger.info("Removing '{}' Role for User [id: '{}']", userRole, userId);
-
-        User user = findUserById(userId);
-        List<UserRole> roles = user.getRoles();
-
-        if (roles.contains(userRole)) {
-            roles.remove(userRole);
-            user.setRoles(roles);
-            userRepository.save(user);
-        }
+        return applyChange(userId, userRepository.removeRole(userId, userRole));
     }
 
     @Override
     @Transactional
-    public void grantUserAuthority(UUID userId, UserAuthority authority) {
+    public boolean grantUserAuthority(UUID userId, UserAuthority authority) {
         logger.info("Granting '{}' Authority for User [id: '{}']", authority, userId);
-
-        User user = findUserById(userId);
-        List<UserAuthority> authorities = new ArrayList<>(user.getAuthorities());
-
-        if (!authorities.contains(authority)) {
-            authorities.add(authority);
-            user.setAuthorities(authorities);
-            userRepository.save(user);
-        }
+        return applyChange(userId, userRepository.addAuthority(userId, authority));
     }
 
     @Override
     @Transactional
-    public void removeUserAuthority(UUID userId, UserAuthority authority) {
+    public boolean removeUserAuthority(UUID userId, UserAuthority authority) {
         logger.info("Removing '{}' Authority for User [id: '{}']", authority, userId);
-
-        User user = findUserById(userId);
-        List<UserAuthority> authorities = new ArrayList<>(user.getAuthorities());
-
-        if (authorities.contains(authority)) {
-            authorities.remove(authority);
-            user.setAuthorities(authorities);
-            userRepository.save(user);
-        }
+        return applyChange(userId, userRepository.removeAuthority(userId, authority));
     }
 
     @Override
     @Transactional
-    public void updateUserStatus(UUID userId, UserStatus status) {
+    public boolean updateUserStatus(UUID userId, UserStatus status) {
         logger.info("Setting status '{}' for User [id: '{}']", status, userId);
-        User user = findUserById(userId);
-        user.setStatus(status);
-        userRepository.save(user);
+        return applyChange(userId, userRepository.updateStatus(userId, status));
     }
 
-    private User findUserById(UUID userId) {
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException(User.class, "id", userId));
+    // Returns whether the user was changed; a no-op leaves the caches alone
+    private boolean applyChange(UUID userId, UpdateOutcome outcome) {
+        if (outcome == UpdateOutcome.NOT_FOUND)
+            throw new ResourceNotFoundException(User.class, "id", userId);
+        if (outcome == UpdateOutcome.UNCHANGED)
+            return false;
+
+        readYourWritesWindow.recordWrite(userId);
+        authDetailsCache.evict(userId);
+        return true;
     }
 
 }
@@ -0,0 +1,12 @@
+package com.mariuszilinskas.streamix.users.account.service;
+
+import com.mariuszilinskas.streamix.users.account.enums.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface UserExportService {
+
+    long exportUsers(ExportFormat format, OutputStream outputStream) throws IOException;
+
+}
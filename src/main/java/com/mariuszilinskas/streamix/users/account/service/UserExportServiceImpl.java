@@ -0,0 +1,83 @@
+package com.mariuszilinskas.streamix.users.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mariuszilinskas.streamix.users.account.dto.UserAdminResponse;
+import com.mariuszilinskas.streamix.users.account.enums.ExportFormat;
+import com.mariuszilinskas.streamix.users.account.mapper.UserAdminMapper;
+import com.mariuszilinskas.streamix.users.account.model.User;
+import com.mariuszilinskas.streamix.users.account.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation for exporting all users, accessible only by system admins.
+ * Users are read through a forward-only cursor and written out one at a time, each entity
+ * being detached once written, so memory use doesn't grow with the size of the table.
+ *
+ * @author Marius Zilinskas
+ */
+@Service
+@RequiredArgsConstructor
+public class UserExportServiceImpl implements UserExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserExportServiceImpl.class);
+    private static final CsvMapper csvMapper = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private static final CsvSchema csvSchema = csvMapper.schemaFor(UserAdminResponse.class)
+            .withHeader()
+            .withArrayElementSeparator(";");
+
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public long exportUsers(ExportFormat format, OutputStream outputStream) throws IOException {
+        logger.info("Exporting all platform Users as {}", format);
+
+        long exported = 0;
+        try (Stream<User> users = userRepository.streamAll();
+             SequenceWriter writer = createWriter(format, outputStream)) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                User user = iterator.next();
+                writer.write(UserAdminMapper.mapToUserAdminResponse(user));
+                entityManager.detach(user);
+                exported++;
+            }
+        }
+
+        logger.info("Exported {} platform Users as {}", exported, format);
+        return exported;
+    }
+
+    private SequenceWriter createWriter(ExportFormat format, OutputStream outputStream) throws IOException {
+        return switch (format) {
+            case NDJSON -> objectMapper.writerFor(UserAdminResponse.class)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream);
+            case CSV -> csvMapper.writerFor(UserAdminResponse.class)
+                    .with(csvSchema)
+                    .writeValues(outputStream);
+        };
+    }
+
+}
@@ -3,14 +3,19 @@ package com.mariuszilinskas.streamix.users.account.service;
 import com.mariuszilinskas.streamix.users.account.dto.*;
 
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public interface UserService {
 
-    UserResponse createUser(CreateUserRequest request);
+    UserResponse createUser(CreateUserRequest request, String idempotencyKey);
+
+    boolean abandonRegistration(UUID userId, String email);
 
     UserResponse getUser(UUID userId);
 
+    BatchUserResponse getUsers(BatchUserRequest request);
+
     UserResponse updateUser(UUID userId, UpdateUserRequest request);
 
     UpdateEmailResponse updateUserEmail(UUID userId, UpdateEmailRequest request);
@@ -21,8 +26,12 @@ public interface UserService {
 
     AuthDetailsResponse getUserAuthDetailsByUserId(UUID id);
 
+    BatchAuthDetailsResponse getUsersAuthDetails(BatchAuthDetailsRequest request);
+
     void updateLastActiveInDb(UUID userId, ZonedDateTime lastActive);
 
+    void updateLastActiveInDb(List<UserLastActiveMessage> messages);
+
     void deleteUser(UUID userId, DeleteUserRequest request);
 
 }
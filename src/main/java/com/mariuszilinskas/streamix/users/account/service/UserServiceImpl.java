@@ -1,25 +1,41 @@
 package com.mariuszilinskas.streamix.users.account.service;
 
-import com.mariuszilinskas.streamix.users.account.client.IdentityFeignClient;
+import com.mariuszilinskas.streamix.users.account.cache.AuthDetailsCache;
+import com.mariuszilinskas.streamix.users.account.cache.EmailBloomFilter;
+import com.mariuszilinskas.streamix.users.account.client.IdentityClient;
+import com.mariuszilinskas.streamix.users.account.datasource.ReadYourWritesWindow;
 import com.mariuszilinskas.streamix.users.account.dto.*;
 import com.mariuszilinskas.streamix.users.account.exception.*;
 import com.mariuszilinskas.streamix.users.account.mapper.UserMapper;
 import com.mariuszilinskas.streamix.users.account.producer.RabbitMQProducer;
 import com.mariuszilinskas.streamix.users.account.model.User;
 import com.mariuszilinskas.streamix.users.account.repository.UserRepository;
-import feign.FeignException;
-import jakarta.transaction.Transactional;
+import com.mariuszilinskas.streamix.users.account.util.AccountUtils;
+import com.mariuszilinskas.streamix.users.account.util.ConstraintViolations;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service implementation for managing user accounts.
  * This service handles user creation, information updates, and deletion.
+ * Updates that change nothing are skipped, so they issue no UPDATE statement.
+ * Reads run in read-only transactions, which are served by a replica when one is configured,
+ * except for a user's own reads shortly after they were written to.
  *
  * @author Marius Zilinskas
  */
@@ -28,49 +44,144 @@ import java.util.UUID;
 public class UserServiceImpl implements UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
-    private final IdentityFeignClient identityFeignClient;
+    private final IdentityClient identityClient;
     private final UserRepository userRepository;
     private final RabbitMQProducer rabbitMQProducer;
-
+    private final AuthDetailsCache authDetailsCache;
+    private final LastActiveTracker lastActiveTracker;
+    private final EmailBloomFilter emailBloomFilter;
+    private final ReadYourWritesWindow readYourWritesWindow;
+    private final TransactionOperations transactionOperations;
+
+    /**
+     * Registers a user as a saga, so the identity service is never called while holding a
+     * database connection. The user is committed first, with credentials pending, then its
+     * credentials are created and the registration is marked complete. If the credentials
+     * can't be created the user is removed again. A retry that sends the same Idempotency-Key
+     * resumes a registration that was left pending, since creating credentials is idempotent;
+     * any other registration for a pending email is rejected, as for any registered email.
+     */
     @Override
-    @Transactional
-    public UserResponse createUser(CreateUserRequest request){
+    public UserResponse createUser(CreateUserRequest request, String idempotencyKey){
         logger.info("Creating new User with Email: '{}']", request.email());
 
-        checkEmailExists(request.email());
-        User newUser = createAndSaveUser(request);
+        User newUser = createOrResumeRegistration(request, idempotencyKey);
 
         var credentialsRequest = UserMapper.mapToCredentialsRequest(newUser, request.password());
-        createCredentials(credentialsRequest);  // TODO: use gRPC
-
-        var profileRequest = UserMapper.mapToDefaultProfileMessage(newUser);
-        rabbitMQProducer.sendCreateDefaultProfileMessage(profileRequest);
+        try {
+            identityClient.createCredentials(credentialsRequest);
+        } catch (RuntimeException ex) {
+            abandonRegistration(newUser.getId(), newUser.getEmail());
+            throw ex;
+        }
 
+        completeRegistration(newUser);
         return UserMapper.mapToUserResponse(newUser);
     }
 
-    private User createAndSaveUser(CreateUserRequest request) {
-        User user = UserMapper.mapFromCreateRequest(request);
-        return userRepository.save(user);
+    private User createOrResumeRegistration(CreateUserRequest request, String idempotencyKey) {
+        try {
+            return createAndSaveUser(request, idempotencyKey);
+        } catch (EmailExistsException ex) {
+            if (idempotencyKey == null)
+                throw ex;
+
+            return userRepository.findByEmailIgnoreCaseAndRegistrationKeyAndCredentialsCreatedFalse(
+                    request.email(), idempotencyKey).orElseThrow(() -> ex);
+        }
+    }
+
+    private User createAndSaveUser(CreateUserRequest request, String idempotencyKey) {
+        User user = UserMapper.mapFromCreateRequest(request, idempotencyKey);
+        User savedUser = saveAndFlushUser(user);
+        emailBloomFilter.add(savedUser.getEmail());
+        readYourWritesWindow.recordWrite(savedUser.getId(), savedUser.getEmail());
+        return savedUser;
+    }
+
+    private enum RegistrationOutcome { COMPLETED, COMPLETED_BY_RETRY, ABANDONED }
+
+    private void completeRegistration(User user) {
+        // The flag and the profile message commit together, so the message is sent exactly when the registration completes
+        RegistrationOutcome outcome = transactionOperations.execute(status -> {
+            if (userRepository.markCredentialsCreated(user.getId()) == 1) {
+                var profileRequest = UserMapper.mapToDefaultProfileMessage(user);
+                rabbitMQProducer.sendCreateDefaultProfileMessage(profileRequest);
+                return RegistrationOutcome.COMPLETED;
+            }
+            if (userRepository.existsById(user.getId()))
+                return RegistrationOutcome.COMPLETED_BY_RETRY;
+
+            // Abandoned meanwhile, possibly before these credentials were created, so they must be removed too
+            rabbitMQProducer.sendDeleteUserDataMessage(user.getId());
+            return RegistrationOutcome.ABANDONED;
+        });
+
+        if (outcome == RegistrationOutcome.ABANDONED)
+            throw new UserRegistrationException(user.getId());
+        if (outcome == RegistrationOutcome.COMPLETED)
+            readYourWritesWindow.recordWrite(user.getId());
+    }
+
+    /**
+     * Removes a registration that never got its credentials, and asks the other services to
+     * drop anything they created for it, including credentials that were created after all.
+     */
+    @Override
+    public boolean abandonRegistration(UUID userId, String email) {
+        Boolean abandoned = transactionOperations.execute(status -> {
+            if (userRepository.deleteIncompleteRegistration(userId) == 0)
+                return false;
+
+            rabbitMQProducer.sendDeleteUserDataMessage(userId);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(abandoned))
+            return false;
+
+        logger.warn("Abandoned registration of User [id: '{}']", userId);
+        authDetailsCache.evict(userId);
+        authDetailsCache.evictEmail(email);
+        emailBloomFilter.recordRemoval();
+        readYourWritesWindow.recordWrite(userId, email);
+        return true;
     }
 
-    private void createCredentials (CredentialsRequest request) {
+    // Flushing surfaces unique constraint violations here, before any remote call is made
+    private User saveAndFlushUser(User user) {
         try {
-            identityFeignClient.createCredentials(request);
-        } catch (FeignException ex) {
-            logger.error("Feign Exception when creating user credentials: Status {}, Body {}", ex.status(), ex.contentUTF8());
-            throw new CreateCredentialsException(request.userId());
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            throw ConstraintViolations.translateUserViolation(ex);
         }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserResponse getUser(UUID userId) {
         logger.info("Getting User [id: '{}']", userId);
+        readYourWritesWindow.routeReadsFor(userId);
         User user = findUserById(userId);
         return UserMapper.mapToUserResponse(user);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public BatchUserResponse getUsers(BatchUserRequest request) {
+        List<UUID> userIds = distinctNonNull(request.userIds());
+        logger.info("Getting {} Users in batch", userIds.size());
+
+        Map<UUID, UserResponse> users = new LinkedHashMap<>();
+        for (List<UUID> chunk : AccountUtils.partition(userIds, AccountUtils.IN_CLAUSE_CHUNK_SIZE))
+            userRepository.findAllById(chunk)
+                    .forEach(user -> users.put(user.getId(), UserMapper.mapToUserResponse(user)));
+
+        List<UUID> missing = userIds.stream().filter(id -> !users.containsKey(id)).toList();
+        return new BatchUserResponse(users, missing);
+    }
+
+    @Override
+    @Transactional
     public UserResponse updateUser(UUID userId, UpdateUserRequest request) {
         logger.info("Updating User [id: '{}']", userId);
         User user = findUserById(userId);
@@ -79,35 +190,55 @@ public class UserServiceImpl implements UserService {
     }
 
     private void updateAndSaveUser(User user, UpdateUserRequest request) {
-        UserMapper.applyUpdates(user, request);
+        if (!UserMapper.applyUpdates(user, request))
+            return;
+
         userRepository.save(user);
+        readYourWritesWindow.recordWrite(user.getId());
     }
 
+    /**
+     * Verifies the password between two short transactions, so no connection is held during
+     * the remote call. The user is loaded again for the update, in case it changed meanwhile.
+     */
     @Override
     public UpdateEmailResponse updateUserEmail(UUID userId, UpdateEmailRequest request) {
         logger.info("Updating User Email [id: '{}']", userId);
 
-        User user = findUserById(userId);
+        User existing = transactionOperations.execute(status -> findUserById(userId));
         var passwordRequest = new VerifyPasswordRequest(userId, request.password());
 
-        verifyPassword(passwordRequest);
-        checkEmailExists(request.email());
+        identityClient.verifyPassword(passwordRequest);
+        if (request.email().equals(existing.getEmail()))
+            return UserMapper.mapToUpdateEmailResponse(existing);
+
+        return transactionOperations.execute(status -> changeEmail(userId, request));
+    }
+
+    private UpdateEmailResponse changeEmail(UUID userId, UpdateEmailRequest request) {
+        User user = findUserById(userId);
+        if (request.email().equals(user.getEmail()))
+            return UserMapper.mapToUpdateEmailResponse(user);
+
+        String previousEmail = user.getEmail();
         updateEmail(user, request);
 
+        authDetailsCache.evict(userId);
+        authDetailsCache.evictEmail(previousEmail);
+        readYourWritesWindow.recordWrite(userId, user.getEmail());
+        readYourWritesWindow.recordWrite(userId, previousEmail);
+        emailBloomFilter.add(user.getEmail());
+        emailBloomFilter.recordRemoval();
+
         rabbitMQProducer.sendResetPasscodeMessage(userId);
 
         return UserMapper.mapToUpdateEmailResponse(user);
     }
 
-    private void checkEmailExists(String email) {
-        if (userRepository.existsByEmail(email))
-            throw new EmailExistsException();
-    }
-
     private void updateEmail(User user, UpdateEmailRequest request) {
         user.setEmail(request.email());
         user.setEmailVerified(false);
-        userRepository.save(user);
+        saveAndFlushUser(user);
     }
 
     @Override
@@ -119,43 +250,120 @@ public class UserServiceImpl implements UserService {
     }
 
     private void markEmailAsVerified(User user) {
+        // Redelivered verify-account messages find the user already verified and write nothing
+        if (user.isEmailVerified())
+            return;
+
         user.setEmailVerified(true);
         userRepository.save(user);
+        readYourWritesWindow.recordWrite(user.getId());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public AuthDetailsResponse getUserAuthDetailsByEmail(String email) {
         logger.info("Getting Auth Details for User [email: '{}']", email);
-        User user = findUserByEmail(email);
-        updateLastActive(user.getId());
-        return UserMapper.mapToAuthDetailsResponse(user);
+        String normalizedEmail = email.trim().toLowerCase();
+        readYourWritesWindow.routeReadsForEmail(normalizedEmail);
+        AuthDetailsResponse authDetails = authDetailsCache.getByEmail(normalizedEmail, this::loadAuthDetailsByEmail);
+        updateLastActive(authDetails.userId());
+        return authDetails;
     }
 
-    private User findUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException(User.class, "email", email));
+    private AuthDetailsResponse loadAuthDetailsByEmail(String email) {
+        boolean mightContain = emailBloomFilter.mightContain(email);
+        if (!mightContain && emailBloomFilter.isAuthoritative())
+            throw new ResourceNotFoundException(User.class, "email", email);
+
+        return userRepository.findAuthDetailsByEmailIgnoreCase(email)
+                .map(view -> {
+                    if (!mightContain)
+                        emailBloomFilter.recordMissedEmail(email);
+                    return UserMapper.mapToAuthDetailsResponse(view);
+                })
+                .orElseThrow(() -> {
+                    if (mightContain)
+                        emailBloomFilter.recordFalsePositive();
+                    return new ResourceNotFoundException(User.class, "email", email);
+                });
     }
 
     @Override
+    @Transactional(readOnly = true)
     public AuthDetailsResponse getUserAuthDetailsByUserId(UUID userId) {
         logger.info("Getting Auth Details for User [id: '{}']", userId);
-        User user = findUserById(userId);
+        readYourWritesWindow.routeReadsFor(userId);
+        AuthDetailsResponse authDetails = authDetailsCache.getByUserId(userId, this::loadAuthDetailsByUserId);
         updateLastActive(userId);
-        return UserMapper.mapToAuthDetailsResponse(user);
+        return authDetails;
+    }
+
+    private AuthDetailsResponse loadAuthDetailsByUserId(UUID userId) {
+        return userRepository.findAuthDetailsById(userId)
+                .map(UserMapper::mapToAuthDetailsResponse)
+                .orElseThrow(() -> new ResourceNotFoundException(User.class, "id", userId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BatchAuthDetailsResponse getUsersAuthDetails(BatchAuthDetailsRequest request) {
+        List<UUID> userIds = distinctNonNull(request.userIds());
+        List<String> emails = distinctNonNull(request.emails());
+        List<String> candidateEmails = !emailBloomFilter.isAuthoritative() ? emails
+                : emails.stream().filter(emailBloomFilter::mightContain).toList();
+        logger.info("Getting Auth Details for {} Users by id and {} by email in batch", userIds.size(), emails.size());
+
+        Map<String, AuthDetailsResponse> authDetails = new LinkedHashMap<>();
+        for (List<UUID> chunk : AccountUtils.partition(userIds, AccountUtils.IN_CLAUSE_CHUNK_SIZE))
+            userRepository.findAllAuthDetailsByIdIn(chunk)
+                    .forEach(view -> authDetails.put(view.getId().toString(), UserMapper.mapToAuthDetailsResponse(view)));
+
+        // Results are keyed by the email as requested, whatever case it is stored in
+        Map<String, String> requestedByUpperEmail = candidateEmails.stream()
+                .collect(Collectors.toMap(
+                        email -> email.toUpperCase(Locale.ROOT), email -> email, (first, second) -> first, LinkedHashMap::new));
+        for (List<String> chunk : AccountUtils.partition(List.copyOf(requestedByUpperEmail.keySet()), AccountUtils.IN_CLAUSE_CHUNK_SIZE))
+            userRepository.findAllAuthDetailsByUpperEmailIn(chunk)
+                    .forEach(view -> authDetails.put(
+                            requestedByUpperEmail.get(view.getEmail().toUpperCase(Locale.ROOT)),
+                            UserMapper.mapToAuthDetailsResponse(view)));
+
+        List<String> missing = Stream.concat(userIds.stream().map(UUID::toString), emails.stream())
+                .filter(key -> !authDetails.containsKey(key))
+                .toList();
+        return new BatchAuthDetailsResponse(authDetails, missing);
+    }
+
+    private <T> List<T> distinctNonNull(List<T> keys) {
+        return keys.stream().filter(Objects::nonNull).distinct().toList();
     }
 
     private void updateLastActive(UUID userId) {
-        var message = new UserLastActiveMessage(userId, ZonedDateTime.now());
-        rabbitMQProducer.sendUpdateLastActiveMessage(message);
+        lastActiveTracker.record(userId, ZonedDateTime.now());
     }
 
     @Override
     @Transactional
     public void updateLastActiveInDb(UUID userId, ZonedDateTime lastActive) {
         logger.info("Updating lastActive for User [userId: '{}']", userId);
-        User user = findUserById(userId);
-        user.setLastActive(lastActive);
-        userRepository.save(user);
+        // The bulk update never moves lastActive back and skips deleted Users, instead of failing the whole
+        // AMQP message this update was batched into. It also avoids comparing against a cached User,
+        // whose lastActive isn't kept current, see UserRepositoryCustomImpl.updateLastActive
+        userRepository.updateLastActive(Map.of(userId, lastActive));
+    }
+
+    @Override
+    @Transactional
+    public void updateLastActiveInDb(List<UserLastActiveMessage> messages) {
+        Map<UUID, ZonedDateTime> latestByUserId = messages.stream()
+                .filter(message -> message.userId() != null && message.lastActive() != null)
+                .collect(Collectors.toMap(
+                        UserLastActiveMessage::userId,
+                        UserLastActiveMessage::lastActive,
+                        (first, second) -> first.isAfter(second) ? first : second
+                ));
+        logger.info("Updating lastActive for {} Users from {} messages", latestByUserId.size(), messages.size());
+        userRepository.updateLastActive(latestByUserId);
     }
 
     private User findUserById(UUID userId) {
@@ -163,23 +371,28 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new ResourceNotFoundException(User.class, "id", userId));
     }
 
+    /**
+     * Verifies the password before the transaction starts, so no connection is held during the remote call.
+     */
     @Override
-    @Transactional
     public void deleteUser(UUID userId, DeleteUserRequest request) {
         logger.info("Deleting User [userId: '{}'], and its data", userId);
         var passwordRequest = new VerifyPasswordRequest(userId, request.password());
-        verifyPassword(passwordRequest);
-        userRepository.deleteById(userId);
-        rabbitMQProducer.sendDeleteUserDataMessage(userId);
+        identityClient.verifyPassword(passwordRequest);
+        transactionOperations.executeWithoutResult(status -> removeUser(userId));
     }
 
-    private void verifyPassword(VerifyPasswordRequest request) {
-        try {
-            identityFeignClient.verifyPassword(request);
-        } catch (FeignException ex) {
-            logger.error("Feign Exception when verifying password: Status {}, Body {}", ex.status(), ex.contentUTF8());
-            throw new PasswordValidationException();
-        }
+    private void removeUser(UUID userId) {
+        User user = findUserById(userId);
+        // Flushed so the row is locked before the outbox message is enqueued, which keeps the User's messages in order
+        userRepository.delete(user);
+        userRepository.flush();
+
+        authDetailsCache.evict(userId);
+        authDetailsCache.evictEmail(user.getEmail());
+        emailBloomFilter.recordRemoval();
+        readYourWritesWindow.recordWrite(userId, user.getEmail());
+        rabbitMQProducer.sendDeleteUserDataMessage(userId);
     }
 
 }
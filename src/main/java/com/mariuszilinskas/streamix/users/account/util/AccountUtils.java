@@ -1,5 +1,8 @@
 package com.mariuszilinskas.streamix.users.account.util;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public abstract class AccountUtils {
 
     private AccountUtils() {
@@ -8,4 +11,16 @@ public abstract class AccountUtils {
 
     public static final String TIMESTAMP_FORMAT = "yyyy-MM-dd hh:mm:ss";
 
+    public static final int MAX_BATCH_LOOKUP_SIZE = 5000;
+
+    // Keeps IN lists well below the bind parameter limits of the JDBC drivers
+    public static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+    public static <T> List<List<T>> partition(List<T> items, int size) {
+        List<List<T>> chunks = new ArrayList<>((items.size() + size - 1) / size);
+        for (int from = 0; from < items.size(); from += size)
+            chunks.add(items.subList(from, Math.min(from + size, items.size())));
+        return chunks;
+    }
+
 }
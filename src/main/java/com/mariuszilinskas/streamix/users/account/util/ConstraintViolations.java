@@ -0,0 +1,54 @@
+package com.mariuszilinskas.streamix.users.account.util;
+
+import com.mariuszilinskas.streamix.users.account.enums.AddressType;
+import com.mariuszilinskas.streamix.users.account.exception.AddressTypeExistsException;
+import com.mariuszilinskas.streamix.users.account.exception.EmailExistsException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Translates violations of the schema's unique constraints into the matching domain exceptions,
+ * so writes can rely on the database instead of checking for duplicates first.
+ *
+ * @author Marius Zilinskas
+ */
+public abstract class ConstraintViolations {
+
+    private ConstraintViolations() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static final String UK_USERS_EMAIL = "uk_users_email";
+    public static final String UK_ADDRESSES_USER_ID_ADDRESS_TYPE = "uk_addresses_user_id_address_type";
+
+    public static RuntimeException translateUserViolation(DataIntegrityViolationException ex) {
+        return isViolationOf(ex, UK_USERS_EMAIL) ? new EmailExistsException() : ex;
+    }
+
+    public static RuntimeException translateAddressViolation(DataIntegrityViolationException ex, AddressType addressType) {
+        return isViolationOf(ex, UK_ADDRESSES_USER_ID_ADDRESS_TYPE) ? new AddressTypeExistsException(addressType) : ex;
+    }
+
+    /**
+     * Drivers report constraint names differently (H2 reports the backing index, e.g.
+     * PUBLIC.UK_USERS_EMAIL_INDEX_4), so the name is matched case-insensitively as a substring
+     * of the extracted constraint name or of any message in the cause chain.
+     */
+    public static boolean isViolationOf(DataIntegrityViolationException ex, String constraintName) {
+        String expected = constraintName.toLowerCase(Locale.ROOT);
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && contains(violation.getConstraintName(), expected))
+                return true;
+            if (contains(cause.getMessage(), expected))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean contains(String text, String expected) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(expected);
+    }
+
+}
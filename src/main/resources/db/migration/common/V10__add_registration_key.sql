@@ -0,0 +1,3 @@
+-- The client's Idempotency-Key for a registration still in flight. Only a retry carrying the
+-- same key may resume it; cleared once the registration completes.
+ALTER TABLE users ADD COLUMN registration_key VARCHAR(64);
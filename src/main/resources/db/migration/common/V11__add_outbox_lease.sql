@@ -0,0 +1,3 @@
+-- Messages claimed by a relay are leased rather than locked, so the relay publishes outside any transaction.
+-- A lease left behind by a relay that stopped expires, and its messages are claimed again.
+ALTER TABLE outbox_messages ADD COLUMN claimed_until TIMESTAMP(6) WITH TIME ZONE;
@@ -0,0 +1,7 @@
+-- Serve the keyset-paginated admin listing, ordered by (created_at, id), and its filters.
+-- Databases baselined at V1 never ran that script, so the indexes are created here for every database.
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_users_status_created_at_id ON users (status, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_users_country_created_at_id ON users (country, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_users_email_verified_created_at_id ON users (is_email_verified, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_users_last_active ON users (last_active);
@@ -0,0 +1,4 @@
+-- Emails are stored lowercased from now on, so uk_users_email rejects addresses differing only in case.
+-- Fails on the unique constraint if two existing users differ only in the case of their email;
+-- such accounts must be merged or renamed before this migration can run.
+UPDATE users SET email = LOWER(TRIM(email)) WHERE email <> LOWER(TRIM(email));
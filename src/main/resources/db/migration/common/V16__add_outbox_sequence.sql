@@ -0,0 +1,4 @@
+-- The relay scans the outbox in seq order, drawn by the database on insert, instead of by the time-ordered id,
+-- which comes from the clock of whichever instance wrote the message. Waiting rows are numbered in no set order.
+ALTER TABLE outbox_messages ADD COLUMN seq BIGINT GENERATED BY DEFAULT AS IDENTITY;
+CREATE UNIQUE INDEX uk_outbox_messages_seq ON outbox_messages (seq);
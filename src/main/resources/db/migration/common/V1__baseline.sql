@@ -0,0 +1,31 @@
+-- Schema as previously generated by Hibernate (ddl-auto: update).
+-- Existing databases are baselined at this version instead of running it.
+
+CREATE TABLE users (
+    id                UUID                        NOT NULL,
+    first_name        VARCHAR(255)                NOT NULL,
+    last_name         VARCHAR(255)                NOT NULL,
+    email             VARCHAR(255)                NOT NULL,
+    country           VARCHAR(255)                NOT NULL,
+    is_email_verified BOOLEAN                     NOT NULL,
+    status            VARCHAR(255)                NOT NULL,
+    roles             VARCHAR(255),
+    authorities       VARCHAR(255),
+    created_at        TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    last_active       TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE addresses (
+    id           UUID         NOT NULL,
+    user_id      UUID         NOT NULL,
+    address_type VARCHAR(255) NOT NULL,
+    street_1     VARCHAR(255) NOT NULL,
+    street_2     VARCHAR(255),
+    city         VARCHAR(255) NOT NULL,
+    county       VARCHAR(255),
+    country      VARCHAR(255) NOT NULL,
+    postcode     VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_addresses PRIMARY KEY (id)
+);
@@ -0,0 +1,13 @@
+-- Replaces the comma-separated roles and authorities with integer bitmasks.
+-- Bits follow BitFlag#bit(): UserRole USER = 0, ADMIN = 1; UserAuthority MANAGE_SETTINGS = 0.
+
+ALTER TABLE users ADD COLUMN roles_mask INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN authorities_mask INTEGER DEFAULT 0 NOT NULL;
+
+UPDATE users SET
+    roles_mask = CASE WHEN ',' || roles || ',' LIKE '%,USER,%' THEN 1 ELSE 0 END
+               + CASE WHEN ',' || roles || ',' LIKE '%,ADMIN,%' THEN 2 ELSE 0 END,
+    authorities_mask = CASE WHEN ',' || authorities || ',' LIKE '%,MANAGE_SETTINGS,%' THEN 1 ELSE 0 END;
+
+ALTER TABLE users DROP COLUMN roles;
+ALTER TABLE users DROP COLUMN authorities;
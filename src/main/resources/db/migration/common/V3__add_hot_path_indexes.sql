@@ -0,0 +1,2 @@
+-- Serves findAllByUserId, existsByUserIdAndAddressType and deleteAllByUserId.
+CREATE INDEX idx_addresses_user_id_address_type ON addresses (user_id, address_type);
@@ -0,0 +1,5 @@
+-- One address of each type per user, enforced by the database instead of an exists query before each write.
+-- The constraint's backing index covers (user_id, address_type) lookups, so the plain index is redundant.
+ALTER TABLE addresses ADD CONSTRAINT uk_addresses_user_id_address_type UNIQUE (user_id, address_type);
+
+DROP INDEX idx_addresses_user_id_address_type;
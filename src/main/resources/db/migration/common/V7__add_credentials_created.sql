@@ -0,0 +1,3 @@
+-- Registration commits the user before its credentials are created on the identity service.
+-- The flag marks registrations still in flight; every existing user already has credentials.
+ALTER TABLE users ADD COLUMN credentials_created BOOLEAN DEFAULT TRUE NOT NULL;
@@ -0,0 +1,11 @@
+-- Messages written in the same transaction as the change they announce, and published to RabbitMQ by the outbox relay.
+-- Ids are time-ordered, so the primary key also serves the relay's oldest-first scan.
+CREATE TABLE outbox_messages (
+    id           UUID                        NOT NULL,
+    routing_key  VARCHAR(255)                NOT NULL,
+    message_type VARCHAR(64)                 NOT NULL,
+    type_id      VARCHAR(255),
+    payload      TEXT                        NOT NULL,
+    created_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_outbox_messages PRIMARY KEY (id)
+);
@@ -0,0 +1,5 @@
+-- Matches H2's built-in BITAND, so role filters can test a mask bit with the same SQL on both databases.
+-- A plain SQL function that is IMMUTABLE is inlined by the planner, so it costs no more than the & operator.
+CREATE FUNCTION bitand(a INTEGER, b INTEGER) RETURNS INTEGER
+    LANGUAGE SQL IMMUTABLE STRICT PARALLEL SAFE
+    AS 'SELECT a & b';
@@ -0,0 +1,6 @@
+-- Serves the admin listing filtered by the ADMIN role (bit 1, mask 2) in keyset order. Admins are few,
+-- so only their rows are indexed. USER is held by nearly every user and needs no index of its own:
+-- walking idx_users_created_at_id and filtering finds a page of matches within about a page of rows.
+-- A new rare role needs its own partial index; the predicate must repeat the filter's SQL exactly.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_role_admin_created_at_id
+    ON users (created_at, id) WHERE bitand(roles_mask, 2) <> 0;
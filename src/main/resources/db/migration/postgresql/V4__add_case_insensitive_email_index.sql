@@ -0,0 +1,3 @@
+-- Serves the IgnoreCase email lookups, which compare upper(email) = upper(?).
+-- Built concurrently so the users table stays writable; Flyway runs this script outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_upper ON users (upper(email));
@@ -0,0 +1,22 @@
+-- Databases baselined from a Hibernate-generated schema carry the email unique constraint under a generated name.
+-- Violations are translated by constraint name, so give it the name the application expects.
+DO $$
+DECLARE
+    existing_name TEXT;
+BEGIN
+    SELECT c.conname INTO existing_name
+    FROM pg_constraint c
+    JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+    WHERE c.conrelid = 'users'::regclass
+      AND c.contype = 'u'
+      AND array_length(c.conkey, 1) = 1
+      AND a.attname = 'email'
+    LIMIT 1;
+
+    IF existing_name IS NULL THEN
+        ALTER TABLE users ADD CONSTRAINT uk_users_email UNIQUE (email);
+    ELSIF existing_name <> 'uk_users_email' THEN
+        EXECUTE format('ALTER TABLE users RENAME CONSTRAINT %I TO uk_users_email', existing_name);
+    END IF;
+END
+$$;
@@ -0,0 +1,2 @@
+-- Serves the sweep of abandoned registrations; only the few rows still in flight are indexed.
+CREATE INDEX idx_users_incomplete_registrations ON users (created_at) WHERE credentials_created = FALSE;
@@ -0,0 +1,162 @@
+package com.mariuszilinskas.streamix.users.account.cache;
+
+import com.mariuszilinskas.streamix.users.account.datasource.ReadYourWritesWindow;
+import com.mariuszilinskas.streamix.users.account.dto.AuthDetailsResponse;
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+import com.mariuszilinskas.streamix.users.account.exception.ResourceNotFoundException;
+import com.mariuszilinskas.streamix.users.account.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthDetailsCacheTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final String email = "john@example.com";
+    private final AtomicInteger loads = new AtomicInteger();
+    private final ReadYourWritesWindow readYourWritesWindow =
+            new ReadYourWritesWindow("jdbc:h2:mem:replica", Duration.ofMinutes(1), 100);
+    private AuthDetailsCache authDetailsCache;
+    private AuthDetailsResponse authDetails;
+
+    @BeforeEach
+    void setUp() {
+        authDetailsCache = new AuthDetailsCache(Duration.ofMinutes(5), 100, readYourWritesWindow);
+        authDetails = new AuthDetailsResponse(
+                userId, new ArrayList<>(List.of(UserRole.USER)), new ArrayList<>(), UserStatus.ACTIVE);
+    }
+
+    private <K> Function<K, AuthDetailsResponse> countingLoader() {
+        return key -> {
+            loads.incrementAndGet();
+            return authDetails;
+        };
+    }
+
+    @Test
+    void testGetByUserId_LoadsOnce() {
+        // Act
+        authDetailsCache.getByUserId(userId, countingLoader());
+        AuthDetailsResponse response = authDetailsCache.getByUserId(userId, countingLoader());
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(userId, response.userId());
+        assertEquals(authDetails.roles(), response.roles());
+    }
+
+    @Test
+    void testGetByEmail_SharesEntryWithUserId() {
+        // Act
+        authDetailsCache.getByEmail(email, countingLoader());
+        authDetailsCache.getByEmail(email, countingLoader());
+        authDetailsCache.getByUserId(userId, countingLoader());
+
+        // Assert
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testEvict_ReloadsForBothKeys() {
+        // Arrange
+        authDetailsCache.getByEmail(email, countingLoader());
+
+        // Act
+        authDetailsCache.evict(userId);
+        authDetailsCache.getByUserId(userId, countingLoader());
+        authDetailsCache.evict(userId);
+        authDetailsCache.getByEmail(email, countingLoader());
+
+        // Assert
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void testEvictEmail_ReloadsByEmail() {
+        // Arrange
+        authDetailsCache.getByEmail(email, countingLoader());
+
+        // Act
+        authDetailsCache.evictEmail(email);
+        authDetailsCache.getByEmail(email, countingLoader());
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGetByUserId_DoesNotCacheFailures() {
+        // Arrange
+        Function<UUID, AuthDetailsResponse> failingLoader = id -> {
+            loads.incrementAndGet();
+            throw new ResourceNotFoundException(User.class, "id", id);
+        };
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> authDetailsCache.getByUserId(userId, failingLoader));
+        assertThrows(ResourceNotFoundException.class, () -> authDetailsCache.getByUserId(userId, failingLoader));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testCachedEntry_IsNotAffectedBySourceMutation() {
+        // Act
+        authDetailsCache.getByUserId(userId, countingLoader());
+        authDetails.roles().add(UserRole.ADMIN);
+        AuthDetailsResponse response = authDetailsCache.getByUserId(userId, countingLoader());
+
+        // Assert
+        assertEquals(List.of(UserRole.USER), response.roles());
+    }
+
+    @Test
+    void testGetByUserId_DoesNotCacheRecentlyWrittenUser() {
+        // Arrange
+        readYourWritesWindow.recordWrite(userId);
+
+        // Act
+        authDetailsCache.getByUserId(userId, countingLoader());
+        authDetailsCache.getByUserId(userId, countingLoader());
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGetByEmail_DoesNotCacheRecentlyWrittenUser() {
+        // Arrange
+        readYourWritesWindow.recordWrite(userId);
+
+        // Act
+        authDetailsCache.getByEmail(email, countingLoader());
+        authDetailsCache.getByEmail(email, countingLoader());
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testBindTo_RegistersCacheMetrics() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        authDetailsCache.bindTo(registry);
+        authDetailsCache.getByUserId(userId, countingLoader());
+        authDetailsCache.getByUserId(userId, countingLoader());
+
+        // Assert
+        assertEquals(1.0, registry.get("cache.gets")
+                .tag("cache", "authDetailsByUserId").tag("result", "hit").functionCounter().count());
+        assertNotNull(registry.get("cache.evictions").tag("cache", "authDetailsByUserId").functionCounter());
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.mariuszilinskas.streamix.users.account.cache;
+
+import com.mariuszilinskas.streamix.users.account.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailBloomFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private EmailBloomFilter emailBloomFilter;
+
+    @BeforeEach
+    void setUp() {
+        emailBloomFilter = new EmailBloomFilter(userRepository, 1000, 0.01, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubEmails(String... emails) {
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(0);
+            List.of(emails).forEach(consumer);
+            return null;
+        }).when(userRepository).forEachEmail(any(Consumer.class));
+    }
+
+    @Test
+    void testMightContain_BeforeFirstBuild() {
+        // Act & Assert
+        assertTrue(emailBloomFilter.mightContain("john@example.com"));
+    }
+
+    @Test
+    void testRebuild_LoadsNormalizedEmails() {
+        // Arrange
+        stubEmails("john@example.com");
+
+        // Act
+        emailBloomFilter.rebuild();
+
+        // Assert
+        assertTrue(emailBloomFilter.mightContain(" John@Example.com"));
+        assertFalse(emailBloomFilter.mightContain("jane@example.com"));
+    }
+
+    @Test
+    void testAdd_VisibleWithoutRebuild() {
+        // Arrange
+        stubEmails();
+        emailBloomFilter.rebuild();
+
+        // Act
+        emailBloomFilter.add("jane@example.com");
+
+        // Assert
+        assertTrue(emailBloomFilter.mightContain("jane@example.com"));
+    }
+
+    @Test
+    void testRebuild_PicksUpEmailsWrittenElsewhere() {
+        // Arrange
+        stubEmails("john@example.com");
+        emailBloomFilter.rebuild();
+        stubEmails("john@example.com", "jane@example.com");
+
+        // Act
+        emailBloomFilter.rebuild();
+
+        // Assert
+        assertTrue(emailBloomFilter.mightContain("jane@example.com"));
+        verify(userRepository, times(2)).forEachEmail(any());
+    }
+
+    @Test
+    void testRecordMissedEmail_AddsEmail() {
+        // Arrange
+        stubEmails();
+        emailBloomFilter.rebuild();
+
+        // Act
+        emailBloomFilter.recordMissedEmail("Jane@Example.com");
+
+        // Assert
+        assertTrue(emailBloomFilter.mightContain("jane@example.com"));
+    }
+
+    @Test
+    void testRebuild_KeepsPreviousFilterOnFailure() {
+        // Arrange
+        stubEmails("john@example.com");
+        emailBloomFilter.rebuild();
+        emailBloomFilter.recordRemoval();
+        doThrow(new RuntimeException("Connection refused")).when(userRepository).forEachEmail(any());
+
+        // Act
+        emailBloomFilter.rebuild();
+
+        // Assert
+        assertTrue(emailBloomFilter.mightContain("john@example.com"));
+        assertFalse(emailBloomFilter.mightContain("jane@example.com"));
+    }
+
+    @Test
+    void testBindTo_RegistersMetrics() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        emailBloomFilter.bindTo(registry);
+        stubEmails("john@example.com");
+        emailBloomFilter.rebuild();
+
+        // Act
+        emailBloomFilter.mightContain("jane@example.com");
+        emailBloomFilter.recordFalsePositive();
+        emailBloomFilter.recordMissedEmail("jane@example.com");
+
+        // Assert
+        assertEquals(1.0, registry.get("account.email.filter.negatives").tag("mode", "hint").functionCounter().count());
+        assertEquals(1.0, registry.get("account.email.filter.false.positives").functionCounter().count());
+        assertEquals(1.0, registry.get("account.email.filter.missed").functionCounter().count());
+        assertTrue(registry.get("account.email.filter.memory").gauge().value() > 0);
+        assertTrue(registry.get("account.email.filter.expected.fpp").gauge().value() > 0);
+    }
+
+}
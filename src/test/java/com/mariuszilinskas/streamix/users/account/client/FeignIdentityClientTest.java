@@ -0,0 +1,77 @@
+package com.mariuszilinskas.streamix.users.account.client;
+
+import com.mariuszilinskas.streamix.users.account.dto.CredentialsRequest;
+import com.mariuszilinskas.streamix.users.account.dto.VerifyPasswordRequest;
+import com.mariuszilinskas.streamix.users.account.exception.CreateCredentialsException;
+import com.mariuszilinskas.streamix.users.account.exception.PasswordValidationException;
+import com.mariuszilinskas.streamix.users.account.util.TestUtils;
+import feign.FeignException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FeignIdentityClientTest {
+
+    @Mock
+    private IdentityFeignClient identityFeignClient;
+
+    @InjectMocks
+    private FeignIdentityClient identityClient;
+
+    private final FeignException feignException = TestUtils.createFeignException();
+    private final UUID userId = UUID.randomUUID();
+    private final CredentialsRequest credentialsRequest =
+            new CredentialsRequest(userId, "John", "john@example.com", "Password1!");
+    private final VerifyPasswordRequest passwordRequest = new VerifyPasswordRequest(userId, "Password1!");
+
+    @Test
+    void testCreateCredentials_Success() {
+        // Arrange
+        when(identityFeignClient.createCredentials(credentialsRequest)).thenReturn(null);
+
+        // Act
+        identityClient.createCredentials(credentialsRequest);
+
+        // Assert
+        verify(identityFeignClient, times(1)).createCredentials(credentialsRequest);
+    }
+
+    @Test
+    void testCreateCredentials_FeignException() {
+        // Arrange
+        doThrow(feignException).when(identityFeignClient).createCredentials(credentialsRequest);
+
+        // Act & Assert
+        assertThrows(CreateCredentialsException.class, () -> identityClient.createCredentials(credentialsRequest));
+    }
+
+    @Test
+    void testVerifyPassword_Success() {
+        // Arrange
+        when(identityFeignClient.verifyPassword(passwordRequest)).thenReturn(null);
+
+        // Act
+        identityClient.verifyPassword(passwordRequest);
+
+        // Assert
+        verify(identityFeignClient, times(1)).verifyPassword(passwordRequest);
+    }
+
+    @Test
+    void testVerifyPassword_FeignException() {
+        // Arrange
+        doThrow(feignException).when(identityFeignClient).verifyPassword(passwordRequest);
+
+        // Act & Assert
+        assertThrows(PasswordValidationException.class, () -> identityClient.verifyPassword(passwordRequest));
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.mariuszilinskas.streamix.users.account.client;
+
+import com.mariuszilinskas.streamix.users.account.dto.CredentialsRequest;
+import com.mariuszilinskas.streamix.users.account.dto.VerifyPasswordRequest;
+import com.mariuszilinskas.streamix.users.account.exception.CreateCredentialsException;
+import com.mariuszilinskas.streamix.users.account.exception.PasswordValidationException;
+import com.mariuszilinskas.streamix.users.account.grpc.IdentityProto;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the gRPC identity client against the in-process identity stub.
+ */
+public class GrpcIdentityClientTest {
+
+    private IdentityGrpcStub identityStub;
+    private ManagedChannel channel;
+    private GrpcIdentityClient identityClient;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        String name = "identity-" + UUID.randomUUID();
+        identityStub = IdentityGrpcStub.inProcess(name);
+        channel = InProcessChannelBuilder.forName(name).build();
+        identityClient = new GrpcIdentityClient(channel, Duration.ofSeconds(5), Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        identityStub.close();
+    }
+
+    @Test
+    void testCreateCredentials_SendsRequest() {
+        // Arrange
+        var request = new CredentialsRequest(userId, "John", "john@example.com", "Password1!");
+
+        // Act
+        identityClient.createCredentials(request);
+
+        // Assert
+        var expected = IdentityProto.CreateCredentialsRequest.newBuilder()
+                .setUserId(userId.toString())
+                .setFirstName("John")
+                .setEmail("john@example.com")
+                .setPassword("Password1!")
+                .build();
+        assertEquals(1, identityStub.calls());
+        assertEquals(expected, identityStub.lastRequest());
+    }
+
+    @Test
+    void testCreateCredentials_ServiceFails() {
+        // Arrange
+        var request = new CredentialsRequest(userId, "John", "john@example.com", "Password1!");
+        identityStub.failWith(Status.UNAVAILABLE);
+
+        // Act & Assert
+        assertThrows(CreateCredentialsException.class, () -> identityClient.createCredentials(request));
+    }
+
+    @Test
+    void testVerifyPassword_Success() {
+        // Act
+        identityClient.verifyPassword(new VerifyPasswordRequest(userId, "Password1!"));
+
+        // Assert
+        var expected = IdentityProto.VerifyPasswordRequest.newBuilder()
+                .setUserId(userId.toString())
+                .setPassword("Password1!")
+                .build();
+        assertEquals(1, identityStub.calls());
+        assertEquals(expected, identityStub.lastRequest());
+    }
+
+    @Test
+    void testVerifyPassword_WrongPassword() {
+        // Arrange
+        identityStub.failWith(Status.UNAUTHENTICATED);
+
+        // Act & Assert
+        assertThrows(PasswordValidationException.class,
+                () -> identityClient.verifyPassword(new VerifyPasswordRequest(userId, "wrongPassword")));
+    }
+
+    @Test
+    void testVerifyPassword_DeadlineExceeded() {
+        // Arrange
+        identityStub.delay(Duration.ofSeconds(1));
+
+        // Act & Assert
+        assertThrows(PasswordValidationException.class,
+                () -> identityClient.verifyPassword(new VerifyPasswordRequest(userId, "Password1!")));
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.mariuszilinskas.streamix.users.account.client;
+
+import com.mariuszilinskas.streamix.users.account.grpc.IdentityProto;
+import com.mariuszilinskas.streamix.users.account.grpc.IdentityServiceGrpc;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for the identity service's gRPC API, for tests and benchmarks. Answers every call
+ * with success unless told to fail, optionally after a delay, and keeps the last request it got.
+ *
+ * @author Marius Zilinskas
+ */
+public class IdentityGrpcStub extends IdentityServiceGrpc.IdentityServiceImplBase implements AutoCloseable {
+
+    private final Server server;
+    private final AtomicLong calls = new AtomicLong();
+    private volatile Object lastRequest;
+    private volatile Status failure;
+    private volatile Duration delay = Duration.ZERO;
+
+    private IdentityGrpcStub(ServerBuilder<?> serverBuilder) {
+        try {
+            this.server = serverBuilder.addService(this).build().start();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Starts the stub in-process, reachable through {@code InProcessChannelBuilder.forName(name)}.
+     */
+    public static IdentityGrpcStub inProcess(String name) {
+        return new IdentityGrpcStub(InProcessServerBuilder.forName(name));
+    }
+
+    /**
+     * Starts the stub on a free loopback port, reachable over plaintext HTTP/2.
+     */
+    public static IdentityGrpcStub onLoopback() {
+        return new IdentityGrpcStub(Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create()));
+    }
+
+    public int port() {
+        return server.getPort();
+    }
+
+    public long calls() {
+        return calls.get();
+    }
+
+    public Object lastRequest() {
+        return lastRequest;
+    }
+
+    public void failWith(Status status) {
+        this.failure = status;
+    }
+
+    public void delay(Duration delay) {
+        this.delay = delay;
+    }
+
+    @Override
+    public void createCredentials(IdentityProto.CreateCredentialsRequest request,
+                                  StreamObserver<IdentityProto.CreateCredentialsResponse> responseObserver) {
+        record(request);
+        respond(responseObserver, IdentityProto.CreateCredentialsResponse.getDefaultInstance());
+    }
+
+    @Override
+    public void verifyPassword(IdentityProto.VerifyPasswordRequest request,
+                               StreamObserver<IdentityProto.VerifyPasswordResponse> responseObserver) {
+        record(request);
+        respond(responseObserver, IdentityProto.VerifyPasswordResponse.getDefaultInstance());
+    }
+
+    private void record(Object request) {
+        lastRequest = request;
+        calls.incrementAndGet();
+    }
+
+    private <T> void respond(StreamObserver<T> responseObserver, T response) {
+        try {
+            if (!delay.isZero())
+                Thread.sleep(delay.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        Status status = failure;
+        if (status != null) {
+            responseObserver.onError(status.asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void close() {
+        server.shutdownNow();
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.mariuszilinskas.streamix.users.account.client;
+
+import com.mariuszilinskas.streamix.users.account.dto.VerifyPasswordRequest;
+import feign.Client;
+import feign.Feign;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MethodTimeoutsCapabilityTest {
+
+    @Mock
+    private Client client;
+
+    @Mock
+    private Response response;
+
+    private final Request.Options clientOptions = new Request.Options(Duration.ofSeconds(10), Duration.ofSeconds(60), true);
+    private final Request.Options verifyPasswordOptions = new Request.Options(Duration.ofSeconds(1), Duration.ofSeconds(3), true);
+
+    private Request createRequest(String methodName) {
+        List<MethodMetadata> metadata = new SpringMvcContract().parseAndValidateMetadata(IdentityFeignClient.class);
+        RequestTemplate template = metadata.stream()
+                .filter(method -> method.method().getName().equals(methodName))
+                .findFirst()
+                .orElseThrow()
+                .template();
+        return Request.create(Request.HttpMethod.PUT, "http://auth-identity", Collections.emptyMap(), null, template);
+    }
+
+    private String configKey(String methodName) {
+        return new SpringMvcContract().parseAndValidateMetadata(IdentityFeignClient.class).stream()
+                .filter(method -> method.method().getName().equals(methodName))
+                .findFirst()
+                .orElseThrow()
+                .configKey();
+    }
+
+    @Test
+    void testEnrich_UsesMethodOptions() throws IOException {
+        // Arrange
+        MethodTimeoutsCapability capability =
+                new MethodTimeoutsCapability(Map.of(configKey("verifyPassword"), verifyPasswordOptions));
+        Request request = createRequest("verifyPassword");
+        when(client.execute(request, verifyPasswordOptions)).thenReturn(response);
+
+        // Act
+        capability.enrich(client).execute(request, clientOptions);
+
+        // Assert
+        verify(client, times(1)).execute(request, verifyPasswordOptions);
+    }
+
+    @Test
+    void testEnrich_FallsBackToClientOptions() throws IOException {
+        // Arrange
+        MethodTimeoutsCapability capability =
+                new MethodTimeoutsCapability(Map.of(configKey("verifyPassword"), verifyPasswordOptions));
+        Request request = createRequest("createCredentials");
+        when(client.execute(request, clientOptions)).thenReturn(response);
+
+        // Act
+        capability.enrich(client).execute(request, clientOptions);
+
+        // Assert
+        verify(client, times(1)).execute(request, clientOptions);
+    }
+
+    @Test
+    void testConfigKey_MatchesFeignConfigKey() throws NoSuchMethodException {
+        // Act
+        String expected = Feign.configKey(IdentityFeignClient.class,
+                IdentityFeignClient.class.getMethod("verifyPassword", VerifyPasswordRequest.class));
+
+        // Assert
+        assertEquals(expected, configKey("verifyPassword"));
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.mariuszilinskas.streamix.users.account.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataSourceRoutingConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+            .withUserConfiguration(DataSourceRoutingConfig.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:h2:mem:routing-primary",
+                    "spring.datasource.hikari.pool-name=primary",
+                    "spring.datasource.hikari.maximum-pool-size=3",
+                    "spring.datasource.hikari.connection-timeout=1500",
+                    "account.datasource.replica-urls=jdbc:h2:mem:routing-replica"
+            );
+
+    @Test
+    void testPrimaryPool_BoundToHikariProperties() {
+        contextRunner.run(context -> {
+            // Act
+            HikariDataSource primary = context.getBean("primaryDataSource", HikariDataSource.class);
+
+            // Assert
+            assertEquals("primary", primary.getPoolName());
+            assertEquals(3, primary.getMaximumPoolSize());
+            assertEquals(1500, primary.getConnectionTimeout());
+            assertEquals("jdbc:h2:mem:routing-primary", primary.getJdbcUrl());
+            assertInstanceOf(LazyConnectionDataSourceProxy.class, context.getBean(DataSource.class));
+        });
+    }
+
+}
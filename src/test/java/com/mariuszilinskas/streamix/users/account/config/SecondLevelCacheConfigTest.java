@@ -0,0 +1,45 @@
+package com.mariuszilinskas.streamix.users.account.config;
+
+import com.mariuszilinskas.streamix.users.account.constant.CacheRegions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import javax.cache.CacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts two contexts side by side in one JVM, as the test context cache does.
+ */
+public class SecondLevelCacheConfigTest {
+
+    private AnnotationConfigApplicationContext createContext() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.register(SecondLevelCacheConfig.class);
+        context.refresh();
+        return context;
+    }
+
+    @Test
+    void testSecondLevelCacheManager_OnePerContext() {
+        // Arrange
+        AnnotationConfigApplicationContext first = createContext();
+
+        try (AnnotationConfigApplicationContext second = createContext()) {
+            CacheManager firstManager = first.getBean(CacheManager.class);
+            CacheManager secondManager = second.getBean(CacheManager.class);
+
+            // Act
+            first.close();
+
+            // Assert
+            assertNotSame(firstManager, secondManager);
+            assertTrue(firstManager.isClosed());
+            assertFalse(secondManager.isClosed());
+            assertNotNull(secondManager.getCache(CacheRegions.USERS));
+        }
+    }
+
+}
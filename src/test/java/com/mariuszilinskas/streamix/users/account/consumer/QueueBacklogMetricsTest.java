@@ -0,0 +1,87 @@
+package com.mariuszilinskas.streamix.users.account.consumer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+
+import java.net.ConnectException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class QueueBacklogMetricsTest {
+
+    @Mock
+    private AmqpAdmin amqpAdmin;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private QueueBacklogMetrics queueBacklogMetrics;
+
+    @BeforeEach
+    void setUp() {
+        queueBacklogMetrics = new QueueBacklogMetrics(amqpAdmin, "verify-account", "update-last-active");
+        queueBacklogMetrics.bindTo(registry);
+    }
+
+    private double gauge(String name, String queue) {
+        return registry.get(name).tag("queue", queue).gauge().value();
+    }
+
+    @Test
+    void testBindTo_UnknownBeforeFirstPoll() {
+        // Assert
+        assertTrue(Double.isNaN(gauge("account.rabbitmq.queue.backlog", "verify-account")));
+        assertTrue(Double.isNaN(gauge("account.rabbitmq.queue.consumers", "update-last-active")));
+    }
+
+    @Test
+    void testPoll_ReportsBacklogAndConsumers() {
+        // Arrange
+        when(amqpAdmin.getQueueInfo("verify-account")).thenReturn(new QueueInformation("verify-account", 12, 2));
+        when(amqpAdmin.getQueueInfo("update-last-active")).thenReturn(new QueueInformation("update-last-active", 3400, 1));
+
+        // Act
+        queueBacklogMetrics.poll();
+
+        // Assert
+        assertEquals(12, gauge("account.rabbitmq.queue.backlog", "verify-account"));
+        assertEquals(2, gauge("account.rabbitmq.queue.consumers", "verify-account"));
+        assertEquals(3400, gauge("account.rabbitmq.queue.backlog", "update-last-active"));
+    }
+
+    @Test
+    void testPoll_BrokerUnavailable() {
+        // Arrange
+        when(amqpAdmin.getQueueInfo("verify-account")).thenReturn(new QueueInformation("verify-account", 12, 2));
+        when(amqpAdmin.getQueueInfo("update-last-active")).thenReturn(new QueueInformation("update-last-active", 5, 1));
+        queueBacklogMetrics.poll();
+        when(amqpAdmin.getQueueInfo(anyString())).thenThrow(new AmqpConnectException(new ConnectException("Connection refused")));
+
+        // Act
+        queueBacklogMetrics.poll();
+
+        // Assert
+        assertTrue(Double.isNaN(gauge("account.rabbitmq.queue.backlog", "verify-account")));
+        assertTrue(Double.isNaN(gauge("account.rabbitmq.queue.backlog", "update-last-active")));
+    }
+
+    @Test
+    void testConstructor_SameQueueRegisteredOnce() {
+        // Arrange
+        SimpleMeterRegistry sharedRegistry = new SimpleMeterRegistry();
+
+        // Act
+        new QueueBacklogMetrics(amqpAdmin, "dummy-queue", "dummy-queue").bindTo(sharedRegistry);
+
+        // Assert
+        assertEquals(1, sharedRegistry.find("account.rabbitmq.queue.backlog").gauges().size());
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.mariuszilinskas.streamix.users.account.consumer;
+
+import com.mariuszilinskas.streamix.users.account.cache.AuthDetailsCache;
+import com.mariuszilinskas.streamix.users.account.cache.EmailBloomFilter;
+import com.mariuszilinskas.streamix.users.account.client.IdentityClient;
+import com.mariuszilinskas.streamix.users.account.datasource.ReadYourWritesWindow;
+import com.mariuszilinskas.streamix.users.account.dto.UserLastActiveMessage;
+import com.mariuszilinskas.streamix.users.account.producer.RabbitMQProducer;
+import com.mariuszilinskas.streamix.users.account.service.LastActiveTracker;
+import com.mariuszilinskas.streamix.users.account.service.UserServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs batches of lastActive messages through the consumer into the Flyway-migrated H2 schema,
+ * as a broker would deliver them: out of order, duplicated and redelivered.
+ */
+@DataJpaTest
+@Import({RabbitMQConsumer.class, UserServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RabbitMQConsumerTest {
+
+    @MockitoBean
+    private IdentityClient identityClient;
+
+    @MockitoBean
+    private RabbitMQProducer rabbitMQProducer;
+
+    @MockitoBean
+    private AuthDetailsCache authDetailsCache;
+
+    @MockitoBean
+    private LastActiveTracker lastActiveTracker;
+
+    @MockitoBean
+    private EmailBloomFilter emailBloomFilter;
+
+    @MockitoBean
+    private ReadYourWritesWindow readYourWritesWindow;
+
+    @Autowired
+    private RabbitMQConsumer rabbitMQConsumer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID otherUserId = UUID.randomUUID();
+    private final OffsetDateTime stored = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MILLIS);
+
+    @BeforeEach
+    void setUp() {
+        insertUser(userId, "john@example.com");
+        insertUser(otherUserId, "jane@example.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    private void insertUser(UUID id, String email) {
+        jdbcTemplate.update("INSERT INTO users (id, first_name, last_name, email, country, " +
+                "is_email_verified, status, roles_mask, authorities_mask, created_at, last_active) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                id, "John", "Doe", email, "UK", true, "ACTIVE", 1, 0, stored, stored);
+    }
+
+    private Instant lastActive(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT last_active FROM users WHERE id = ?", OffsetDateTime.class, id)
+                .toInstant();
+    }
+
+    private UserLastActiveMessage message(UUID id, long minutesFromStored) {
+        return new UserLastActiveMessage(id, stored.plusMinutes(minutesFromStored).toZonedDateTime());
+    }
+
+    @Test
+    void testConsumeUpdateLastActiveMessages_KeepsLatestOfOutOfOrderAndDuplicateMessages() {
+        // Arrange
+        List<UserLastActiveMessage> batch = List.of(
+                message(userId, 20),
+                message(userId, 10),
+                message(userId, 20),
+                message(otherUserId, -10),
+                message(otherUserId, -10)
+        );
+
+        // Act
+        rabbitMQConsumer.consumeUpdateLastActiveMessages(batch);
+
+        // Assert
+        assertEquals(stored.plusMinutes(20).toInstant(), lastActive(userId));
+        assertEquals(stored.toInstant(), lastActive(otherUserId));
+    }
+
+    @Test
+    void testConsumeUpdateLastActiveMessages_LateAndRedeliveredBatchesNeverMoveBack() {
+        // Arrange
+        rabbitMQConsumer.consumeUpdateLastActiveMessages(List.of(message(userId, 30), message(otherUserId, 5)));
+
+        // Act
+        rabbitMQConsumer.consumeUpdateLastActiveMessages(List.of(message(userId, 15), message(otherUserId, 1)));
+        rabbitMQConsumer.consumeUpdateLastActiveMessages(List.of(message(userId, 30), message(otherUserId, 5)));
+
+        // Assert
+        assertEquals(stored.plusMinutes(30).toInstant(), lastActive(userId));
+        assertEquals(stored.plusMinutes(5).toInstant(), lastActive(otherUserId));
+    }
+
+    @Test
+    void testConsumeUpdateLastActiveMessages_SkipsUnknownUsersAndIncompleteMessages() {
+        // Arrange
+        List<UserLastActiveMessage> batch = List.of(
+                message(UUID.randomUUID(), 10),
+                new UserLastActiveMessage(userId, null),
+                new UserLastActiveMessage(null, ZonedDateTime.now()),
+                message(userId, 10)
+        );
+
+        // Act
+        rabbitMQConsumer.consumeUpdateLastActiveMessages(batch);
+
+        // Assert
+        assertEquals(stored.plusMinutes(10).toInstant(), lastActive(userId));
+    }
+
+    @Test
+    void testConsumeUpdateLastActiveMessage_BatchWithDeletedUserIsStillApplied() {
+        // Arrange
+        UUID deletedUserId = UUID.randomUUID();
+        insertUser(deletedUserId, "deleted@example.com");
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", deletedUserId);
+
+        // One producer batch, delivered to the listener one update at a time
+        List<UserLastActiveMessage> batch = List.of(
+                message(userId, 10),
+                message(deletedUserId, 10),
+                message(otherUserId, 10)
+        );
+
+        // Act
+        batch.forEach(message -> assertDoesNotThrow(() -> rabbitMQConsumer.consumeUpdateLastActiveMessage(message)));
+
+        // Assert
+        assertEquals(stored.plusMinutes(10).toInstant(), lastActive(userId));
+        assertEquals(stored.plusMinutes(10).toInstant(), lastActive(otherUserId));
+    }
+
+}
@@ -1,19 +1,28 @@
 package com.mariuszilinskas.streamix.users.account.controller;
 
+import com.mariuszilinskas.streamix.users.account.dto.UserAdminFilter;
+import com.mariuszilinskas.streamix.users.account.dto.UserAdminPageResponse;
 import com.mariuszilinskas.streamix.users.account.dto.UserAdminResponse;
+import com.mariuszilinskas.streamix.users.account.enums.ExportFormat;
 import com.mariuszilinskas.streamix.users.account.enums.UserAuthority;
 import com.mariuszilinskas.streamix.users.account.enums.UserRole;
 import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+import com.mariuszilinskas.streamix.users.account.exception.InvalidCursorException;
 import com.mariuszilinskas.streamix.users.account.exception.ResourceNotFoundException;
 import com.mariuszilinskas.streamix.users.account.model.User;
 import com.mariuszilinskas.streamix.users.account.service.UserAdminService;
+import com.mariuszilinskas.streamix.users.account.service.UserExportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,6 +39,9 @@ public class UserAdminControllerTest {
     @MockitoBean
     private UserAdminService userAdminService;
 
+    @MockitoBean
+    private UserExportService userExportService;
+
     private UUID userId;
     private final UUID nonExistentId = UUID.randomUUID();
     private UserAdminResponse userAdminResponse;
@@ -55,13 +67,71 @@ public class UserAdminControllerTest {
     @Test
     void testGetUsers_Success() throws Exception {
         // Arrange
-        when(userAdminService.getUsers()).thenReturn(List.of(userAdminResponse));
+        var noFilter = new UserAdminFilter(null, null, null, null, null, null);
+        var page = new UserAdminPageResponse(List.of(userAdminResponse), "next", null);
+        when(userAdminService.getUsers(noFilter, null, 50, false)).thenReturn(page);
 
         // Act & Assert
         mockMvc.perform(get("/admin/users"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(userId.toString()))
-                .andExpect(jsonPath("$[0].email").value("john@example.com"));
+                .andExpect(jsonPath("$.users[0].id").value(userId.toString()))
+                .andExpect(jsonPath("$.users[0].email").value("john@example.com"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void testGetUsers_WithFilters() throws Exception {
+        // Arrange
+        ZonedDateTime from = ZonedDateTime.parse("2024-01-01T00:00:00Z");
+        var filter = new UserAdminFilter(UserStatus.ACTIVE, UserRole.ADMIN, "UK", true, from, null);
+        var page = new UserAdminPageResponse(List.of(), null, 0L);
+        when(userAdminService.getUsers(filter, "abc", 10, true)).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/admin/users")
+                        .param("cursor", "abc")
+                        .param("limit", "10")
+                        .param("status", "ACTIVE")
+                        .param("role", "ADMIN")
+                        .param("country", "UK")
+                        .param("emailVerified", "true")
+                        .param("lastActiveFrom", "2024-01-01T00:00:00Z")
+                        .param("includeTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(0));
+    }
+
+    @Test
+    void testGetUsers_InvalidCursor() throws Exception {
+        // Arrange
+        when(userAdminService.getUsers(any(), eq("bad"), anyInt(), anyBoolean()))
+                .thenThrow(new InvalidCursorException("bad"));
+
+        // Act & Assert
+        mockMvc.perform(get("/admin/users").param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportUsers_StreamsCsv() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(1);
+            outputStream.write("id,email\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(userExportService).exportUsers(eq(ExportFormat.CSV), any(OutputStream.class));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/admin/users/export").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.csv\""))
+                .andExpect(content().string("id,email\n"));
     }
 
     @Test
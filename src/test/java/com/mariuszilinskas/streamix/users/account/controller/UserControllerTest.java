@@ -15,9 +15,12 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static com.mariuszilinskas.streamix.users.account.constant.RequestValidationMessages.*;
+import static com.mariuszilinskas.streamix.users.account.util.AccountUtils.MAX_BATCH_LOOKUP_SIZE;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -60,7 +63,7 @@ public class UserControllerTest {
     @Test
     void testCreateUser_Success() throws Exception {
         // Arrange
-        when(userService.createUser(any())).thenReturn(userResponse);
+        when(userService.createUser(any(), any())).thenReturn(userResponse);
 
         // Act & Assert
         mockMvc.perform(post("/user/register")
@@ -397,6 +400,68 @@ public class UserControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testGetUsersAuthDetails_Success() throws Exception {
+        // Arrange
+        var request = new BatchAuthDetailsRequest(List.of(userId, nonExistentId), List.of());
+        var response = new BatchAuthDetailsResponse(
+                Map.of(userId.toString(), authDetailsResponse), List.of(nonExistentId.toString()));
+        when(userService.getUsersAuthDetails(request)).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(post("/user/auth-details/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.authDetails['" + userId + "'].status").value("ACTIVE"))
+                .andExpect(jsonPath("$.missing[0]").value(nonExistentId.toString()));
+    }
+
+    @Test
+    void testGetUsersAuthDetails_TooManyIds() throws Exception {
+        // Arrange
+        List<UUID> userIds = Stream.generate(UUID::randomUUID).limit(MAX_BATCH_LOOKUP_SIZE + 1).toList();
+        var invalidRequest = new BatchAuthDetailsRequest(userIds, List.of());
+
+        // Act & Assert
+        mockMvc.perform(post("/user/auth-details/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invalidRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fieldErrors.userIds").value("userIds " + BATCH_TOO_LARGE));
+
+        verify(userService, never()).getUsersAuthDetails(any());
+    }
+
+    @Test
+    void testGetUsers_Success() throws Exception {
+        // Arrange
+        var request = new BatchUserRequest(List.of(userId, nonExistentId));
+        var response = new BatchUserResponse(Map.of(userId, userResponse), List.of(nonExistentId));
+        when(userService.getUsers(request)).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(post("/user/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users['" + userId + "'].email").value("john@example.com"))
+                .andExpect(jsonPath("$.missing[0]").value(nonExistentId.toString()));
+    }
+
+    @Test
+    void testGetUsers_UserIdsNull() throws Exception {
+        // Arrange
+        var invalidRequest = new BatchUserRequest(null);
+
+        // Act & Assert
+        mockMvc.perform(post("/user/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invalidRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fieldErrors.userIds").value("userIds " + CANNOT_BE_NULL));
+    }
+
     @Test
     void testDeleteUser_Success() throws Exception {
         // Act & Assert
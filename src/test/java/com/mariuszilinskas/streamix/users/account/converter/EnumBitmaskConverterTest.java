@@ -0,0 +1,78 @@
+package com.mariuszilinskas.streamix.users.account.converter;
+
+import com.mariuszilinskas.streamix.users.account.enums.BitFlag;
+import com.mariuszilinskas.streamix.users.account.enums.UserAuthority;
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnumBitmaskConverterTest {
+
+    private final UserRoleBitmaskConverter roleConverter = new UserRoleBitmaskConverter();
+    private final UserAuthorityBitmaskConverter authorityConverter = new UserAuthorityBitmaskConverter();
+
+    private enum DuplicateBit implements BitFlag {
+        FIRST, SECOND;
+
+        @Override
+        public int bit() {
+            return 0;
+        }
+    }
+
+    @Test
+    void testConvertToDatabaseColumn_UsesStableBits() {
+        // Act & Assert
+        assertEquals(0, roleConverter.convertToDatabaseColumn(List.of()));
+        assertEquals(0, roleConverter.convertToDatabaseColumn(null));
+        assertEquals(1, roleConverter.convertToDatabaseColumn(List.of(UserRole.USER)));
+        assertEquals(3, roleConverter.convertToDatabaseColumn(List.of(UserRole.ADMIN, UserRole.USER)));
+        assertEquals(1, authorityConverter.convertToDatabaseColumn(List.of(UserAuthority.MANAGE_SETTINGS)));
+    }
+
+    @Test
+    void testConvertToEntityAttribute_ReturnsDeclarationOrder() {
+        // Act
+        List<UserRole> roles = roleConverter.convertToEntityAttribute(3);
+
+        // Assert
+        assertEquals(List.of(UserRole.USER, UserRole.ADMIN), roles);
+        assertTrue(roleConverter.convertToEntityAttribute(0).isEmpty());
+        assertTrue(roleConverter.convertToEntityAttribute(null).isEmpty());
+    }
+
+    @Test
+    void testConvertToEntityAttribute_ResultIsMutable() {
+        // Act
+        List<UserRole> roles = roleConverter.convertToEntityAttribute(1);
+        roles.add(UserRole.ADMIN);
+
+        // Assert
+        assertEquals(3, roleConverter.convertToDatabaseColumn(roles));
+    }
+
+    @Test
+    void testConvertToDatabaseColumn_DropsDuplicates() {
+        // Act
+        int mask = roleConverter.convertToDatabaseColumn(List.of(UserRole.ADMIN, UserRole.ADMIN));
+
+        // Assert
+        assertEquals(List.of(UserRole.ADMIN), roleConverter.convertToEntityAttribute(mask));
+    }
+
+    @Test
+    void testConvertToEntityAttribute_UnknownBit() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> roleConverter.convertToEntityAttribute(1 << 5));
+    }
+
+    @Test
+    void testConstructor_RejectsDuplicateBits() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new EnumBitmaskConverter<>(DuplicateBit.class));
+    }
+
+}
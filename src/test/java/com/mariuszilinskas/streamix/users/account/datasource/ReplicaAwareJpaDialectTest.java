@@ -0,0 +1,134 @@
+package com.mariuszilinskas.streamix.users.account.datasource;
+
+import com.mariuszilinskas.streamix.users.account.config.SecondLevelCacheConfig;
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+import com.mariuszilinskas.streamix.users.account.model.User;
+import com.mariuszilinskas.streamix.users.account.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that read-only transactions routed to a replica read the second-level cache without
+ * populating it, while those served by the primary still do.
+ */
+@DataJpaTest
+@Import({SecondLevelCacheConfig.class, ReplicaAwareJpaDialectTest.DialectConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReplicaAwareJpaDialectTest {
+
+    @TestConfiguration
+    static class DialectConfig {
+
+        @Bean
+        public JpaVendorAdapter jpaVendorAdapter() {
+            ReplicaAwareJpaDialect jpaDialect = new ReplicaAwareJpaDialect();
+            return new HibernateJpaVendorAdapter() {
+                @Override
+                public HibernateJpaDialect getJpaDialect() {
+                    return jpaDialect;
+                }
+            };
+        }
+
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnly;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        User newUser = new User();
+        newUser.setFirstName("John");
+        newUser.setLastName("Doe");
+        newUser.setEmail("john@example.com");
+        newUser.setCountry("United Kingdom");
+        newUser.setStatus(UserStatus.ACTIVE);
+        newUser.setRoles(List.of(UserRole.USER));
+        user = userRepository.save(newUser);
+        entityManagerFactory.getCache().evictAll();
+
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    private boolean isCached() {
+        return entityManagerFactory.getCache().contains(User.class, user.getId());
+    }
+
+    @Test
+    void testReadOnlyTransaction_RoutedToReplica_DoesNotPopulateCache() {
+        // Act
+        User loaded = readOnly.execute(status -> {
+            ReplicaAwareJpaDialect.routedToReplica();
+            return userRepository.findById(user.getId()).orElseThrow();
+        });
+
+        // Assert
+        assertEquals("John", loaded.getFirstName());
+        assertFalse(isCached());
+    }
+
+    @Test
+    void testReadOnlyTransaction_OnPrimary_PopulatesCache() {
+        // Act
+        readOnly.executeWithoutResult(status -> userRepository.findById(user.getId()));
+
+        // Assert
+        assertTrue(isCached());
+    }
+
+    @Test
+    void testReadOnlyTransaction_AfterReplicaRoutedOne_PopulatesCache() {
+        // Arrange
+        readOnly.executeWithoutResult(status -> {
+            ReplicaAwareJpaDialect.routedToReplica();
+            userRepository.findById(user.getId());
+        });
+
+        // Act
+        ReplicaAwareJpaDialect.routedToReplica();
+        readOnly.executeWithoutResult(status -> userRepository.findById(user.getId()));
+
+        // Assert
+        assertTrue(isCached());
+    }
+
+}
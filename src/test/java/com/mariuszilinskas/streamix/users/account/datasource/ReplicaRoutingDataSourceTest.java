@@ -0,0 +1,133 @@
+package com.mariuszilinskas.streamix.users.account.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes transactions across two in-memory H2 databases, a primary and a replica,
+ * each holding a marker row naming the database it lives in.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final ReadYourWritesWindow readYourWritesWindow =
+            new ReadYourWritesWindow("jdbc:h2:mem:replica", Duration.ofMinutes(1), 100);
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private JdbcTemplate routedJdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource primary = createDatabase("primary");
+        JdbcDataSource replica = createDatabase("replica");
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+
+        var routing = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, List.of(replica)));
+        var transactionManager = new DataSourceTransactionManager(routing);
+        routedJdbc = new JdbcTemplate(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primaryJdbc.execute("DROP TABLE marker");
+        replicaJdbc.execute("DROP TABLE marker");
+    }
+
+    private JdbcDataSource createDatabase(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE marker (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private String database() {
+        return routedJdbc.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    @Test
+    void testReadOnlyTransaction_RoutedToReplica() {
+        // Act & Assert
+        assertEquals("replica", readOnly.execute(status -> database()));
+    }
+
+    @Test
+    void testReadWriteTransaction_RoutedToPrimary() {
+        // Act & Assert
+        assertEquals("primary", readWrite.execute(status -> database()));
+    }
+
+    @Test
+    void testNoTransaction_RoutedToPrimary() {
+        // Act & Assert
+        assertEquals("primary", database());
+    }
+
+    @Test
+    void testReadOnlyTransaction_AfterOwnWrite_RoutedToPrimary() {
+        // Arrange
+        readWrite.executeWithoutResult(status -> readYourWritesWindow.recordWrite(userId));
+
+        // Act
+        String pinned = readOnly.execute(status -> {
+            readYourWritesWindow.routeReadsFor(userId);
+            return database();
+        });
+        String other = readOnly.execute(status -> {
+            readYourWritesWindow.routeReadsFor(UUID.randomUUID());
+            return database();
+        });
+
+        // Assert
+        assertEquals("primary", pinned);
+        assertEquals("replica", other);
+        assertFalse(ReadYourWritesWindow.isPinnedToPrimary());
+    }
+
+    @Test
+    void testReadOnlyTransaction_AfterEmailChange_RoutedToPrimaryByEmail() {
+        // Arrange
+        readYourWritesWindow.recordWrite(userId, " John@Example.com");
+
+        // Act
+        String routed = readOnly.execute(status -> {
+            readYourWritesWindow.routeReadsForEmail("john@example.com");
+            return database();
+        });
+
+        // Assert
+        assertEquals("primary", routed);
+    }
+
+    @Test
+    void testWindowDisabledWithoutReplicas() {
+        // Arrange
+        var disabled = new ReadYourWritesWindow("", Duration.ofMinutes(1), 100);
+
+        // Act
+        disabled.recordWrite(userId);
+
+        // Assert
+        assertFalse(disabled.isRecentlyWritten(userId));
+    }
+
+}
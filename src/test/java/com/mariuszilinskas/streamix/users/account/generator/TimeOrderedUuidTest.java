@@ -0,0 +1,102 @@
+package com.mariuszilinskas.streamix.users.account.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeOrderedUuidTest {
+
+    @Test
+    void testNext_IsVersion7WithRfcVariant() {
+        // Act
+        UUID uuid = TimeOrderedUuid.next();
+
+        // Assert
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+    }
+
+    @Test
+    void testNext_EncodesCurrentTimestamp() {
+        // Arrange
+        long before = System.currentTimeMillis();
+
+        // Act
+        UUID uuid = TimeOrderedUuid.next();
+
+        // Assert
+        long timestamp = uuid.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis() + 1,
+                "Unexpected timestamp " + timestamp);
+    }
+
+    @Test
+    void testNext_IsStrictlyIncreasing() {
+        // Arrange
+        UUID previous = TimeOrderedUuid.next();
+
+        // Act & Assert
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = TimeOrderedUuid.next();
+            assertTrue(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0,
+                    previous + " was followed by " + next);
+            previous = next;
+        }
+    }
+
+    @Test
+    void testNext_IsUniqueAcrossThreads() throws Exception {
+        // Arrange
+        int threads = 8;
+        int idsPerThread = 20_000;
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++)
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < idsPerThread; i++)
+                        ids.add(TimeOrderedUuid.next());
+                }));
+            for (Future<?> future : futures)
+                future.get();
+        }
+
+        // Assert
+        assertEquals(threads * idsPerThread, ids.size());
+    }
+
+    @Test
+    void testNext_IsUniqueAcrossVirtualThreads() throws Exception {
+        // Arrange
+        int tasks = 1_000;
+        int idsPerTask = 200;
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < tasks; t++)
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < idsPerTask; i++)
+                        ids.add(TimeOrderedUuid.next());
+                }));
+            for (Future<?> future : futures)
+                future.get();
+        }
+
+        // Assert
+        assertEquals(tasks * idsPerTask, ids.size());
+    }
+
+}
@@ -4,8 +4,10 @@ import com.mariuszilinskas.streamix.users.account.dto.*;
 import com.mariuszilinskas.streamix.users.account.enums.UserRole;
 import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
 import com.mariuszilinskas.streamix.users.account.model.User;
+import com.mariuszilinskas.streamix.users.account.projection.AuthDetailsView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import java.util.List;
 import java.util.UUID;
@@ -41,7 +43,7 @@ public class UserMapperTest {
         );
 
         // Act
-        User createdUser = UserMapper.mapFromCreateRequest(request);
+        User createdUser = UserMapper.mapFromCreateRequest(request, "registration-key");
 
         // Assert
         assertEquals(user.getFirstName(), createdUser.getFirstName());
@@ -50,6 +52,8 @@ public class UserMapperTest {
         assertEquals(user.getCountry(), createdUser.getCountry());
         assertEquals(List.of(UserRole.USER), createdUser.getRoles());
         assertEquals(UserStatus.PENDING, createdUser.getStatus());
+        assertFalse(createdUser.isCredentialsCreated());
+        assertEquals("registration-key", createdUser.getRegistrationKey());
     }
 
     @Test
@@ -62,14 +66,27 @@ public class UserMapperTest {
         var request = new UpdateUserRequest(newFirstName, newLastName, newCountry);
 
         // Act
-        UserMapper.applyUpdates(user, request);
+        boolean changed = UserMapper.applyUpdates(user, request);
 
         // Assert
+        assertTrue(changed);
         assertEquals(user.getFirstName(), newFirstName);
         assertEquals(user.getLastName(), newLastName);
         assertEquals(user.getCountry(), newCountry);
     }
 
+    @Test
+    void testApplyUpdates_NoChanges() {
+        // Arrange
+        var request = new UpdateUserRequest(user.getFirstName(), user.getLastName(), user.getCountry());
+
+        // Act
+        boolean changed = UserMapper.applyUpdates(user, request);
+
+        // Assert
+        assertFalse(changed);
+    }
+
     @Test
     void testMapToUserResponse_Success() {
         // Act
@@ -110,6 +127,21 @@ public class UserMapperTest {
         assertEquals(user.getStatus(), response.status());
     }
 
+    @Test
+    void testMapToAuthDetailsResponse_FromProjection() {
+        // Arrange
+        var authDetailsView = new SpelAwareProxyProjectionFactory().createProjection(AuthDetailsView.class, user);
+
+        // Act
+        AuthDetailsResponse response = UserMapper.mapToAuthDetailsResponse(authDetailsView);
+
+        // Assert
+        assertEquals(userId, response.userId());
+        assertEquals(user.getRoles(), response.roles());
+        assertEquals(user.getAuthorities(), response.authorities());
+        assertEquals(user.getStatus(), response.status());
+    }
+
     @Test
     void testMapToCredentialsRequest_Success() {
         // Arrange
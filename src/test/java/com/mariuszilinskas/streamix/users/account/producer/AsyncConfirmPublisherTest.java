@@ -0,0 +1,142 @@
+package com.mariuszilinskas.streamix.users.account.producer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncConfirmPublisherTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AsyncConfirmPublisher createPublisher(int maxInFlight, int batchSize) {
+        when(rabbitTemplate.getMessageConverter()).thenReturn(new SimpleMessageConverter());
+        return new AsyncConfirmPublisher(rabbitTemplate, meterRegistry, maxInFlight, Duration.ofMillis(10),
+                Duration.ofMillis(100), batchSize, 65536);
+    }
+
+    private void confirmWith(boolean ack) {
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            correlationData.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+            return null;
+        }).when(rabbitTemplate).send(eq("streamix"), eq("key"), any(Message.class), any(CorrelationData.class));
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("account.rabbitmq.confirms.in.flight").gauge().value();
+    }
+
+    @Test
+    void testPublish_AckCompletesWithTrue() {
+        // Arrange
+        AsyncConfirmPublisher publisher = createPublisher(10, 500);
+        confirmWith(true);
+
+        // Act
+        boolean confirmed = publisher.publish("streamix", "update-last-active", "key", "message").join();
+
+        // Assert
+        assertTrue(confirmed);
+        assertEquals(0, inFlight());
+        assertEquals(1, meterRegistry.get("account.rabbitmq.confirm").tag("outcome", "ack").timer().count());
+    }
+
+    @Test
+    void testPublish_NackCompletesWithFalse() {
+        // Arrange
+        AsyncConfirmPublisher publisher = createPublisher(10, 500);
+        confirmWith(false);
+
+        // Act
+        boolean confirmed = publisher.publish("streamix", "update-last-active", "key", "message").join();
+
+        // Assert
+        assertFalse(confirmed);
+        assertEquals(0, inFlight());
+    }
+
+    @Test
+    void testPublish_MissingConfirmTimesOut() {
+        // Arrange
+        AsyncConfirmPublisher publisher = createPublisher(10, 500);
+
+        // Act
+        CompletableFuture<Boolean> confirm = publisher.publish("streamix", "update-last-active", "key", "message");
+
+        // Assert
+        assertEquals(1, inFlight());
+        assertFalse(confirm.join());
+        assertEquals(0, inFlight());
+        assertEquals(1, meterRegistry.get("account.rabbitmq.confirm").tag("outcome", "timeout").timer().count());
+    }
+
+    @Test
+    void testPublish_ThrowsWhenTooManyAwaitConfirms() {
+        // Arrange
+        AsyncConfirmPublisher publisher = createPublisher(1, 500);
+        publisher.publish("streamix", "update-last-active", "key", "first");
+
+        // Act & Assert
+        assertThrows(AmqpTimeoutException.class,
+                () -> publisher.publish("streamix", "update-last-active", "key", "second"));
+        verify(rabbitTemplate, times(1)).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void testPublish_SendFailureReleasesPermit() {
+        // Arrange
+        AsyncConfirmPublisher publisher = createPublisher(1, 500);
+        doThrow(new AmqpConnectException(new ConnectException("Connection refused")))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        // Act & Assert
+        assertThrows(AmqpConnectException.class,
+                () -> publisher.publish("streamix", "update-last-active", "key", "message"));
+        assertEquals(0, inFlight());
+    }
+
+    @Test
+    void testPublishBatch_SendsOneMessagePerBatch() {
+        // Arrange
+        AsyncConfirmPublisher publisher = createPublisher(10, 2);
+        confirmWith(true);
+
+        // Act
+        boolean confirmed = publisher.publishBatch("streamix", "update-last-active", "key",
+                List.of("first", "second", "third")).join();
+
+        // Assert
+        assertTrue(confirmed);
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate, times(2)).send(eq("streamix"), eq("key"), captor.capture(), any(CorrelationData.class));
+        List<String> delivered = new ArrayList<>();
+        SimpleBatchingStrategy debatching = new SimpleBatchingStrategy(0, 0, 0);
+        captor.getAllValues().forEach(batch ->
+                debatching.deBatch(batch, fragment -> delivered.add(new String(fragment.getBody()))));
+        assertEquals(List.of("first", "second", "third"), delivered);
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.mariuszilinskas.streamix.users.account.producer;
+
+import com.mariuszilinskas.streamix.users.account.generator.TimeOrderedUuid;
+import com.mariuszilinskas.streamix.users.account.model.OutboxMessage;
+import com.mariuszilinskas.streamix.users.account.repository.OutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private static final Duration LEASE = Duration.ofSeconds(30);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxRepository, rabbitTemplate, TransactionOperations.withoutTransaction(),
+                meterRegistry, "streamix", 100, Duration.ofMillis(100), LEASE);
+    }
+
+    private OutboxMessage createMessage() {
+        return new OutboxMessage(TimeOrderedUuid.next(), "delete-user-data", "delete-user-data",
+                "java.util.UUID", "\"" + UUID.randomUUID() + "\"", ZonedDateTime.now());
+    }
+
+    // Confirms every message except the ones listed as rejected
+    private void confirmAllExcept(Set<UUID> rejected) {
+        doAnswer(invocation -> {
+            Message message = invocation.getArgument(2);
+            CorrelationData correlationData = invocation.getArgument(3);
+            boolean ack = !rejected.contains(UUID.fromString(message.getMessageProperties().getMessageId()));
+            correlationData.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+            return null;
+        }).when(rabbitTemplate).send(eq("streamix"), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<UUID> captureDeletedIds() {
+        ArgumentCaptor<List<UUID>> captor = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository, times(1)).deleteAllById(captor.capture());
+        return captor.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<UUID> captureReleasedIds() {
+        ArgumentCaptor<List<UUID>> captor = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository, times(1)).releaseAll(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void testRelay_DeletesConfirmedMessages() {
+        // Arrange
+        OutboxMessage first = createMessage();
+        OutboxMessage second = createMessage();
+        when(outboxRepository.claimBatch(100, LEASE)).thenReturn(List.of(first, second));
+        when(outboxRepository.findOldestCreatedAt()).thenReturn(Optional.empty());
+        confirmAllExcept(Set.of());
+
+        // Act
+        relay.relay();
+
+        // Assert
+        assertEquals(List.of(first.id(), second.id()), captureDeletedIds());
+        assertEquals(2, meterRegistry.get("account.outbox.publish.lag").timer().count());
+        assertEquals(0, meterRegistry.get("account.outbox.publish.failures").counter().count());
+    }
+
+    @Test
+    void testRelay_KeepsRejectedMessages() {
+        // Arrange
+        OutboxMessage confirmed = createMessage();
+        OutboxMessage rejected = createMessage();
+        when(outboxRepository.claimBatch(100, LEASE)).thenReturn(List.of(confirmed, rejected));
+        when(outboxRepository.count()).thenReturn(1L);
+        when(outboxRepository.findOldestCreatedAt()).thenReturn(Optional.of(rejected.createdAt()));
+        confirmAllExcept(Set.of(rejected.id()));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        assertEquals(List.of(confirmed.id()), captureDeletedIds());
+        assertEquals(List.of(rejected.id()), captureReleasedIds());
+        assertEquals(1, meterRegistry.get("account.outbox.publish.failures").counter().count());
+        assertEquals(1, meterRegistry.get("account.outbox.depth").gauge().value());
+    }
+
+    @Test
+    void testRelay_KeepsMessagesAfterRejectedOneInOrder() {
+        // Arrange
+        OutboxMessage rejected = createMessage();
+        OutboxMessage confirmed = createMessage();
+        when(outboxRepository.claimBatch(100, LEASE)).thenReturn(List.of(rejected, confirmed));
+        when(outboxRepository.count()).thenReturn(2L);
+        when(outboxRepository.findOldestCreatedAt()).thenReturn(Optional.of(rejected.createdAt()));
+        confirmAllExcept(Set.of(rejected.id()));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        assertTrue(captureDeletedIds().isEmpty());
+        assertEquals(List.of(rejected.id(), confirmed.id()), captureReleasedIds());
+        assertEquals(2, meterRegistry.get("account.outbox.publish.failures").counter().count());
+    }
+
+    @Test
+    void testRelay_NothingClaimed() {
+        // Arrange
+        when(outboxRepository.claimBatch(100, LEASE)).thenReturn(List.of());
+        when(outboxRepository.findOldestCreatedAt()).thenReturn(Optional.empty());
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verifyNoInteractions(rabbitTemplate);
+        verify(outboxRepository, never()).deleteAllById(anyList());
+    }
+
+    @Test
+    void testRelay_StopsBatchWhenBrokerIsDown() {
+        // Arrange
+        when(outboxRepository.claimBatch(100, LEASE)).thenReturn(List.of(createMessage(), createMessage()));
+        when(outboxRepository.findOldestCreatedAt()).thenReturn(Optional.empty());
+        doThrow(new AmqpConnectException(new ConnectException("Connection refused")))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(rabbitTemplate, times(1)).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        assertTrue(captureDeletedIds().isEmpty());
+        assertEquals(2, captureReleasedIds().size());
+        assertEquals(2, meterRegistry.get("account.outbox.publish.failures").counter().count());
+    }
+
+    @Test
+    void testRelay_PublishesStoredBodyAndType() {
+        // Arrange
+        OutboxMessage message = createMessage();
+        when(outboxRepository.claimBatch(100, LEASE)).thenReturn(List.of(message));
+        when(outboxRepository.findOldestCreatedAt()).thenReturn(Optional.empty());
+        confirmAllExcept(Set.of());
+
+        // Act
+        relay.relay();
+
+        // Assert
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq("streamix"), eq(message.routingKey()), captor.capture(), any(CorrelationData.class));
+        Message published = captor.getValue();
+        assertEquals(message.payload(), new String(published.getBody()));
+        assertEquals(message.typeId(), published.getMessageProperties().getHeader("__TypeId__"));
+        assertEquals("application/json", published.getMessageProperties().getContentType());
+    }
+
+}
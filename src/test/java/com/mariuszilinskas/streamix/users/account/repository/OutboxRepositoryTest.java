@@ -0,0 +1,173 @@
+package com.mariuszilinskas.streamix.users.account.repository;
+
+import com.mariuszilinskas.streamix.users.account.generator.TimeOrderedUuid;
+import com.mariuszilinskas.streamix.users.account.model.OutboxMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writes, claims and deletes outbox messages against the Flyway-migrated H2 schema.
+ */
+@DataJpaTest
+@Import(OutboxRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OutboxRepositoryTest {
+
+    private static final Duration LEASE = Duration.ofSeconds(30);
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM outbox_messages");
+    }
+
+    private OutboxMessage createMessage(String routingKey) {
+        return new OutboxMessage(TimeOrderedUuid.next(), routingKey, "delete-user-data",
+                "java.util.UUID", "\"0190c3c4-0000-7000-8000-000000000000\"", ZonedDateTime.now());
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        return new TransactionTemplate(transactionManager).execute(status -> action.get());
+    }
+
+    @Test
+    void testClaimBatch_OldestFirstUpToLimit() {
+        // Arrange
+        OutboxMessage first = createMessage("first");
+        OutboxMessage second = createMessage("second");
+        OutboxMessage third = createMessage("third");
+        inTransaction(() -> {
+            List.of(first, second, third).forEach(outboxRepository::save);
+            return null;
+        });
+
+        // Act
+        List<OutboxMessage> batch = inTransaction(() -> outboxRepository.claimBatch(2, LEASE));
+
+        // Assert
+        assertEquals(List.of(first.id(), second.id()), batch.stream().map(OutboxMessage::id).toList());
+        assertEquals(first.payload(), batch.getFirst().payload());
+        assertEquals(first.typeId(), batch.getFirst().typeId());
+    }
+
+    @Test
+    void testClaimBatch_InInsertOrderWhateverTheIds() {
+        // Arrange
+        OutboxMessage earlierId = createMessage("earlier-id");
+        OutboxMessage laterId = createMessage("later-id");
+        inTransaction(() -> {
+            outboxRepository.save(laterId);
+            return null;
+        });
+        // As written by an instance whose clock is behind
+        inTransaction(() -> {
+            outboxRepository.save(earlierId);
+            return null;
+        });
+
+        // Act
+        List<OutboxMessage> batch = inTransaction(() -> outboxRepository.claimBatch(10, LEASE));
+
+        // Assert
+        assertEquals(List.of(laterId.id(), earlierId.id()), batch.stream().map(OutboxMessage::id).toList());
+    }
+
+    @Test
+    void testClaimBatch_NothingWhileHeadIsLeased() {
+        // Arrange
+        OutboxMessage first = createMessage("first");
+        inTransaction(() -> {
+            outboxRepository.save(first);
+            return null;
+        });
+        inTransaction(() -> outboxRepository.claimBatch(10, LEASE));
+        inTransaction(() -> {
+            outboxRepository.save(createMessage("second"));
+            return null;
+        });
+
+        // Act
+        List<OutboxMessage> batch = inTransaction(() -> outboxRepository.claimBatch(10, LEASE));
+
+        // Assert
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    void testClaimBatch_ReleasedAndExpiredLeasesAreClaimedAgain() {
+        // Arrange
+        OutboxMessage released = createMessage("released");
+        OutboxMessage expired = createMessage("expired");
+        inTransaction(() -> {
+            outboxRepository.save(released);
+            outboxRepository.save(expired);
+            return null;
+        });
+        inTransaction(() -> outboxRepository.claimBatch(10, Duration.ofMillis(-1)));
+        inTransaction(() -> outboxRepository.releaseAll(List.of(released.id())));
+
+        // Act
+        List<OutboxMessage> batch = inTransaction(() -> outboxRepository.claimBatch(10, LEASE));
+
+        // Assert
+        assertEquals(List.of(released.id(), expired.id()), batch.stream().map(OutboxMessage::id).toList());
+    }
+
+    @Test
+    void testDeleteAllById_RemovesOnlyGivenMessages() {
+        // Arrange
+        OutboxMessage confirmed = createMessage("confirmed");
+        OutboxMessage unconfirmed = createMessage("unconfirmed");
+        inTransaction(() -> {
+            outboxRepository.save(confirmed);
+            outboxRepository.save(unconfirmed);
+            return null;
+        });
+
+        // Act
+        int deleted = inTransaction(() -> outboxRepository.deleteAllById(List.of(confirmed.id())));
+
+        // Assert
+        assertEquals(1, deleted);
+        assertEquals(1, outboxRepository.count());
+        assertTrue(outboxRepository.findOldestCreatedAt().isPresent());
+    }
+
+    @Test
+    void testSave_RequiresTransaction() {
+        // Act & Assert
+        assertThrows(IllegalTransactionStateException.class, () -> outboxRepository.save(createMessage("none")));
+    }
+
+    @Test
+    void testFindOldestCreatedAt_EmptyOutbox() {
+        // Act & Assert
+        assertEquals(0, outboxRepository.count());
+        assertTrue(outboxRepository.findOldestCreatedAt().isEmpty());
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.mariuszilinskas.streamix.users.account.repository;
+
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks, with EXPLAIN against the Flyway-migrated PostgreSQL schema, that the queries relying on
+ * PostgreSQL-only migrations use their index. Sequential scans are disabled for the session, so the
+ * plan shows whether an index can serve the query even on an almost empty table.
+ * Skipped when Docker isn't available.
+ */
+@DataJpaTest(properties = {
+        RecordingStatementInspector.PROPERTY,
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+public class PostgresQueryPlanTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private String explain(String sql, Object... args) {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args))
+                .toLowerCase(Locale.ROOT);
+    }
+
+    @Test
+    void testFindByEmailIgnoreCase_UsesUpperEmailIndex() {
+        // Arrange
+        userRepository.findByEmailIgnoreCase("John@Example.com");
+        String sql = RecordingStatementInspector.last();
+
+        // Act
+        String plan = explain(sql, "John@Example.com");
+
+        // Assert
+        assertTrue(sql.toLowerCase(Locale.ROOT).contains("upper("), "Expected a case-insensitive comparison in:\n" + sql);
+        assertTrue(plan.contains("idx_users_email_upper"), "Expected idx_users_email_upper in plan:\n" + plan);
+    }
+
+    @Test
+    void testFindAuthDetailsByEmailIgnoreCase_UsesUpperEmailIndex() {
+        // Arrange
+        userRepository.findAuthDetailsByEmailIgnoreCase("John@Example.com");
+
+        // Act
+        String plan = explain(RecordingStatementInspector.last(), "John@Example.com");
+
+        // Assert
+        assertTrue(plan.contains("idx_users_email_upper"), "Expected idx_users_email_upper in plan:\n" + plan);
+    }
+
+    @Test
+    void testFindAllAuthDetailsByUpperEmailIn_UsesUpperEmailIndex() {
+        // Arrange
+        List<String> upperEmails = List.of("JOHN@EXAMPLE.COM", "JANE@EXAMPLE.COM");
+        userRepository.findAllAuthDetailsByUpperEmailIn(upperEmails);
+
+        // Act
+        String plan = explain(RecordingStatementInspector.last(), upperEmails.toArray());
+
+        // Assert
+        assertTrue(plan.contains("idx_users_email_upper"), "Expected idx_users_email_upper in plan:\n" + plan);
+    }
+
+    @Test
+    void testAdminListingByAdminRole_UsesPartialIndex() {
+        // Act
+        String plan = explain("SELECT id FROM users WHERE bitand(roles_mask, " + UserRole.ADMIN.mask() + ") <> 0 " +
+                "ORDER BY created_at, id LIMIT 50");
+
+        // Assert
+        assertTrue(plan.contains("idx_users_role_admin_created_at_id"),
+                "Expected idx_users_role_admin_created_at_id in plan:\n" + plan);
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.mariuszilinskas.streamix.users.account.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks, with EXPLAIN against the Flyway-migrated H2 schema, that the hot queries are
+ * served by an index rather than a table scan. H2 has no expression indexes, so the
+ * case-insensitive email lookups are covered by {@link PostgresQueryPlanTest}.
+ */
+@DataJpaTest(properties = RecordingStatementInspector.PROPERTY)
+public class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String explain(String sql, Object... args) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args)).toUpperCase();
+    }
+
+    private void assertUsesIndex(String index, String plan) {
+        assertTrue(plan.contains(index), "Expected " + index + " in plan:\n" + plan);
+        assertFalse(plan.contains("TABLESCAN"), "Unexpected table scan in plan:\n" + plan);
+    }
+
+    @Test
+    void testFindAllAddressesByUserId_UsesIndex() {
+        // Act
+        String plan = explain("SELECT * FROM addresses WHERE user_id = ?", UUID.randomUUID());
+
+        // Assert
+        assertUsesIndex("UK_ADDRESSES_USER_ID_ADDRESS_TYPE", plan);
+    }
+
+    @Test
+    void testAdminListingByStatus_UsesIndex() {
+        // Act
+        String plan = explain("SELECT id FROM users WHERE status = ? ORDER BY created_at, id FETCH FIRST 50 ROWS ONLY",
+                "ACTIVE");
+
+        // Assert
+        assertUsesIndex("IDX_USERS_STATUS_CREATED_AT_ID", plan);
+    }
+
+    @Test
+    void testAdminListingByLastActive_UsesIndex() {
+        // Act
+        String plan = explain("SELECT id FROM users WHERE last_active >= ? AND last_active < ?",
+                "2024-01-01 00:00:00+00", "2024-02-01 00:00:00+00");
+
+        // Assert
+        assertUsesIndex("IDX_USERS_LAST_ACTIVE", plan);
+    }
+
+}
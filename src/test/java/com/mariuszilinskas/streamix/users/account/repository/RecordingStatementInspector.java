@@ -0,0 +1,29 @@
+package com.mariuszilinskas.streamix.users.account.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the SQL Hibernate prepares, so query plan tests can EXPLAIN the statements
+ * derived queries actually run rather than hand-written equivalents.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    static final String PROPERTY = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+            "com.mariuszilinskas.streamix.users.account.repository.RecordingStatementInspector";
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    static String last() {
+        return statements.getLast();
+    }
+
+}
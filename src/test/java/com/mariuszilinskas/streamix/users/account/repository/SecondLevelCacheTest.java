@@ -0,0 +1,232 @@
+package com.mariuszilinskas.streamix.users.account.repository;
+
+import com.mariuszilinskas.streamix.users.account.config.SecondLevelCacheConfig;
+import com.mariuszilinskas.streamix.users.account.constant.CacheRegions;
+import com.mariuszilinskas.streamix.users.account.enums.AddressType;
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+import com.mariuszilinskas.streamix.users.account.model.Address;
+import com.mariuszilinskas.streamix.users.account.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that reads are served from the second-level and query caches, and that every write path,
+ * including the bulk and JDBC ones, leaves no stale entry behind. lastActive updates are the one
+ * exception: they leave cached Users in place.
+ */
+@DataJpaTest
+@Import(SecondLevelCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(createUser());
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM addresses");
+        jdbcTemplate.update("DELETE FROM users");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    private User createUser() {
+        User newUser = new User();
+        newUser.setFirstName("John");
+        newUser.setLastName("Doe");
+        newUser.setEmail("john@example.com");
+        newUser.setCountry("United Kingdom");
+        newUser.setStatus(UserStatus.ACTIVE);
+        newUser.setRoles(List.of(UserRole.USER));
+        return newUser;
+    }
+
+    private Address createAddress(AddressType addressType) {
+        Address address = new Address();
+        address.setUserId(user.getId());
+        address.setAddressType(addressType);
+        address.setStreet1("1 High Street");
+        address.setCity("London");
+        address.setCountry("United Kingdom");
+        address.setPostcode("N1 1AA");
+        return addressRepository.save(address);
+    }
+
+    private long userCacheHits() {
+        return statistics.getDomainDataRegionStatistics(CacheRegions.USERS).getHitCount();
+    }
+
+    private long addressListCacheHits() {
+        return statistics.getQueryRegionStatistics(CacheRegions.ADDRESSES_BY_USER_ID).getHitCount();
+    }
+
+    @Test
+    void testFindById_SecondReadIsServedFromCache() {
+        // Act
+        userRepository.findById(user.getId());
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+        User cached = userRepository.findById(user.getId()).orElseThrow();
+
+        // Assert
+        assertEquals("John", cached.getFirstName());
+        assertEquals(1, userCacheHits());
+        assertEquals(statementsAfterFirstRead, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testSave_UpdatedUserIsReadBack() {
+        // Arrange
+        User loaded = userRepository.findById(user.getId()).orElseThrow();
+        loaded.setFirstName("Jonathan");
+
+        // Act
+        userRepository.save(loaded);
+        User reloaded = userRepository.findById(user.getId()).orElseThrow();
+
+        // Assert
+        assertEquals("Jonathan", reloaded.getFirstName());
+    }
+
+    @Test
+    void testDeleteById_UserIsNoLongerFound() {
+        // Arrange
+        userRepository.findById(user.getId());
+
+        // Act
+        userRepository.deleteById(user.getId());
+
+        // Assert
+        assertTrue(userRepository.findById(user.getId()).isEmpty());
+    }
+
+    @Test
+    void testUpdateStatus_JdbcUpdateIsReadBack() {
+        // Arrange
+        userRepository.findById(user.getId());
+
+        // Act
+        userRepository.updateStatus(user.getId(), UserStatus.SUSPENDED);
+
+        // Assert
+        assertEquals(UserStatus.SUSPENDED, userRepository.findById(user.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testAddRole_JdbcUpdateIsReadBack() {
+        // Arrange
+        userRepository.findById(user.getId());
+
+        // Act
+        userRepository.addRole(user.getId(), UserRole.ADMIN);
+
+        // Assert
+        assertEquals(List.of(UserRole.USER, UserRole.ADMIN),
+                userRepository.findById(user.getId()).orElseThrow().getRoles());
+    }
+
+    @Test
+    void testUpdateLastActive_KeepsUserCached() {
+        // Arrange
+        userRepository.findById(user.getId());
+
+        // Act
+        userRepository.updateLastActive(Map.of(user.getId(), ZonedDateTime.now().plusMinutes(1)));
+        userRepository.findById(user.getId());
+
+        // Assert
+        assertEquals(1, userCacheHits());
+    }
+
+    @Test
+    void testFindAllByUserId_SecondReadIsServedFromQueryCache() {
+        // Arrange
+        createAddress(AddressType.BILLING);
+
+        // Act
+        addressRepository.findAllByUserId(user.getId());
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+        List<Address> cached = addressRepository.findAllByUserId(user.getId());
+
+        // Assert
+        assertEquals(1, cached.size());
+        assertEquals(1, addressListCacheHits());
+        assertEquals(statementsAfterFirstRead, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindAllByUserId_InvalidatedByInsertAndUpdate() {
+        // Arrange
+        Address billing = createAddress(AddressType.BILLING);
+        addressRepository.findAllByUserId(user.getId());
+
+        // Act
+        createAddress(AddressType.SHIPPING);
+        List<Address> afterInsert = addressRepository.findAllByUserId(user.getId());
+        billing.setCity("Manchester");
+        addressRepository.save(billing);
+        List<Address> afterUpdate = addressRepository.findAllByUserId(user.getId());
+
+        // Assert
+        assertEquals(2, afterInsert.size());
+        assertTrue(afterUpdate.stream().anyMatch(address -> "Manchester".equals(address.getCity())));
+    }
+
+    @Test
+    void testDeleteAllByUserId_ClearsListAndEntities() {
+        // Arrange
+        Address billing = createAddress(AddressType.BILLING);
+        createAddress(AddressType.SHIPPING);
+        addressRepository.findAllByUserId(user.getId());
+        addressRepository.findById(billing.getId());
+
+        // Act
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> addressRepository.deleteAllByUserId(user.getId()));
+
+        // Assert
+        assertTrue(addressRepository.findAllByUserId(user.getId()).isEmpty());
+        assertTrue(addressRepository.findById(billing.getId()).isEmpty());
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.mariuszilinskas.streamix.users.account.repository;
+
+import com.mariuszilinskas.streamix.users.account.dto.UserAdminFilter;
+import com.mariuszilinskas.streamix.users.account.enums.UpdateOutcome;
+import com.mariuszilinskas.streamix.users.account.enums.UserAuthority;
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+import com.mariuszilinskas.streamix.users.account.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the locked role, authority and status updates against the Flyway-migrated H2 schema.
+ */
+@DataJpaTest
+public class UserRepositoryCustomImplTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        OffsetDateTime now = OffsetDateTime.now();
+        jdbcTemplate.update("INSERT INTO users (id, first_name, last_name, email, country, " +
+                "is_email_verified, status, roles_mask, authorities_mask, created_at, last_active) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                userId, "John", "Doe", "john@example.com", "UK", true, "ACTIVE", UserRole.USER.mask(), 0, now, now);
+    }
+
+    private int column(String column) {
+        Integer value = jdbcTemplate.queryForObject("SELECT " + column + " FROM users WHERE id = ?", Integer.class, userId);
+        return value != null ? value : 0;
+    }
+
+    @Test
+    void testAddRole_SetsBitOnce() {
+        // Act
+        UpdateOutcome first = userRepository.addRole(userId, UserRole.ADMIN);
+        UpdateOutcome second = userRepository.addRole(userId, UserRole.ADMIN);
+
+        // Assert
+        assertEquals(UpdateOutcome.UPDATED, first);
+        assertEquals(UpdateOutcome.UNCHANGED, second);
+        assertEquals(UserRole.USER.mask() | UserRole.ADMIN.mask(), column("roles_mask"));
+    }
+
+    @Test
+    void testRemoveRole_ClearsBitOnce() {
+        // Act
+        UpdateOutcome first = userRepository.removeRole(userId, UserRole.USER);
+        UpdateOutcome second = userRepository.removeRole(userId, UserRole.USER);
+
+        // Assert
+        assertEquals(UpdateOutcome.UPDATED, first);
+        assertEquals(UpdateOutcome.UNCHANGED, second);
+        assertEquals(0, column("roles_mask"));
+    }
+
+    @Test
+    void testAddAndRemoveAuthority_LeavesRolesUntouched() {
+        // Act
+        UpdateOutcome added = userRepository.addAuthority(userId, UserAuthority.MANAGE_SETTINGS);
+        int authoritiesAfterAdd = column("authorities_mask");
+        UpdateOutcome removed = userRepository.removeAuthority(userId, UserAuthority.MANAGE_SETTINGS);
+
+        // Assert
+        assertEquals(UpdateOutcome.UPDATED, added);
+        assertEquals(UserAuthority.MANAGE_SETTINGS.mask(), authoritiesAfterAdd);
+        assertEquals(UpdateOutcome.UPDATED, removed);
+        assertEquals(0, column("authorities_mask"));
+        assertEquals(UserRole.USER.mask(), column("roles_mask"));
+    }
+
+    @Test
+    void testAddRole_NonExistentUser() {
+        // Act & Assert
+        assertEquals(UpdateOutcome.NOT_FOUND, userRepository.addRole(UUID.randomUUID(), UserRole.ADMIN));
+    }
+
+    @Test
+    void testFindUsersAfter_FiltersByRoleBit() {
+        // Arrange
+        UserAdminFilter adminsOnly = new UserAdminFilter(null, UserRole.ADMIN, null, null, null, null);
+        UserAdminFilter usersOnly = new UserAdminFilter(null, UserRole.USER, null, null, null, null);
+        userRepository.addRole(userId, UserRole.ADMIN);
+        userRepository.removeRole(userId, UserRole.USER);
+
+        // Act
+        List<User> admins = userRepository.findUsersAfter(adminsOnly, null, 10);
+        long users = userRepository.countUsers(usersOnly);
+
+        // Assert
+        assertEquals(List.of(userId), admins.stream().map(User::getId).toList());
+        assertEquals(0, users);
+    }
+
+    @Test
+    void testUpdateStatus_NonExistentUser() {
+        // Act & Assert
+        assertEquals(UpdateOutcome.NOT_FOUND, userRepository.updateStatus(UUID.randomUUID(), UserStatus.SUSPENDED));
+    }
+
+    @Test
+    void testUpdateStatus_OnlyWhenChanged() {
+        // Act
+        UpdateOutcome unchanged = userRepository.updateStatus(userId, UserStatus.ACTIVE);
+        UpdateOutcome changed = userRepository.updateStatus(userId, UserStatus.SUSPENDED);
+
+        // Assert
+        assertEquals(UpdateOutcome.UNCHANGED, unchanged);
+        assertEquals(UpdateOutcome.UPDATED, changed);
+        assertEquals("SUSPENDED",
+                jdbcTemplate.queryForObject("SELECT status FROM users WHERE id = ?", String.class, userId));
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.mariuszilinskas.streamix.users.account.repository;
+
+import com.mariuszilinskas.streamix.users.account.enums.UserRole;
+import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+import com.mariuszilinskas.streamix.users.account.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks, against the Flyway-migrated H2 schema, that email uniqueness ignores case.
+ */
+@DataJpaTest
+public class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User createUser(String email) {
+        User user = new User();
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmail(email);
+        user.setCountry("UK");
+        user.setStatus(UserStatus.ACTIVE);
+        user.setRoles(List.of(UserRole.USER));
+        return user;
+    }
+
+    @Test
+    void testSave_StoresEmailLowercased() {
+        // Act
+        User user = userRepository.saveAndFlush(createUser(" John@Example.com "));
+
+        // Assert
+        assertEquals("john@example.com",
+                jdbcTemplate.queryForObject("SELECT email FROM users WHERE id = ?", String.class, user.getId()));
+    }
+
+    @Test
+    void testSave_EmailDifferingOnlyInCaseIsRejected() {
+        // Arrange
+        userRepository.saveAndFlush(createUser("john@example.com"));
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(createUser("John@Example.com")));
+    }
+
+}
@@ -1,10 +1,12 @@
 package com.mariuszilinskas.streamix.users.account.service;
 
+import com.mariuszilinskas.streamix.users.account.datasource.ReadYourWritesWindow;
 import com.mariuszilinskas.streamix.users.account.dto.*;
 import com.mariuszilinskas.streamix.users.account.enums.AddressType;
 import com.mariuszilinskas.streamix.users.account.exception.*;
 import com.mariuszilinskas.streamix.users.account.model.Address;
 import com.mariuszilinskas.streamix.users.account.repository.AddressRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,7 +14,9 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,6 +30,9 @@ public class AddressServiceImplTest {
     @Mock
     private AddressRepository addressRepository;
 
+    @Mock
+    private ReadYourWritesWindow readYourWritesWindow;
+
     @InjectMocks
     private AddressServiceImpl addressService;
 
@@ -79,13 +86,18 @@ public class AddressServiceImplTest {
         );
     }
 
+    private DataIntegrityViolationException addressTypeViolation() {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Unique index or primary key violation", new SQLException(),
+                        "PUBLIC.UK_ADDRESSES_USER_ID_ADDRESS_TYPE_INDEX_C"));
+    }
+
     @Test
     void testCreateAddress_Success() {
         // Arrange
         ArgumentCaptor<Address> captor = ArgumentCaptor.forClass(Address.class);
 
-        when(addressRepository.existsByUserIdAndAddressType(userId, createRequest.addressType())).thenReturn(false);
-        when(addressRepository.save(captor.capture())).thenReturn(address);
+        when(addressRepository.saveAndFlush(captor.capture())).thenReturn(address);
 
         // Act
         Address response = addressService.createAddress(userId, createRequest);
@@ -95,8 +107,7 @@ public class AddressServiceImplTest {
         assertEquals(address.getId(), response.getId());
         assertEquals(address.getUserId(), response.getUserId());
 
-        verify(addressRepository, times(1)).existsByUserIdAndAddressType(userId, createRequest.addressType());
-        verify(addressRepository, times(1)).save(captor.capture());
+        verify(addressRepository, times(1)).saveAndFlush(captor.capture());
 
         Address savedAddress = captor.getValue();
         assertEquals(createRequest.addressType(), savedAddress.getAddressType());
@@ -111,14 +122,27 @@ public class AddressServiceImplTest {
     @Test
     void testCreateAddress_SameAddressTypeAlreadyExists() {
         // Arrange
-        when(addressRepository.existsByUserIdAndAddressType(userId, createRequest.addressType())).thenReturn(true);
+        when(addressRepository.saveAndFlush(any(Address.class))).thenThrow(addressTypeViolation());
 
         //Act & Assert
         assertThrows(AddressTypeExistsException.class, () -> addressService.createAddress(userId, createRequest));
 
         // Assert
-        verify(addressRepository, times(1)).existsByUserIdAndAddressType(userId, createRequest.addressType());
-        verify(addressRepository, never()).save(any(Address.class));
+        verify(addressRepository, times(1)).saveAndFlush(any(Address.class));
+    }
+
+    @Test
+    void testCreateAddress_OtherIntegrityViolationIsRethrown() {
+        // Arrange
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("NULL not allowed for column");
+        when(addressRepository.saveAndFlush(any(Address.class))).thenThrow(violation);
+
+        //Act & Assert
+        DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class,
+                () -> addressService.createAddress(userId, createRequest));
+
+        // Assert
+        assertSame(violation, thrown);
     }
 
     @Test
@@ -196,9 +220,7 @@ public class AddressServiceImplTest {
         ArgumentCaptor<Address> captor = ArgumentCaptor.forClass(Address.class);
 
         when(addressRepository.findByIdAndUserId(addressId, userId)).thenReturn(Optional.of(address));
-        when(addressRepository.existsByUserIdAndAddressTypeAndIdNot(userId, updateRequest.addressType(), addressId))
-                .thenReturn(false);
-        when(addressRepository.save(captor.capture())).thenReturn(address);
+        when(addressRepository.saveAndFlush(captor.capture())).thenReturn(address);
 
         // Act
         Address response = addressService.updateAddress(userId, addressId, updateRequest);
@@ -212,9 +234,7 @@ public class AddressServiceImplTest {
         assertEquals(updateRequest.postcode(), response.getPostcode());
 
         verify(addressRepository, times(1)).findByIdAndUserId(addressId, userId);
-        verify(addressRepository, times(1))
-                .existsByUserIdAndAddressTypeAndIdNot(userId, updateRequest.addressType(), addressId);
-        verify(addressRepository, times(1)).save(captor.capture());
+        verify(addressRepository, times(1)).saveAndFlush(captor.capture());
 
         Address savedAddress = captor.getValue();
         assertEquals(updateRequest.street1(), savedAddress.getStreet1());
@@ -223,6 +243,21 @@ public class AddressServiceImplTest {
         assertEquals(updateRequest.postcode(), savedAddress.getPostcode());
     }
 
+    @Test
+    void testUpdateAddress_SameAddressTypeAlreadyExists() {
+        // Arrange
+        when(addressRepository.findByIdAndUserId(addressId, userId)).thenReturn(Optional.of(address));
+        when(addressRepository.saveAndFlush(any(Address.class))).thenThrow(addressTypeViolation());
+
+        //Act & Assert
+        assertThrows(AddressTypeExistsException.class,
+                () -> addressService.updateAddress(userId, addressId, updateRequest));
+
+        // Assert
+        verify(addressRepository, times(1)).findByIdAndUserId(addressId, userId);
+        verify(addressRepository, times(1)).saveAndFlush(any(Address.class));
+    }
+
     @Test
     void testUpdateUser_NonExistentUser() {
         // Arrange
@@ -236,9 +271,7 @@ public class AddressServiceImplTest {
 
         // Assert
         verify(addressRepository, times(1)).findByIdAndUserId(addressId, nonExistentId);
-        verify(addressRepository, never())
-                .existsByUserIdAndAddressTypeAndIdNot(any(UUID.class), any(AddressType.class), any(UUID.class));
-        verify(addressRepository, never()).save(any(Address.class));
+        verify(addressRepository, never()).saveAndFlush(any(Address.class));
     }
 
     @Test
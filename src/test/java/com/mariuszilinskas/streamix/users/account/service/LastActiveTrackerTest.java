@@ -0,0 +1,183 @@
+package com.mariuszilinskas.streamix.users.account.service;
+
+import com.mariuszilinskas.streamix.users.account.dto.UserLastActiveMessage;
+import com.mariuszilinskas.streamix.users.account.enums.LastActiveSink;
+import com.mariuszilinskas.streamix.users.account.producer.RabbitMQProducer;
+import com.mariuszilinskas.streamix.users.account.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LastActiveTrackerTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RabbitMQProducer rabbitMQProducer;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID userId2 = UUID.randomUUID();
+    private final ZonedDateTime now = ZonedDateTime.now();
+
+    private LastActiveTracker createTracker(LastActiveSink sink) {
+        return new LastActiveTracker(userRepository, rabbitMQProducer, sink, Duration.ofMinutes(1), 1000);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<UUID, ZonedDateTime> captureFlushedBatch() {
+        ArgumentCaptor<Map<UUID, ZonedDateTime>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(userRepository, times(1)).updateLastActive(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void testFlush_WritesOneBatchToDatabase() {
+        // Arrange
+        LastActiveTracker tracker = createTracker(LastActiveSink.DATABASE);
+        tracker.record(userId, now);
+        tracker.record(userId2, now);
+
+        // Act
+        tracker.flush();
+
+        // Assert
+        Map<UUID, ZonedDateTime> batch = captureFlushedBatch();
+        assertEquals(Map.of(userId, now, userId2, now), batch);
+        verify(rabbitMQProducer, never()).sendUpdateLastActiveMessages(anyList());
+    }
+
+    @Test
+    void testRecord_SkipsUpdatesWithinGranularity() {
+        // Arrange
+        LastActiveTracker tracker = createTracker(LastActiveSink.DATABASE);
+
+        // Act
+        tracker.record(userId, now);
+        tracker.record(userId, now.plusSeconds(30));
+        tracker.flush();
+
+        // Assert
+        assertEquals(Map.of(userId, now), captureFlushedBatch());
+    }
+
+    @Test
+    void testRecord_KeepsLatestTimestampBeyondGranularity() {
+        // Arrange
+        LastActiveTracker tracker = createTracker(LastActiveSink.DATABASE);
+        ZonedDateTime later = now.plusMinutes(2);
+
+        // Act
+        tracker.record(userId, now);
+        tracker.record(userId, later);
+        tracker.flush();
+
+        // Assert
+        assertEquals(Map.of(userId, later), captureFlushedBatch());
+    }
+
+    @Test
+    void testRecord_ConcurrentLookupsRecordOncePerGranularity() throws Exception {
+        // Arrange
+        LastActiveTracker tracker = createTracker(LastActiveSink.DATABASE);
+        int threads = 8;
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                ZonedDateTime lastActive = now.plusSeconds(t);
+                futures.add(executor.submit(() -> tracker.record(userId, lastActive)));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        }
+        tracker.record(userId, now.plusSeconds(30));
+        tracker.flush();
+
+        // Assert
+        Map<UUID, ZonedDateTime> batch = captureFlushedBatch();
+        assertEquals(1, batch.size());
+        assertTrue(batch.get(userId).isBefore(now.plusSeconds(threads)));
+    }
+
+    @Test
+    void testFlush_NothingPending() {
+        // Arrange
+        LastActiveTracker tracker = createTracker(LastActiveSink.DATABASE);
+
+        // Act
+        tracker.flush();
+
+        // Assert
+        verify(userRepository, never()).updateLastActive(anyMap());
+    }
+
+    @Test
+    void testFlush_RequeuesBatchOnFailure() {
+        // Arrange
+        LastActiveTracker tracker = createTracker(LastActiveSink.DATABASE);
+        tracker.record(userId, now);
+        when(userRepository.updateLastActive(anyMap()))
+                .thenThrow(new RuntimeException("Connection refused"))
+                .thenReturn(1);
+
+        // Act
+        tracker.flush();
+        tracker.drain();
+
+        // Assert
+        verify(userRepository, times(2)).updateLastActive(Map.of(userId, now));
+    }
+
+    @Test
+    void testFlush_SendsToRabbitMQSink() {
+        // Arrange
+        LastActiveTracker tracker = createTracker(LastActiveSink.RABBITMQ);
+        tracker.record(userId, now);
+        when(rabbitMQProducer.sendUpdateLastActiveMessages(anyList())).thenReturn(CompletableFuture.completedFuture(true));
+
+        // Act
+        tracker.flush();
+
+        // Assert
+        verify(rabbitMQProducer, times(1)).sendUpdateLastActiveMessages(List.of(new UserLastActiveMessage(userId, now)));
+        verify(userRepository, never()).updateLastActive(anyMap());
+    }
+
+    @Test
+    void testFlush_RequeuesUnconfirmedRabbitMQBatch() {
+        // Arrange
+        LastActiveTracker tracker = createTracker(LastActiveSink.RABBITMQ);
+        tracker.record(userId, now);
+        List<UserLastActiveMessage> messages = List.of(new UserLastActiveMessage(userId, now));
+        when(rabbitMQProducer.sendUpdateLastActiveMessages(messages))
+                .thenReturn(CompletableFuture.completedFuture(false))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        // Act
+        tracker.flush();
+        tracker.drain();
+
+        // Assert
+        verify(rabbitMQProducer, times(2)).sendUpdateLastActiveMessages(messages);
+    }
+
+}
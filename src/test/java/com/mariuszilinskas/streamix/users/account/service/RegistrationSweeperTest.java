@@ -0,0 +1,67 @@
+package com.mariuszilinskas.streamix.users.account.service;
+
+import com.mariuszilinskas.streamix.users.account.model.User;
+import com.mariuszilinskas.streamix.users.account.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RegistrationSweeperTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserService userService;
+
+    private User createPendingUser(String email) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(email);
+        user.setCredentialsCreated(false);
+        return user;
+    }
+
+    @Test
+    void testSweep_AbandonsPendingRegistrations() {
+        // Arrange
+        RegistrationSweeper sweeper = new RegistrationSweeper(userRepository, userService, Duration.ofMinutes(10), 500);
+        User first = createPendingUser("john@example.com");
+        User second = createPendingUser("jane@example.com");
+        when(userRepository.findAllByCredentialsCreatedFalseAndCreatedAtBefore(any(ZonedDateTime.class), eq(Limit.of(500))))
+                .thenReturn(List.of(first, second));
+        when(userService.abandonRegistration(any(UUID.class), anyString())).thenReturn(true);
+
+        // Act
+        sweeper.sweep();
+
+        // Assert
+        verify(userService, times(1)).abandonRegistration(first.getId(), first.getEmail());
+        verify(userService, times(1)).abandonRegistration(second.getId(), second.getEmail());
+    }
+
+    @Test
+    void testSweep_NothingPending() {
+        // Arrange
+        RegistrationSweeper sweeper = new RegistrationSweeper(userRepository, userService, Duration.ofMinutes(10), 500);
+        when(userRepository.findAllByCredentialsCreatedFalseAndCreatedAtBefore(any(ZonedDateTime.class), eq(Limit.of(500))))
+                .thenReturn(List.of());
+
+        // Act
+        sweeper.sweep();
+
+        // Assert
+        verify(userService, never()).abandonRegistration(any(UUID.class), anyString());
+    }
+
+}
@@ -1,22 +1,26 @@
 package com.mariuszilinskas.streamix.users.account.service;
 
-import com.mariuszilinskas.streamix.users.account.dto.UserAdminResponse;
+import com.mariuszilinskas.streamix.users.account.cache.AuthDetailsCache;
+import com.mariuszilinskas.streamix.users.account.datasource.ReadYourWritesWindow;
+import com.mariuszilinskas.streamix.users.account.dto.UserAdminFilter;
+import com.mariuszilinskas.streamix.users.account.dto.UserAdminPageResponse;
+import com.mariuszilinskas.streamix.users.account.dto.UserCursor;
+import com.mariuszilinskas.streamix.users.account.enums.UpdateOutcome;
 import com.mariuszilinskas.streamix.users.account.enums.UserAuthority;
 import com.mariuszilinskas.streamix.users.account.enums.UserRole;
 import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
+import com.mariuszilinskas.streamix.users.account.exception.InvalidCursorException;
+import com.mariuszilinskas.streamix.users.account.exception.ResourceNotFoundException;
 import com.mariuszilinskas.streamix.users.account.model.User;
 import com.mariuszilinskas.streamix.users.account.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,12 +32,19 @@ public class UserAdminServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private AuthDetailsCache authDetailsCache;
+
+    @Mock
+    private ReadYourWritesWindow readYourWritesWindow;
+
     @InjectMocks
     private UserAdminServiceImp userAdminService;
 
     private final UUID userId = UUID.randomUUID();
     private final User user = new User();
     private final User user2 = new User();
+    private final UserAdminFilter noFilter = new UserAdminFilter(null, null, null, null, null, null);
 
     @BeforeEach
     void setUp() {
@@ -57,200 +68,243 @@ public class UserAdminServiceImplTest {
     }
 
     @Test
-    void testGetUsers() {
+    void testGetUsers_LastPage() {
         // Arrange
         List<User> users = List.of(user, user2);
 
-        when(userRepository.findAll()).thenReturn(users);
+        when(userRepository.findUsersAfter(noFilter, null, 3)).thenReturn(users);
 
         // Act
-        List<UserAdminResponse> response = userAdminService.getUsers();
+        UserAdminPageResponse response = userAdminService.getUsers(noFilter, null, 2, false);
 
         // Assert
         assertNotNull(response);
-        assertEquals(2, response.size());
-        assertEquals(user.getId(), response.get(0).id());
-        assertEquals(user.getFirstName(), response.get(0).firstName());
-        assertEquals(user2.getId(), response.get(1).id());
-        assertEquals(user2.getFirstName(), response.get(1).firstName());
-
-        verify(userRepository, times(1)).findAll();
+        assertEquals(2, response.users().size());
+        assertEquals(user.getId(), response.users().get(0).id());
+        assertEquals(user.getFirstName(), response.users().get(0).firstName());
+        assertEquals(user2.getId(), response.users().get(1).id());
+        assertEquals(user2.getFirstName(), response.users().get(1).firstName());
+        assertNull(response.nextCursor());
+        assertNull(response.total());
+
+        verify(userRepository, times(1)).findUsersAfter(noFilter, null, 3);
+        verify(userRepository, never()).countUsers(any());
+        verify(userRepository, never()).findAll();
     }
 
     @Test
-    void testGrantUserRole_RoleIsNotPresent() {
+    void testGetUsers_NextCursorContinuesAfterLastUser() {
         // Arrange
-        user.setRoles(new ArrayList<>(List.of(UserRole.USER)));
-        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
+        when(userRepository.findUsersAfter(noFilter, null, 2)).thenReturn(List.of(user, user2));
+        when(userRepository.countUsers(noFilter)).thenReturn(2L);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRepository.save(captor.capture())).thenReturn(user);
+        // Act
+        UserAdminPageResponse response = userAdminService.getUsers(noFilter, null, 1, true);
+
+        // Assert
+        assertEquals(1, response.users().size());
+        assertEquals(user.getId(), response.users().getFirst().id());
+        assertEquals(2L, response.total());
+
+        UserCursor cursor = UserCursor.decode(response.nextCursor());
+        assertEquals(user.getId(), cursor.id());
+        assertTrue(user.getCreatedAt().isEqual(cursor.createdAt()));
+    }
+
+    @Test
+    void testGetUsers_PassesCursorAndClampsLimit() {
+        // Arrange
+        var filter = new UserAdminFilter(UserStatus.ACTIVE, UserRole.ADMIN, "UK", true, null, null);
+        var cursor = new UserCursor(user.getCreatedAt(), userId);
+        when(userRepository.findUsersAfter(eq(filter), any(UserCursor.class), eq(501))).thenReturn(List.of());
 
         // Act
-        userAdminService.grantUserRole(userId, UserRole.ADMIN);
+        UserAdminPageResponse response = userAdminService.getUsers(filter, cursor.encode(), 10_000, false);
 
         // Assert
-        verify(userRepository, times(1)).findById(userId);
-        verify(userRepository, times(1)).save(captor.capture());
+        assertTrue(response.users().isEmpty());
+        assertNull(response.nextCursor());
+        verify(userRepository).findUsersAfter(eq(filter), argThat(after -> after.id().equals(userId)), eq(501));
+    }
+
+    @Test
+    void testGetUsers_InvalidCursor() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> userAdminService.getUsers(noFilter, "not-a-cursor", 50, false));
 
-        User savedUser = captor.getValue();
-        assertTrue(savedUser.getRoles().contains(UserRole.ADMIN));
+        verify(userRepository, never()).findUsersAfter(any(), any(), anyInt());
+    }
+
+    @Test
+    void testGrantUserRole_RoleIsNotPresent() {
+        // Arrange
+        when(userRepository.addRole(userId, UserRole.ADMIN)).thenReturn(UpdateOutcome.UPDATED);
+
+        // Act
+        boolean changed = userAdminService.grantUserRole(userId, UserRole.ADMIN);
+
+        // Assert
+        assertTrue(changed);
+        verify(userRepository, times(1)).addRole(userId, UserRole.ADMIN);
+        verify(userRepository, never()).existsById(any(UUID.class));
+        verify(userRepository, never()).save(any(User.class));
+        verify(authDetailsCache, times(1)).evict(userId);
     }
 
     @Test
     void testGrantUserRole_RoleIsPresent() {
         // Arrange
-        user.setRoles(new ArrayList<>(List.of(UserRole.USER, UserRole.ADMIN)));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.addRole(userId, UserRole.ADMIN)).thenReturn(UpdateOutcome.UNCHANGED);
 
         // Act
-        userAdminService.grantUserRole(userId, UserRole.ADMIN);
+        boolean changed = userAdminService.grantUserRole(userId, UserRole.ADMIN);
 
         // Assert
-        verify(userRepository, times(1)).findById(userId);
-        verify(userRepository, never()).save(user);
+        assertFalse(changed);
+        verify(userRepository, times(1)).addRole(userId, UserRole.ADMIN);
+        verify(userRepository, never()).existsById(any(UUID.class));
+        verify(authDetailsCache, never()).evict(any(UUID.class));
     }
 
     @Test
-    void testRemoveUserRole_RoleIsPresent() {
+    void testGrantUserRole_NonExistentUser() {
         // Arrange
-        user.setRoles(new ArrayList<>(List.of(UserRole.USER, UserRole.ADMIN)));
-        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
+        UUID nonExistentId = UUID.randomUUID();
+        when(userRepository.addRole(nonExistentId, UserRole.ADMIN)).thenReturn(UpdateOutcome.NOT_FOUND);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> userAdminService.grantUserRole(nonExistentId, UserRole.ADMIN));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRepository.save(captor.capture())).thenReturn(user);
+        // Assert
+        verify(authDetailsCache, never()).evict(any(UUID.class));
+    }
+
+    @Test
+    void testRemoveUserRole_RoleIsPresent() {
+        // Arrange
+        when(userRepository.removeRole(userId, UserRole.ADMIN)).thenReturn(UpdateOutcome.UPDATED);
 
         // Act
-        userAdminService.removeUserRole(userId, UserRole.ADMIN);
+        boolean changed = userAdminService.removeUserRole(userId, UserRole.ADMIN);
 
         // Assert
-        verify(userRepository, times(1)).findById(userId);
-        verify(userRepository, times(1)).save(captor.capture());
-
-        User savedUser = captor.getValue();
-        assertFalse(savedUser.getRoles().contains(UserRole.ADMIN));
+        assertTrue(changed);
+        verify(userRepository, times(1)).removeRole(userId, UserRole.ADMIN);
+        verify(userRepository, never()).existsById(any(UUID.class));
+        verify(authDetailsCache, times(1)).evict(userId);
     }
 
     @Test
     void testRemoveUserRole_RoleIsNotPresent() {
         // Arrange
-        user.setRoles(new ArrayList<>(List.of(UserRole.USER)));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.removeRole(userId, UserRole.ADMIN)).thenReturn(UpdateOutcome.UNCHANGED);
 
         // Act
-        userAdminService.removeUserRole(userId, UserRole.ADMIN);
+        boolean changed = userAdminService.removeUserRole(userId, UserRole.ADMIN);
 
         // Assert
-        verify(userRepository, times(1)).findById(userId);
-        verify(userRepository, never()).save(user);
+        assertFalse(changed);
+        verify(userRepository, times(1)).removeRole(userId, UserRole.ADMIN);
+        verify(authDetailsCache, never()).evict(any(UUID.class));
     }
 
     @Test
     void testGrantUserAuthority_AuthorityIsNotPresent() {
         // Arrange
-        user.setAuthorities(List.of());
-        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRepository.save(captor.capture())).thenReturn(user);
+        when(userRepository.addAuthority(userId, UserAuthority.MANAGE_SETTINGS)).thenReturn(UpdateOutcome.UPDATED);
 
         // Act
-        userAdminService.grantUserAuthority(userId, UserAuthority.MANAGE_SETTINGS);
+        boolean changed = userAdminService.grantUserAuthority(userId, UserAuthority.MANAGE_SETTINGS);
 
         // Assert
-        verify(userRepository, times(1)).findById(userId);
-        verify(userRepository, times(1)).save(captor.capture());
-
-        User savedUser = captor.getValue();
-        assertTrue(savedUser.getAuthorities().contains(UserAuthority.MANAGE_SETTINGS));
+        assertTrue(changed);
+        verify(userRepository, times(1)).addAuthority(userId, UserAuthority.MANAGE_SETTINGS);
+        verify(authDetailsCache, times(1)).evict(userId);
     }
 
     @Test
     void testGrantUserAuthority_AuthorityIsPresent() {
         // Arrange
-        user.setAuthorities(new ArrayList<>(List.of(UserAuthority.MANAGE_SETTINGS)));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.addAuthority(userId, UserAuthority.MANAGE_SETTINGS)).thenReturn(UpdateOutcome.UNCHANGED);
 
         // Act
-        userAdminService.grantUserAuthority(userId, UserAuthority.MANAGE_SETTINGS);
+        boolean changed = userAdminService.grantUserAuthority(userId, UserAuthority.MANAGE_SETTINGS);
 
         // Assert
-        verify(userRepository, times(1)).findById(userId);
-        verify(userRepository, never()).save(user);
+        assertFalse(changed);
+        verify(userRepository, times(1)).addAuthority(userId, UserAuthority.MANAGE_SETTINGS);
+        verify(authDetailsCache, never()).evict(any(UUID.class));
     }
 
     @Test
     void testRemoveUserAuthority_AuthorityIsPresent() {
         // Arrange
-        user.setAuthorities(new ArrayList<>(List.of(UserAuthority.MANAGE_SETTINGS)));
-        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRepository.save(captor.capture())).thenReturn(user);
+        when(userRepository.removeAuthority(userId, UserAuthority.MANAGE_SETTINGS)).thenReturn(UpdateOutcome.UPDATED);
 
         // Act
-        userAdminService.removeUserAuthority(userId, UserAuthority.MANAGE_SETTINGS);
+        boolean changed = userAdminService.removeUserAuthority(userId, UserAuthority.MANAGE_SETTINGS);
 
         // Assert
-        verify(userRepository, times(1)).findById(userId);
-        verify(userRepository, times(1)).save(captor.capture());
-
-        User savedUser = captor.getValue();
-        assertFalse(savedUser.getAuthorities().contains(UserAuthority.MANAGE_SETTINGS));
+        assertTrue(changed);
+        verify(userRepository, times(1)).removeAuthority(userId, UserAuthority.MANAGE_SETTINGS);
+        verify(authDetailsCache, times(1)).evict(userId);
     }
 
     @Test
     void testRemoveUserAuthority_AuthorityIsNotPresent() {
         // Arrange
-        user.setAuthorities(List.of());
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.removeAuthority(userId, UserAuthority.MANAGE_SETTINGS)).thenReturn(UpdateOutcome.UNCHANGED);
 
         // Act
-        userAdminService.removeUserAuthority(userId, UserAuthority.MANAGE_SETTINGS);
+        boolean changed = userAdminService.removeUserAuthority(userId, UserAuthority.MANAGE_SETTINGS);
 
         // Assert
-        verify(userRepository, times(1)).findById(userId);
-        verify(userRepository, never()).save(user);
+        assertFalse(changed);
+        verify(userRepository, times(1)).removeAuthority(userId, UserAuthority.MANAGE_SETTINGS);
+        verify(authDetailsCache, never()).evict(any(UUID.class));
     }
 
     @Test
     void testUpdateUserStatus_Suspend() {
         // Arrange
-        user.setStatus(UserStatus.ACTIVE);
-        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRepository.save(captor.capture())).thenReturn(user);
+        when(userRepository.updateStatus(userId, UserStatus.SUSPENDED)).thenReturn(UpdateOutcome.UPDATED);
 
         // Act
-        userAdminService.updateUserStatus(userId, UserStatus.SUSPENDED);
+        boolean changed = userAdminService.updateUserStatus(userId, UserStatus.SUSPENDED);
 
         // Assert
-        verify(userRepository, times(1)).findById(userId);
-        verify(userRepository, times(1)).save(captor.capture());
-
-        User savedUser = captor.getValue();
-        assertEquals(UserStatus.SUSPENDED, savedUser.getStatus());
+        assertTrue(changed);
+        verify(userRepository, times(1)).updateStatus(userId, UserStatus.SUSPENDED);
+        verify(userRepository, never()).findById(any(UUID.class));
+        verify(authDetailsCache, times(1)).evict(userId);
     }
 
     @Test
-    void testUpdateUserStatus_Reactivate() {
+    void testUpdateUserStatus_AlreadyInStatus() {
         // Arrange
-        user.setStatus(UserStatus.SUSPENDED);
-        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRepository.save(captor.capture())).thenReturn(user);
+        when(userRepository.updateStatus(userId, UserStatus.ACTIVE)).thenReturn(UpdateOutcome.UNCHANGED);
 
         // Act
-        userAdminService.updateUserStatus(userId, UserStatus.ACTIVE);
+        boolean changed = userAdminService.updateUserStatus(userId, UserStatus.ACTIVE);
 
         // Assert
-        verify(userRepository, times(1)).findById(userId);
-        verify(userRepository, times(1)).save(captor.capture());
+        assertFalse(changed);
+        verify(userRepository, times(1)).updateStatus(userId, UserStatus.ACTIVE);
+        verify(authDetailsCache, never()).evict(any(UUID.class));
+    }
+
+    @Test
+    void testUpdateUserStatus_NonExistentUser() {
+        // Arrange
+        UUID nonExistentId = UUID.randomUUID();
+        when(userRepository.updateStatus(nonExistentId, UserStatus.SUSPENDED)).thenReturn(UpdateOutcome.NOT_FOUND);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> userAdminService.updateUserStatus(nonExistentId, UserStatus.SUSPENDED));
 
-        User savedUser = captor.getValue();
-        assertEquals(UserStatus.ACTIVE, savedUser.getStatus());
+        // Assert
+        verify(authDetailsCache, never()).evict(any(UUID.class));
     }
 
 }
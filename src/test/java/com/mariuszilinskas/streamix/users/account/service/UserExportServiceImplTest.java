@@ -0,0 +1,147 @@
+package com.mariuszilinskas.streamix.users.account.service;
+
+import com.mariuszilinskas.streamix.users.account.enums.ExportFormat;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({UserExportServiceImpl.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserExportServiceImplTest {
+
+    private static final int USER_COUNT = 50_000;
+    private static final int HEAP_SAMPLE_INTERVAL = 10_000;
+    // Far less than the entities of the sampled rows would retain if they stayed managed
+    private static final long MAX_HEAP_GROWTH_BYTES = 4 * 1024 * 1024;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<Object[]> rows = new ArrayList<>(USER_COUNT);
+        for (int i = 0; i < USER_COUNT; i++) {
+            rows.add(new Object[] {
+                    UUID.randomUUID(), "John", "Doe", "john" + i + "@example.com", "UK",
+                    i % 2 == 0, "ACTIVE", 1, 0, now, now
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, first_name, last_name, email, country, " +
+                "is_email_verified, status, roles_mask, authorities_mask, created_at, last_active) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Counts exported lines and samples the persistence context of the export
+     * transaction after every line written, and the heap left after a GC every
+     * {@link #HEAP_SAMPLE_INTERVAL} lines. The database result is already in memory by the
+     * first heap sample, so any growth after it is held by the export itself.
+     */
+    private class SamplingOutputStream extends OutputStream {
+
+        private long lines;
+        private int maxManagedEntities;
+        private long baselineHeap = -1;
+        private long maxHeapGrowth;
+        private final ByteArrayOutputStream firstLines = new ByteArrayOutputStream();
+
+        @Override
+        public void write(int b) {
+            if (lines < 2)
+                firstLines.write(b);
+            if (b == '\n') {
+                lines++;
+                SessionImplementor session = (SessionImplementor) entityManager.unwrap(Session.class);
+                maxManagedEntities = Math.max(
+                        maxManagedEntities, session.getPersistenceContext().getNumberOfManagedEntities());
+                if (lines % HEAP_SAMPLE_INTERVAL == 0)
+                    sampleHeap();
+            }
+        }
+
+        private void sampleHeap() {
+            long used = usedHeapAfterGc();
+            if (baselineHeap < 0)
+                baselineHeap = used;
+            else
+                maxHeapGrowth = Math.max(maxHeapGrowth, used - baselineHeap);
+        }
+
+    }
+
+    @Test
+    void testExportUsers_NdjsonKeepsPersistenceContextBounded() throws IOException {
+        // Arrange
+        SamplingOutputStream outputStream = new SamplingOutputStream();
+
+        // Act
+        long exported = userExportService.exportUsers(ExportFormat.NDJSON, outputStream);
+
+        // Assert
+        assertEquals(USER_COUNT, exported);
+        assertTrue(outputStream.lines >= USER_COUNT - 1);
+        assertTrue(outputStream.maxManagedEntities <= 1,
+                "Persistence context grew to " + outputStream.maxManagedEntities + " entities");
+        assertTrue(outputStream.baselineHeap >= 0);
+        assertTrue(outputStream.maxHeapGrowth < MAX_HEAP_GROWTH_BYTES,
+                "Heap grew by " + outputStream.maxHeapGrowth + " bytes while exporting");
+        assertTrue(outputStream.firstLines.toString(StandardCharsets.UTF_8).startsWith("{\"id\":"));
+    }
+
+    @Test
+    void testExportUsers_CsvWritesHeaderAndRows() throws IOException {
+        // Arrange
+        SamplingOutputStream outputStream = new SamplingOutputStream();
+
+        // Act
+        long exported = userExportService.exportUsers(ExportFormat.CSV, outputStream);
+
+        // Assert
+        assertEquals(USER_COUNT, exported);
+        assertEquals(USER_COUNT + 1, outputStream.lines);
+        assertTrue(outputStream.maxManagedEntities <= 1);
+        String header = outputStream.firstLines.toString(StandardCharsets.UTF_8).lines().findFirst().orElseThrow();
+        assertTrue(header.contains("firstName") && header.contains("email"));
+    }
+
+}
@@ -0,0 +1,221 @@
+package com.mariuszilinskas.streamix.users.account.service;
+
+import com.mariuszilinskas.streamix.users.account.cache.AuthDetailsCache;
+import com.mariuszilinskas.streamix.users.account.cache.EmailBloomFilter;
+import com.mariuszilinskas.streamix.users.account.client.IdentityClient;
+import com.mariuszilinskas.streamix.users.account.datasource.ReadYourWritesWindow;
+import com.mariuszilinskas.streamix.users.account.dto.UpdateEmailRequest;
+import com.mariuszilinskas.streamix.users.account.dto.UpdateUserRequest;
+import com.mariuszilinskas.streamix.users.account.producer.RabbitMQProducer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts, with Hibernate statistics, the statements each write path issues against the
+ * Flyway-migrated H2 schema, and checks that updates only write the columns that changed.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "com.mariuszilinskas.streamix.users.account.service.UserServiceImplStatementCountTest$RecordingStatementInspector"
+})
+@Import(UserServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserServiceImplStatementCountTest {
+
+    @MockitoBean
+    private IdentityClient identityClient;
+
+    @MockitoBean
+    private RabbitMQProducer rabbitMQProducer;
+
+    @MockitoBean
+    private AuthDetailsCache authDetailsCache;
+
+    @MockitoBean
+    private LastActiveTracker lastActiveTracker;
+
+    @MockitoBean
+    private EmailBloomFilter emailBloomFilter;
+
+    @MockitoBean
+    private ReadYourWritesWindow readYourWritesWindow;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final UUID userId = UUID.randomUUID();
+    private final OffsetDateTime lastActive = OffsetDateTime.now().minusDays(1).truncatedTo(ChronoUnit.MILLIS);
+    private Statistics statistics;
+
+    /**
+     * Records the SQL Hibernate prepares, so the columns of each UPDATE can be inspected.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql.toLowerCase(Locale.ROOT));
+            return sql;
+        }
+
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (id, first_name, last_name, email, country, " +
+                "is_email_verified, status, roles_mask, authorities_mask, created_at, last_active) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                userId, "John", "Doe", "john@example.com", "UK", false, "ACTIVE", 1, 0, lastActive, lastActive);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        RecordingStatementInspector.statements.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    private OffsetDateTime storedLastActive() {
+        return jdbcTemplate.queryForObject("SELECT last_active FROM users WHERE id = ?", OffsetDateTime.class, userId);
+    }
+
+    private String singleUpdate() {
+        List<String> updates = RecordingStatementInspector.statements.stream()
+                .filter(sql -> sql.startsWith("update"))
+                .toList();
+        assertEquals(1, updates.size(), "Expected a single UPDATE, got " + updates);
+        return updates.getFirst();
+    }
+
+    @Test
+    void testVerifyUser_WritesOnlyVerifiedColumn() {
+        // Act
+        userService.verifyUser(userId);
+
+        // Assert
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+        String update = singleUpdate();
+        assertTrue(update.contains("is_email_verified"));
+        assertFalse(update.contains("first_name"));
+        assertFalse(update.contains("roles_mask"));
+    }
+
+    @Test
+    void testVerifyUser_AlreadyVerifiedIssuesNoUpdate() {
+        // Arrange
+        userService.verifyUser(userId);
+        statistics.clear();
+
+        // Act
+        userService.verifyUser(userId);
+
+        // Assert
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    void testUpdateUser_WritesOnlyChangedColumns() {
+        // Act
+        userService.updateUser(userId, new UpdateUserRequest("Jonathan", "Doe", "UK"));
+
+        // Assert
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+        String update = singleUpdate();
+        assertTrue(update.contains("first_name"));
+        assertFalse(update.contains("last_name"));
+        assertFalse(update.contains("country"));
+    }
+
+    @Test
+    void testUpdateUser_NoChangesIssuesNoUpdate() {
+        // Act
+        userService.updateUser(userId, new UpdateUserRequest("John", "Doe", "UK"));
+
+        // Assert
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    void testUpdateUserEmail_WritesOnlyEmailColumns() {
+        // Act
+        userService.updateUserEmail(userId, new UpdateEmailRequest("jonathan@example.com", "Password1!"));
+
+        // Assert: read before the password check, read again and update in the write transaction
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+        String update = singleUpdate();
+        assertTrue(update.contains("email"));
+        assertFalse(update.contains("first_name"));
+        assertFalse(update.contains("last_active"));
+    }
+
+    @Test
+    void testUpdateUserEmail_SameEmailIssuesNoUpdate() {
+        // Act
+        userService.updateUserEmail(userId, new UpdateEmailRequest("john@example.com", "Password1!"));
+
+        // Assert
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    void testUpdateLastActiveInDb_LoadsNoUser() {
+        // Arrange
+        OffsetDateTime newLastActive = lastActive.plusHours(1);
+
+        // Act
+        userService.updateLastActiveInDb(userId, newLastActive.toZonedDateTime());
+
+        // Assert
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(newLastActive.toInstant(), storedLastActive().toInstant());
+    }
+
+    @Test
+    void testUpdateLastActiveInDb_OlderTimestampIsIgnored() {
+        // Act
+        userService.updateLastActiveInDb(userId, lastActive.minusHours(1).toZonedDateTime());
+
+        // Assert
+        assertEquals(lastActive.toInstant(), storedLastActive().toInstant());
+    }
+
+}
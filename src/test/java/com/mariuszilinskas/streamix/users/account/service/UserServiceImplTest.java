@@ -1,6 +1,9 @@
 package com.mariuszilinskas.streamix.users.account.service;
 
-import com.mariuszilinskas.streamix.users.account.client.IdentityFeignClient;
+import com.mariuszilinskas.streamix.users.account.cache.AuthDetailsCache;
+import com.mariuszilinskas.streamix.users.account.cache.EmailBloomFilter;
+import com.mariuszilinskas.streamix.users.account.client.IdentityClient;
+import com.mariuszilinskas.streamix.users.account.datasource.ReadYourWritesWindow;
 import com.mariuszilinskas.streamix.users.account.dto.*;
 import com.mariuszilinskas.streamix.users.account.enums.UserRole;
 import com.mariuszilinskas.streamix.users.account.enums.UserStatus;
@@ -8,24 +11,37 @@ import com.mariuszilinskas.streamix.users.account.exception.CreateCredentialsExc
 import com.mariuszilinskas.streamix.users.account.exception.EmailExistsException;
 import com.mariuszilinskas.streamix.users.account.exception.PasswordValidationException;
 import com.mariuszilinskas.streamix.users.account.exception.ResourceNotFoundException;
+import com.mariuszilinskas.streamix.users.account.exception.UserRegistrationException;
 import com.mariuszilinskas.streamix.users.account.model.User;
 import com.mariuszilinskas.streamix.users.account.producer.RabbitMQProducer;
+import com.mariuszilinskas.streamix.users.account.projection.AuthDetailsView;
+import com.mariuszilinskas.streamix.users.account.projection.EmailAuthDetailsView;
 import com.mariuszilinskas.streamix.users.account.repository.UserRepository;
-import com.mariuszilinskas.streamix.users.account.util.TestUtils;
-import feign.FeignException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -38,18 +54,35 @@ public class UserServiceImplTest {
     private UserRepository userRepository;
 
     @Mock
-    private IdentityFeignClient identityFeignClient;
+    private IdentityClient identityClient;
 
     @Mock
     private RabbitMQProducer rabbitMQProducer;
 
+    @Mock
+    private LastActiveTracker lastActiveTracker;
+
+    @Mock
+    private EmailBloomFilter emailBloomFilter;
+
+    @Mock
+    private ReadYourWritesWindow readYourWritesWindow;
+
+    @Spy
+    private AuthDetailsCache authDetailsCache = new AuthDetailsCache(Duration.ofMinutes(5), 100,
+            new ReadYourWritesWindow("", Duration.ofSeconds(5), 100));
+
+    @Spy
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+
     @InjectMocks
     private UserServiceImpl userService;
 
     private CreateUserRequest createUserRequest;
-    private final FeignException feignException = TestUtils.createFeignException();
     private final UUID userId = UUID.randomUUID();
+    private final String registrationKey = UUID.randomUUID().toString();
     private final User user = new User();
+    private AuthDetailsView authDetailsView;
 
     @BeforeEach
     void setUp() {
@@ -61,6 +94,8 @@ public class UserServiceImplTest {
         user.setStatus(UserStatus.ACTIVE);
         user.setRoles(List.of(UserRole.USER));
         user.setAuthorities(List.of());
+        authDetailsView = new SpelAwareProxyProjectionFactory().createProjection(AuthDetailsView.class, user);
+        lenient().when(emailBloomFilter.mightContain(anyString())).thenReturn(true);
 
         createUserRequest = new CreateUserRequest(
                 user.getFirstName(),
@@ -71,6 +106,12 @@ public class UserServiceImplTest {
         );
     }
 
+    private DataIntegrityViolationException emailViolation() {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Unique index or primary key violation", new SQLException(),
+                        "PUBLIC.UK_USERS_EMAIL_INDEX_4"));
+    }
+
     @Test
     void testCreateUser_Success() {
         // Arrange
@@ -79,23 +120,22 @@ public class UserServiceImplTest {
                 userId, createUserRequest.firstName(), createUserRequest.email(), createUserRequest.password());
         var profileMessage = new CreateDefaultProfileMessage(userId, user.getFirstName());
 
-        when(userRepository.existsByEmail(createUserRequest.email()))
-                .thenReturn(false);
-        when(userRepository.save(captor.capture())).thenReturn(user);
-        when(identityFeignClient.createCredentials(credentialsRequest)).thenReturn(null);
+        when(userRepository.saveAndFlush(captor.capture())).thenReturn(user);
+        doNothing().when(identityClient).createCredentials(credentialsRequest);
+        when(userRepository.markCredentialsCreated(userId)).thenReturn(1);
         doNothing().when(rabbitMQProducer).sendCreateDefaultProfileMessage(profileMessage);
 
         // Act
-        UserResponse response = userService.createUser(createUserRequest);
+        UserResponse response = userService.createUser(createUserRequest, registrationKey);
 
         // Assert
         assertNotNull(response);
         assertEquals(user.getId(), response.id());
 
-        verify(userRepository, times(1)).existsByEmail(createUserRequest.email());
-        verify(userRepository, times(1)).save(captor.capture());
-        verify(identityFeignClient, times(1)).createCredentials(credentialsRequest);
+        verify(userRepository, times(1)).saveAndFlush(captor.capture());
+        verify(identityClient, times(1)).createCredentials(credentialsRequest);
         verify(rabbitMQProducer, times(1)).sendCreateDefaultProfileMessage(profileMessage);
+        verify(emailBloomFilter, times(1)).add(user.getEmail());
 
         User savedUser = captor.getValue();
         assertEquals(createUserRequest.firstName(), savedUser.getFirstName());
@@ -104,23 +144,117 @@ public class UserServiceImplTest {
         assertEquals(createUserRequest.country(), savedUser.getCountry());
         assertEquals(UserStatus.PENDING, savedUser.getStatus());
         assertFalse(savedUser.isEmailVerified());
+        assertFalse(savedUser.isCredentialsCreated());
+        verify(userRepository, times(1)).markCredentialsCreated(userId);
+        verify(userRepository, never()).deleteIncompleteRegistration(any(UUID.class));
+    }
+
+    @Test
+    void testCreateUser_ResumesIncompleteRegistration() {
+        // Arrange
+        user.setCredentialsCreated(false);
+        var credentialsRequest = new CredentialsRequest(
+                userId, createUserRequest.firstName(), createUserRequest.email(), createUserRequest.password());
+
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(emailViolation());
+        when(userRepository.findByEmailIgnoreCaseAndRegistrationKeyAndCredentialsCreatedFalse(
+                createUserRequest.email(), registrationKey)).thenReturn(Optional.of(user));
+        when(userRepository.markCredentialsCreated(userId)).thenReturn(1);
+
+        // Act
+        UserResponse response = userService.createUser(createUserRequest, registrationKey);
+
+        // Assert
+        assertEquals(userId, response.id());
+        verify(identityClient, times(1)).createCredentials(credentialsRequest);
+        verify(rabbitMQProducer, times(1)).sendCreateDefaultProfileMessage(any(CreateDefaultProfileMessage.class));
+    }
+
+    @Test
+    void testCreateUser_PendingRegistrationWithoutKeyIsNotResumed() {
+        // Arrange
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(emailViolation());
+
+        // Act & Assert
+        assertThrows(EmailExistsException.class, () -> userService.createUser(createUserRequest, null));
+
+        verify(userRepository, never()).findByEmailIgnoreCaseAndRegistrationKeyAndCredentialsCreatedFalse(
+                anyString(), anyString());
+        verify(identityClient, never()).createCredentials(any(CredentialsRequest.class));
+    }
+
+    @Test
+    void testCreateUser_PendingRegistrationWithOtherKeyIsNotResumed() {
+        // Arrange
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(emailViolation());
+        when(userRepository.findByEmailIgnoreCaseAndRegistrationKeyAndCredentialsCreatedFalse(
+                createUserRequest.email(), "other-key")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(EmailExistsException.class, () -> userService.createUser(createUserRequest, "other-key"));
+
+        verify(identityClient, never()).createCredentials(any(CredentialsRequest.class));
+    }
+
+    @Test
+    void testCreateUser_AbandonedMeanwhileRemovesCreatedCredentials() {
+        // Arrange
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+        when(userRepository.markCredentialsCreated(userId)).thenReturn(0);
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(UserRegistrationException.class, () -> userService.createUser(createUserRequest, registrationKey));
+
+        verify(rabbitMQProducer, times(1)).sendDeleteUserDataMessage(userId);
+        verify(rabbitMQProducer, never()).sendCreateDefaultProfileMessage(any(CreateDefaultProfileMessage.class));
+    }
+
+    @Test
+    void testCreateUser_AlreadyCompletedByConcurrentRetry() {
+        // Arrange
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+        when(userRepository.markCredentialsCreated(userId)).thenReturn(0);
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        // Act
+        UserResponse response = userService.createUser(createUserRequest, registrationKey);
+
+        // Assert
+        assertEquals(userId, response.id());
+        verify(rabbitMQProducer, never()).sendCreateDefaultProfileMessage(any(CreateDefaultProfileMessage.class));
     }
 
     @Test
     void testCreateUser_EmailAlreadyExists() {
         // Arrange
-        when(userRepository.existsByEmail(createUserRequest.email())).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(emailViolation());
 
         //Act & Assert
-        assertThrows(EmailExistsException.class, () -> userService.createUser(createUserRequest));
+        assertThrows(EmailExistsException.class, () -> userService.createUser(createUserRequest, registrationKey));
 
         // Assert
-        verify(userRepository, times(1)).existsByEmail(createUserRequest.email());
-        verify(userRepository, never()).save(any(User.class));
-        verify(identityFeignClient, never()).createCredentials(any(CredentialsRequest.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+        verify(emailBloomFilter, never()).add(anyString());
+        verify(identityClient, never()).createCredentials(any(CredentialsRequest.class));
         verify(rabbitMQProducer, never()).sendCreateDefaultProfileMessage(any(CreateDefaultProfileMessage.class));
     }
 
+    @Test
+    void testCreateUser_OtherIntegrityViolationIsRethrown() {
+        // Arrange
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("NULL not allowed for column");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation);
+
+        //Act & Assert
+        DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class,
+                () -> userService.createUser(createUserRequest, registrationKey));
+
+        // Assert
+        assertSame(violation, thrown);
+        verify(identityClient, never()).createCredentials(any(CredentialsRequest.class));
+    }
+
     @Test
     void testCreateUser_ErrorCreatingCredentials() {
         // Arrange
@@ -128,18 +262,34 @@ public class UserServiceImplTest {
         var credentialsRequest = new CredentialsRequest(
                 userId, createUserRequest.firstName(), createUserRequest.email(), createUserRequest.password());
 
-        when(userRepository.existsByEmail(createUserRequest.email()))
-                .thenReturn(false);
-        when(userRepository.save(captor.capture())).thenReturn(user);
-        doThrow(feignException).when(identityFeignClient).createCredentials(credentialsRequest);
+        when(userRepository.saveAndFlush(captor.capture())).thenReturn(user);
+        doThrow(new CreateCredentialsException(userId)).when(identityClient).createCredentials(credentialsRequest);
+        when(userRepository.deleteIncompleteRegistration(userId)).thenReturn(1);
 
         // Act & Assert
-        assertThrows(CreateCredentialsException.class, () -> userService.createUser(createUserRequest));
+        assertThrows(CreateCredentialsException.class, () -> userService.createUser(createUserRequest, registrationKey));
 
-        verify(userRepository, times(1)).existsByEmail(createUserRequest.email());
-        verify(userRepository, times(1)).save(captor.capture());
-        verify(identityFeignClient, times(1)).createCredentials(credentialsRequest);
+        verify(userRepository, times(1)).saveAndFlush(captor.capture());
+        verify(identityClient, times(1)).createCredentials(credentialsRequest);
         verify(rabbitMQProducer, never()).sendCreateDefaultProfileMessage(any(CreateDefaultProfileMessage.class));
+        verify(userRepository, never()).markCredentialsCreated(any(UUID.class));
+        verify(rabbitMQProducer, times(1)).sendDeleteUserDataMessage(userId);
+        verify(authDetailsCache, times(1)).evict(userId);
+        verify(emailBloomFilter, times(1)).recordRemoval();
+    }
+
+    @Test
+    void testAbandonRegistration_AlreadyCompleted() {
+        // Arrange
+        when(userRepository.deleteIncompleteRegistration(userId)).thenReturn(0);
+
+        // Act
+        boolean abandoned = userService.abandonRegistration(userId, user.getEmail());
+
+        // Assert
+        assertFalse(abandoned);
+        verify(emailBloomFilter, never()).recordRemoval();
+        verify(rabbitMQProducer, never()).sendDeleteUserDataMessage(any(UUID.class));
     }
 
     @Test
@@ -173,6 +323,39 @@ public class UserServiceImplTest {
         verify(userRepository, times(1)).findById(nonExistentId);
     }
 
+    @Test
+    void testGetUsers_SplitsFoundAndMissing() {
+        // Arrange
+        UUID nonExistentId = UUID.randomUUID();
+        var request = new BatchUserRequest(List.of(userId, nonExistentId, userId));
+        when(userRepository.findAllById(List.of(userId, nonExistentId))).thenReturn(List.of(user));
+
+        // Act
+        BatchUserResponse response = userService.getUsers(request);
+
+        // Assert
+        assertEquals(1, response.users().size());
+        assertEquals(user.getEmail(), response.users().get(userId).email());
+        assertEquals(List.of(nonExistentId), response.missing());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetUsers_ChunksLargeRequests() {
+        // Arrange
+        List<UUID> userIds = Stream.generate(UUID::randomUUID).limit(2500).toList();
+        when(userRepository.findAllById(anyList())).thenReturn(List.of());
+
+        // Act
+        BatchUserResponse response = userService.getUsers(new BatchUserRequest(userIds));
+
+        // Assert
+        ArgumentCaptor<List<UUID>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userRepository, times(3)).findAllById(captor.capture());
+        assertEquals(List.of(1000, 1000, 500), captor.getAllValues().stream().map(List::size).toList());
+        assertEquals(2500, response.missing().size());
+    }
+
     @Test
     void testUpdateUser_Success() {
         // Arrange
@@ -196,6 +379,23 @@ public class UserServiceImplTest {
         assertEquals(request.firstName(), savedUser.getFirstName());
         assertEquals(request.lastName(), savedUser.getLastName());
         assertEquals(request.country(), savedUser.getCountry());
+        verify(readYourWritesWindow, times(1)).recordWrite(userId);
+    }
+
+    @Test
+    void testUpdateUser_NoChanges() {
+        // Arrange
+        UpdateUserRequest request = new UpdateUserRequest(user.getFirstName(), user.getLastName(), user.getCountry());
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        // Act
+        UserResponse response = userService.updateUser(userId, request);
+
+        // Assert
+        assertEquals(user.getFirstName(), response.firstName());
+        verify(userRepository, times(1)).findById(userId);
+        verify(userRepository, never()).save(any(User.class));
+        verify(readYourWritesWindow, never()).recordWrite(any(UUID.class));
     }
 
     @Test
@@ -229,9 +429,8 @@ public class UserServiceImplTest {
         var passwordRequest = new VerifyPasswordRequest(userId, password);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(identityFeignClient.verifyPassword(passwordRequest)).thenReturn(null);
-        when(userRepository.existsByEmail(emailRequest.email())).thenReturn(false);
-        when(userRepository.save(captor.capture())).thenReturn(user);
+        doNothing().when(identityClient).verifyPassword(passwordRequest);
+        when(userRepository.saveAndFlush(captor.capture())).thenReturn(user);
         doNothing().when(rabbitMQProducer).sendResetPasscodeMessage(userId);
 
         // Act
@@ -243,14 +442,46 @@ public class UserServiceImplTest {
         assertEquals(newEmail, response.email());
         assertFalse(response.isEmailVerified());
 
-        verify(userRepository, times(1)).findById(userId);
-        verify(identityFeignClient, times(1)).verifyPassword(passwordRequest);
-        verify(userRepository, times(1)).existsByEmail(newEmail);
-        verify(userRepository, times(1)).save(captor.capture());
+        verify(userRepository, times(2)).findById(userId);
+        verify(identityClient, times(1)).verifyPassword(passwordRequest);
+        verify(userRepository, times(1)).saveAndFlush(captor.capture());
         verify(rabbitMQProducer, times(1)).sendResetPasscodeMessage(userId);
+        verify(authDetailsCache, times(1)).evict(userId);
+        verify(authDetailsCache, times(1)).evictEmail(currentEmail);
+        verify(emailBloomFilter, times(1)).add(newEmail);
+        verify(emailBloomFilter, times(1)).recordRemoval();
 
         User savedUser = captor.getValue();
         assertEquals(newEmail, savedUser.getEmail());
+
+        // The password is verified between the two transactions, never inside one
+        InOrder inOrder = inOrder(transactionOperations, identityClient);
+        inOrder.verify(transactionOperations).execute(any());
+        inOrder.verify(identityClient).verifyPassword(passwordRequest);
+        inOrder.verify(transactionOperations).execute(any());
+    }
+
+    @Test
+    void testUpdateUserEmail_SameEmail() {
+        // Arrange
+        String password = "Password1!";
+        user.setEmailVerified(true);
+        var emailRequest = new UpdateEmailRequest(user.getEmail(), password);
+        var passwordRequest = new VerifyPasswordRequest(userId, password);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        doNothing().when(identityClient).verifyPassword(passwordRequest);
+
+        // Act
+        UpdateEmailResponse response = userService.updateUserEmail(userId, emailRequest);
+
+        // Assert
+        assertEquals(user.getEmail(), response.email());
+        assertTrue(response.isEmailVerified());
+        verify(userRepository, never()).saveAndFlush(any(User.class));
+        verify(authDetailsCache, never()).evict(any(UUID.class));
+        verify(emailBloomFilter, never()).add(anyString());
+        verify(rabbitMQProducer, never()).sendResetPasscodeMessage(any(UUID.class));
     }
 
     @Test
@@ -266,16 +497,15 @@ public class UserServiceImplTest {
         var passwordRequest = new VerifyPasswordRequest(userId, password);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        doThrow(feignException).when(identityFeignClient).verifyPassword(passwordRequest);
+        doThrow(new PasswordValidationException()).when(identityClient).verifyPassword(passwordRequest);
 
         // Act & Assert
         assertThrows(PasswordValidationException.class, () -> userService.updateUserEmail(userId, emailRequest));
 
         // Assert
         verify(userRepository, times(1)).findById(userId);
-        verify(identityFeignClient, times(1)).verifyPassword(passwordRequest);
-        verify(userRepository, never()).existsByEmail(anyString());
-        verify(userRepository, never()).save(any(User.class));
+        verify(identityClient, times(1)).verifyPassword(passwordRequest);
+        verify(userRepository, never()).saveAndFlush(any(User.class));
         verify(rabbitMQProducer, never()).sendResetPasscodeMessage(any(UUID.class));
     }
 
@@ -293,9 +523,8 @@ public class UserServiceImplTest {
 
         // Assert
         verify(userRepository, times(1)).findById(nonExistentId);
-        verify(identityFeignClient, never()).verifyPassword(any(VerifyPasswordRequest.class));
-        verify(userRepository, never()).existsByEmail(newEmail);
-        verify(userRepository, never()).save(any(User.class));
+        verify(identityClient, never()).verifyPassword(any(VerifyPasswordRequest.class));
+        verify(userRepository, never()).saveAndFlush(any(User.class));
         verify(rabbitMQProducer, never()).sendResetPasscodeMessage(any(UUID.class));
     }
 
@@ -309,17 +538,19 @@ public class UserServiceImplTest {
         var passwordRequest = new VerifyPasswordRequest(userId, password);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(identityFeignClient.verifyPassword(passwordRequest)).thenReturn(null);
-        when(userRepository.existsByEmail(newEmail)).thenReturn(true);
+        doNothing().when(identityClient).verifyPassword(passwordRequest);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(emailViolation());
 
         // Assert & Act
         assertThrows(EmailExistsException.class, () -> userService.updateUserEmail(userId, emailRequest));
 
         // Assert
-        verify(userRepository, times(1)).findById(userId);
-        verify(identityFeignClient, times(1)).verifyPassword(passwordRequest);
-        verify(userRepository, times(1)).existsByEmail(newEmail);
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, times(2)).findById(userId);
+        verify(identityClient, times(1)).verifyPassword(passwordRequest);
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+        verify(authDetailsCache, never()).evict(any(UUID.class));
+        verify(emailBloomFilter, never()).add(anyString());
+        verify(rabbitMQProducer, never()).sendResetPasscodeMessage(any(UUID.class));
     }
 
     @Test
@@ -341,6 +572,20 @@ public class UserServiceImplTest {
         assertTrue(savedUser.isEmailVerified());
     }
 
+    @Test
+    void testVerifyUserEmail_AlreadyVerified() {
+        // Arrange
+        user.setEmailVerified(true);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        // Act
+        userService.verifyUser(userId);
+
+        // Assert
+        verify(userRepository, times(1)).findById(userId);
+        verify(userRepository, never()).save(any(User.class));
+    }
+
     @Test
     void testVerifyUserEmail_NonExistentUser() {
         // Arrange
@@ -358,8 +603,7 @@ public class UserServiceImplTest {
     @Test
     void tesGetUserAuthDetailsWithEmail_Success() {
         // Arrange
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
-        doNothing().when(rabbitMQProducer).sendUpdateLastActiveMessage(any(UserLastActiveMessage.class));
+        when(userRepository.findAuthDetailsByEmailIgnoreCase(user.getEmail())).thenReturn(Optional.of(authDetailsView));
 
         // Act
         AuthDetailsResponse response = userService.getUserAuthDetailsByEmail(user.getEmail());
@@ -370,8 +614,9 @@ public class UserServiceImplTest {
         assertThat(user.getRoles()).containsExactlyInAnyOrderElementsOf(response.roles());
         assertThat(user.getAuthorities()).containsExactlyInAnyOrderElementsOf(response.authorities());
 
-        verify(userRepository, times(1)).findByEmail(user.getEmail());
-        verify(rabbitMQProducer, times(1)).sendUpdateLastActiveMessage(any(UserLastActiveMessage.class));
+        verify(userRepository, times(1)).findAuthDetailsByEmailIgnoreCase(user.getEmail());
+        verify(userRepository, never()).findByEmailIgnoreCase(anyString());
+        verify(lastActiveTracker, times(1)).record(eq(userId), any(ZonedDateTime.class));
         verify(userRepository, never()).save(any(User.class));
     }
 
@@ -379,21 +624,80 @@ public class UserServiceImplTest {
     void testGetUserAuthDetailsWithEmail_NonExistentUser() {
         // Arrange
         String nonExistentUserEmail = "some@email.com";
-        when(userRepository.findByEmail(nonExistentUserEmail)).thenReturn(Optional.empty());
+        when(userRepository.findAuthDetailsByEmailIgnoreCase(nonExistentUserEmail)).thenReturn(Optional.empty());
 
         // Assert & Act
         assertThrows(ResourceNotFoundException.class, () -> userService.getUserAuthDetailsByEmail(nonExistentUserEmail));
 
         // Assert
-        verify(userRepository, times(1)).findByEmail(nonExistentUserEmail);
+        verify(userRepository, times(1)).findAuthDetailsByEmailIgnoreCase(nonExistentUserEmail);
+        verify(emailBloomFilter, times(1)).recordFalsePositive();
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    void testGetUserAuthDetailsWithEmail_NormalizesCase() {
+        // Arrange
+        when(userRepository.findAuthDetailsByEmailIgnoreCase(user.getEmail())).thenReturn(Optional.of(authDetailsView));
+
+        // Act
+        userService.getUserAuthDetailsByEmail(" John@Example.com");
+        AuthDetailsResponse response = userService.getUserAuthDetailsByEmail(user.getEmail());
+
+        // Assert
+        assertEquals(userId, response.userId());
+        verify(userRepository, times(1)).findAuthDetailsByEmailIgnoreCase(user.getEmail());
+    }
+
+    @Test
+    void testGetUserAuthDetailsWithEmail_EmailFilterMissStillQueries() {
+        // Arrange
+        when(emailBloomFilter.mightContain(user.getEmail())).thenReturn(false);
+        when(userRepository.findAuthDetailsByEmailIgnoreCase(user.getEmail())).thenReturn(Optional.of(authDetailsView));
+
+        // Act
+        AuthDetailsResponse response = userService.getUserAuthDetailsByEmail(user.getEmail());
+
+        // Assert
+        assertEquals(userId, response.userId());
+        verify(emailBloomFilter, times(1)).recordMissedEmail(user.getEmail());
+    }
+
+    @Test
+    void testGetUserAuthDetailsWithEmail_AuthoritativeEmailFilterMiss() {
+        // Arrange
+        String nonExistentUserEmail = "some@email.com";
+        when(emailBloomFilter.mightContain(nonExistentUserEmail)).thenReturn(false);
+        when(emailBloomFilter.isAuthoritative()).thenReturn(true);
+
+        // Assert & Act
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserAuthDetailsByEmail(nonExistentUserEmail));
+
+        // Assert
+        verify(userRepository, never()).findAuthDetailsByEmailIgnoreCase(anyString());
+        verify(emailBloomFilter, never()).recordFalsePositive();
+    }
+
+    @Test
+    void testGetUserAuthDetailsWithEmail_ServedFromCache() {
+        // Arrange
+        when(userRepository.findAuthDetailsByEmailIgnoreCase(user.getEmail())).thenReturn(Optional.of(authDetailsView));
+
+        // Act
+        userService.getUserAuthDetailsByEmail(user.getEmail());
+        AuthDetailsResponse response = userService.getUserAuthDetailsByEmail(user.getEmail());
+
+        // Assert
+        assertEquals(userId, response.userId());
+
+        verify(userRepository, times(1)).findAuthDetailsByEmailIgnoreCase(user.getEmail());
+        verify(lastActiveTracker, times(2)).record(eq(userId), any(ZonedDateTime.class));
+    }
+
     @Test
     void tesGetUserAuthDetailsWithId_Success() {
         // Arrange
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        doNothing().when(rabbitMQProducer).sendUpdateLastActiveMessage(any(UserLastActiveMessage.class));
+        when(userRepository.findAuthDetailsById(userId)).thenReturn(Optional.of(authDetailsView));
 
         // Act
         AuthDetailsResponse response = userService.getUserAuthDetailsByUserId(userId);
@@ -404,8 +708,9 @@ public class UserServiceImplTest {
         assertThat(user.getRoles()).containsExactlyInAnyOrderElementsOf(response.roles());
         assertThat(user.getAuthorities()).containsExactlyInAnyOrderElementsOf(response.authorities());
 
-        verify(userRepository, times(1)).findById(userId);
-        verify(rabbitMQProducer, times(1)).sendUpdateLastActiveMessage(any(UserLastActiveMessage.class));
+        verify(userRepository, times(1)).findAuthDetailsById(userId);
+        verify(userRepository, never()).findById(any(UUID.class));
+        verify(lastActiveTracker, times(1)).record(eq(userId), any(ZonedDateTime.class));
         verify(userRepository, never()).save(any(User.class));
     }
 
@@ -413,47 +718,125 @@ public class UserServiceImplTest {
     void testGetUserAuthDetailsWithId_NonExistentUser() {
         // Arrange
         UUID nonExistentUserEId = UUID.randomUUID();
-        when(userRepository.findById(nonExistentUserEId)).thenReturn(Optional.empty());
+        when(userRepository.findAuthDetailsById(nonExistentUserEId)).thenReturn(Optional.empty());
 
         // Assert & Act
         assertThrows(ResourceNotFoundException.class, () -> userService.getUserAuthDetailsByUserId(nonExistentUserEId));
 
         // Assert
-        verify(userRepository, times(1)).findById(nonExistentUserEId);
+        verify(userRepository, times(1)).findAuthDetailsById(nonExistentUserEId);
         verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
-    void testUpdateLastActiveInDb_Success() {
+    void testGetUserAuthDetailsWithId_ServedFromCacheUntilEvicted() {
         // Arrange
-        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.findAuthDetailsById(userId)).thenReturn(Optional.of(authDetailsView));
 
         // Act
-        userService.updateLastActiveInDb(userId, ZonedDateTime.now());
+        userService.getUserAuthDetailsByUserId(userId);
+        userService.getUserAuthDetailsByUserId(userId);
+        authDetailsCache.evict(userId);
+        userService.getUserAuthDetailsByUserId(userId);
 
         // Assert
-        verify(userRepository, times(1)).findById(userId);
-        verify(userRepository, times(1)).save(captor.capture());
-
-        User savedUser = captor.getValue();
-        ZonedDateTime now = ZonedDateTime.now();
-        ZonedDateTime savedUserLastActive = savedUser.getLastActive();
-        long secondsDifference = Math.abs(ChronoUnit.SECONDS.between(now, savedUserLastActive));
-        assertTrue(secondsDifference <= 1); // 1 second tolerance
+        verify(userRepository, times(2)).findAuthDetailsById(userId);
+        verify(lastActiveTracker, times(3)).record(eq(userId), any(ZonedDateTime.class));
     }
 
     @Test
-    void testUpdateLastActiveInDb_NotFound() {
+    void testGetUsersAuthDetails_KeyedByInput() {
         // Arrange
         UUID nonExistentId = UUID.randomUUID();
-        when(userRepository.findById(nonExistentId)).thenReturn(Optional.empty());
+        String nonExistentEmail = "jane@example.com";
+        var emailAuthDetailsView = new SpelAwareProxyProjectionFactory()
+                .createProjection(EmailAuthDetailsView.class, user);
+        var request = new BatchAuthDetailsRequest(
+                List.of(userId, nonExistentId), List.of(user.getEmail(), nonExistentEmail));
+        when(userRepository.findAllAuthDetailsByIdIn(List.of(userId, nonExistentId))).thenReturn(List.of(authDetailsView));
+        when(userRepository.findAllAuthDetailsByUpperEmailIn(
+                List.of(user.getEmail().toUpperCase(Locale.ROOT), nonExistentEmail.toUpperCase(Locale.ROOT))))
+                .thenReturn(List.of(emailAuthDetailsView));
 
-        // Assert & Act
-        assertThrows(ResourceNotFoundException.class, () -> userService.updateLastActiveInDb(nonExistentId, ZonedDateTime.now()));
+        // Act
+        BatchAuthDetailsResponse response = userService.getUsersAuthDetails(request);
 
         // Assert
-        verify(userRepository, times(1)).findById(nonExistentId);
+        assertEquals(userId, response.authDetails().get(userId.toString()).userId());
+        assertEquals(userId, response.authDetails().get(user.getEmail()).userId());
+        assertEquals(user.getRoles(), response.authDetails().get(user.getEmail()).roles());
+        assertEquals(List.of(nonExistentId.toString(), nonExistentEmail), response.missing());
+
+        verify(lastActiveTracker, never()).record(any(UUID.class), any(ZonedDateTime.class));
+    }
+
+    @Test
+    void testGetUsersAuthDetails_StoredEmailCaseIgnoredAndKeyedByRequestedEmail() {
+        // Arrange
+        Map<String, Object> stored = new HashMap<>();
+        stored.put("id", userId);
+        stored.put("email", "John.Doe@Example.com");
+        stored.put("roles", List.of(UserRole.USER));
+        stored.put("authorities", List.of());
+        stored.put("status", UserStatus.ACTIVE);
+        var emailAuthDetailsView = new SpelAwareProxyProjectionFactory()
+                .createProjection(EmailAuthDetailsView.class, stored);
+        var request = new BatchAuthDetailsRequest(null, List.of(" JOHN.doe@example.COM"));
+        when(userRepository.findAllAuthDetailsByUpperEmailIn(List.of("JOHN.DOE@EXAMPLE.COM")))
+                .thenReturn(List.of(emailAuthDetailsView));
+
+        // Act
+        BatchAuthDetailsResponse response = userService.getUsersAuthDetails(request);
+
+        // Assert
+        assertEquals(Set.of("john.doe@example.com"), response.authDetails().keySet());
+        assertEquals(userId, response.authDetails().get("john.doe@example.com").userId());
+        assertTrue(response.missing().isEmpty());
+    }
+
+    @Test
+    void testGetUsersAuthDetails_EmptyRequest() {
+        // Act
+        BatchAuthDetailsResponse response = userService.getUsersAuthDetails(new BatchAuthDetailsRequest(null, null));
+
+        // Assert
+        assertTrue(response.authDetails().isEmpty());
+        assertTrue(response.missing().isEmpty());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testUpdateLastActiveInDb_UsesBulkUpdate() {
+        // Arrange
+        ZonedDateTime lastActive = ZonedDateTime.now();
+
+        // Act
+        userService.updateLastActiveInDb(userId, lastActive);
+
+        // Assert
+        verify(userRepository, times(1)).updateLastActive(Map.of(userId, lastActive));
+        verify(userRepository, never()).findById(any(UUID.class));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void testUpdateLastActiveInDbBatch_KeepsLatestPerUser() {
+        // Arrange
+        UUID userId2 = UUID.randomUUID();
+        ZonedDateTime now = ZonedDateTime.now();
+        var messages = List.of(
+                new UserLastActiveMessage(userId, now.minusMinutes(5)),
+                new UserLastActiveMessage(userId2, now.minusMinutes(1)),
+                new UserLastActiveMessage(userId, now),
+                new UserLastActiveMessage(userId, now.minusMinutes(10))
+        );
+
+        // Act
+        userService.updateLastActiveInDb(messages);
+
+        // Assert
+        verify(userRepository, times(1)).updateLastActive(Map.of(userId, now, userId2, now.minusMinutes(1)));
+        verify(userRepository, never()).findById(any(UUID.class));
         verify(userRepository, never()).save(any(User.class));
     }
 
@@ -464,17 +847,28 @@ public class UserServiceImplTest {
         var deleteRequest = new DeleteUserRequest(password);
         var passwordRequest = new VerifyPasswordRequest(userId, password);
 
-        when(identityFeignClient.verifyPassword(passwordRequest)).thenReturn(null);
-        doNothing().when(userRepository).deleteById(userId);
+        doNothing().when(identityClient).verifyPassword(passwordRequest);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        doNothing().when(userRepository).delete(user);
         doNothing().when(rabbitMQProducer).sendDeleteUserDataMessage(userId);
 
         // Act
         userService.deleteUser(userId, deleteRequest);
 
         // Assert
-        verify(identityFeignClient, times(1)).verifyPassword(passwordRequest);
-        verify(userRepository, times(1)).deleteById(userId);
+        verify(identityClient, times(1)).verifyPassword(passwordRequest);
+        verify(userRepository, times(1)).delete(user);
+        verify(userRepository, times(1)).flush();
+        verify(authDetailsCache, times(1)).evict(userId);
+        verify(authDetailsCache, times(1)).evictEmail(user.getEmail());
+        verify(emailBloomFilter, times(1)).recordRemoval();
+        verify(readYourWritesWindow, times(1)).recordWrite(userId, user.getEmail());
         verify(rabbitMQProducer, times(1)).sendDeleteUserDataMessage(userId);
+
+        // The password is verified before the transaction, never inside it
+        InOrder inOrder = inOrder(identityClient, transactionOperations);
+        inOrder.verify(identityClient).verifyPassword(passwordRequest);
+        inOrder.verify(transactionOperations).execute(any());
     }
 
     @Test
@@ -484,14 +878,15 @@ public class UserServiceImplTest {
         var deleteRequest = new DeleteUserRequest(password);
         var passwordRequest = new VerifyPasswordRequest(userId, password);
 
-        doThrow(feignException).when(identityFeignClient).verifyPassword(passwordRequest);
+        doThrow(new PasswordValidationException()).when(identityClient).verifyPassword(passwordRequest);
 
         // Act & Assert
         assertThrows(PasswordValidationException.class, () -> userService.deleteUser(userId, deleteRequest));
 
         // Assert
-        verify(identityFeignClient, times(1)).verifyPassword(passwordRequest);
-        verify(userRepository, never()).deleteById(any(UUID.class));
+        verify(identityClient, times(1)).verifyPassword(passwordRequest);
+        verify(userRepository, never()).findById(any(UUID.class));
+        verify(userRepository, never()).delete(any(User.class));
         verify(rabbitMQProducer, never()).sendDeleteUserDataMessage(any(UUID.class));
     }
 
@@ -503,19 +898,36 @@ public class UserServiceImplTest {
         var deleteRequest = new DeleteUserRequest(password);
         var passwordRequest = new VerifyPasswordRequest(nonExtentUserId, password);
 
-        doThrow(feignException).when(identityFeignClient).verifyPassword(passwordRequest);
+        doThrow(new PasswordValidationException()).when(identityClient).verifyPassword(passwordRequest);
 
         // Act & Assert
         assertThrows(PasswordValidationException.class, () -> userService.deleteUser(nonExtentUserId, deleteRequest));
 
         // Assert
-        verify(identityFeignClient, times(1)).verifyPassword(passwordRequest);
-        verify(userRepository, never()).deleteById(any(UUID.class));
+        verify(identityClient, times(1)).verifyPassword(passwordRequest);
+        verify(userRepository, never()).findById(any(UUID.class));
+        verify(userRepository, never()).delete(any(User.class));
         verify(rabbitMQProducer, never()).sendDeleteUserDataMessage(any(UUID.class));
     }
 
+    @Test
+    void testDeleteUser_UserNotFound() {
+        // Arrange
+        UUID nonExistentUserId = UUID.randomUUID();
+        String password = "Password1!";
+        var deleteRequest = new DeleteUserRequest(password);
+        var passwordRequest = new VerifyPasswordRequest(nonExistentUserId, password);
 
+        doNothing().when(identityClient).verifyPassword(passwordRequest);
+        when(userRepository.findById(nonExistentUserId)).thenReturn(Optional.empty());
 
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> userService.deleteUser(nonExistentUserId, deleteRequest));
 
+        // Assert
+        verify(userRepository, never()).delete(any(User.class));
+        verify(authDetailsCache, never()).evict(any(UUID.class));
+        verify(rabbitMQProducer, never()).sendDeleteUserDataMessage(any(UUID.class));
+    }
 
 }